@@ -0,0 +1,67 @@
+package com.library.librarymanagement.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.repository.CursorPage;
+import com.library.librarymanagement.repository.CursorPageRequest;
+import com.library.librarymanagement.service.BookService;
+
+// Book reads as the controllers issue them. The two page benchmarks differ only in whether author and
+// borrow history are selected, so their difference is the cost of BookService.populateRelationships.
+// The author cache is left warm between calls, as it is in a running instance.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class BookServiceBenchmark {
+
+    private static final int PAGE = 50;
+
+    // Every field except the two relationships
+    private static final String WITHOUT_RELATIONSHIPS =
+            "id,title,category,publishingYear,isbn,totalCopies,availableCopies,version";
+
+    private BookService bookService;
+
+    @Setup(Level.Trial)
+    public void setUp(LibraryState library) {
+        bookService = library.bean(BookService.class);
+    }
+
+    @Benchmark
+    public List<Book> findAll() {
+        return bookService.findAll();
+    }
+
+    // Synthetic titles are built from a small vocabulary, so one word matches about a tenth of the books
+    @Benchmark
+    public List<Book> searchBooks() {
+        return bookService.searchBooks("river", null);
+    }
+
+    @Benchmark
+    public CursorPage<Book> pageWithRelationships() {
+        return bookService.findPage(new CursorPageRequest(PAGE, null, null), null);
+    }
+
+    @Benchmark
+    public CursorPage<Book> pageWithoutRelationships() {
+        return bookService.findPage(new CursorPageRequest(PAGE, null, null), WITHOUT_RELATIONSHIPS);
+    }
+}
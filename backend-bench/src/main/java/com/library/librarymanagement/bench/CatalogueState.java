@@ -0,0 +1,138 @@
+package com.library.librarymanagement.bench;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import com.library.librarymanagement.LibraryManagementApplication;
+import com.library.librarymanagement.model.Author;
+import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.search.SearchIndexService;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+
+// A books-only catalogue of the given size for the search benchmarks; the loan-driven seed.scale
+// dataset tops out far below a million books. Titles mix the synthetic vocabulary with a coined word
+// out of 8000, so a common word matches about a tenth of the catalogue and a coined one about 1 in 8000.
+// Books are added to the search index as they are inserted, one indexBook per document like
+// SearchIndexService.rebuild(), whose aggregation the stand-in would answer in a single oversized batch.
+// The stand-in has no secondary indexes and scans for $in on _id too; -Dbench.mongodb.uri points the
+// catalogue at a real mongod instead, whose database is dropped again after the trial.
+@State(Scope.Benchmark)
+public class CatalogueState {
+
+    private static final int AUTHORS = 2000;
+
+    private static final int BATCH = 10_000;
+
+    private static final String[] ADJECTIVES = { "Silent", "Crimson", "Hidden", "Last", "Golden", "Broken",
+            "Distant", "Burning", "Secret", "Forgotten" };
+    private static final String[] NOUNS = { "River", "Garden", "Empire", "Shadow", "Harbor", "Kingdom", "Letter",
+            "Mirror", "Winter", "Tower" };
+    private static final String[] SYLLABLES = { "ka", "lo", "ren", "mi", "tho", "vel", "dra", "sun", "bri", "ol",
+            "mar", "qui", "zen", "fa", "lis", "tor", "ne", "gan", "wy", "ash" };
+    private static final String[] CATEGORIES = { "Fiction", "Fantasy", "Science Fiction", "Mystery", "Romance",
+            "History", "Biography", "Poetry" };
+    private static final String[] FIRST_NAMES = { "Ada", "Bruno", "Clara", "Dmitri", "Elena", "Farid", "Grace",
+            "Hiro" };
+    private static final String[] LAST_NAMES = { "Okafor", "Lindqvist", "Moreau", "Tanaka", "Alvarez", "Novak",
+            "Hughes", "Petrov" };
+
+    @Param({ "100000", "1000000" })
+    public int books;
+
+    private MongoServer server;
+
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void start() {
+        String uri = System.getProperty("bench.mongodb.uri");
+        boolean standIn = uri == null;
+        if (standIn) {
+            server = new MongoServer(new MemoryBackend());
+            InetSocketAddress address = server.bind();
+            uri = "mongodb://" + address.getHostString() + ":" + address.getPort() + "/library_search_bench";
+        }
+        context = new SpringApplicationBuilder(LibraryManagementApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.data.mongodb.uri=" + uri,
+                        // As in LibraryState; a real mongod gets the declared indexes
+                        "--indexes.reconcile.enabled=" + !standIn,
+                        "--journal.enabled=false",
+                        "--changestreams.enabled=false",
+                        "--loans.overdue-sweep.enabled=false",
+                        "--logging.level.root=WARN");
+        seed(bean(MongoTemplate.class), bean(SearchIndexService.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        if (server != null) {
+            context.close();
+            server.shutdownNow();
+        } else {
+            bean(MongoTemplate.class).getDb().drop();
+            context.close();
+        }
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    private void seed(MongoTemplate mongoTemplate, SearchIndexService searchIndexService) {
+        SplittableRandom random = new SplittableRandom(42);
+        List<Author> authors = new ArrayList<>(AUTHORS);
+        for (int i = 0; i < AUTHORS; i++) {
+            Author author = new Author(pick(FIRST_NAMES, random) + " " + pick(LAST_NAMES, random), null, null);
+            author.setId(new ObjectId().toHexString());
+            author.setVersion(0L);
+            authors.add(author);
+        }
+        mongoTemplate.insert(authors, Author.class);
+
+        for (int from = 0; from < books; from += BATCH) {
+            List<Book> batch = new ArrayList<>(BATCH);
+            for (int i = from; i < Math.min(books, from + BATCH); i++) {
+                String title = "The " + pick(ADJECTIVES, random) + " " + pick(NOUNS, random) + " of "
+                        + coinedWord(random);
+                // 979- keeps clear of the sample data's ISBNs on the unique index
+                String isbn = String.format("979-%d-%07d", i % 10, i);
+                Book book = new Book(title, pick(CATEGORIES, random), 1850 + random.nextInt(176), isbn, 1,
+                        authors.get(random.nextInt(AUTHORS)));
+                book.setId(new ObjectId().toHexString());
+                book.setVersion(0L);
+                batch.add(book);
+            }
+            mongoTemplate.insert(batch, Book.class);
+            for (Book book : batch) {
+                searchIndexService.indexBook(book, book.getAuthor().getName());
+            }
+        }
+    }
+
+    // Capitalized, three syllables: "Kaloren", "Thovelash", ...
+    private static String coinedWord(SplittableRandom random) {
+        String word = pick(SYLLABLES, random) + pick(SYLLABLES, random) + pick(SYLLABLES, random);
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+
+    private static String pick(String[] values, SplittableRandom random) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,112 @@
+package com.library.librarymanagement.bench;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.model.BorrowedBook;
+import com.library.librarymanagement.model.Member;
+import com.library.librarymanagement.service.BookService;
+import com.library.librarymanagement.service.BorrowedBookService;
+import com.library.librarymanagement.service.MemberService;
+
+// Borrowing and returning through BorrowedBookService, with every side effect the endpoints have
+// (copy count, snapshot, version touches, overdue count, stats). Each borrow is paired with a return
+// outside the timed call, so copies never run out; books and members are drawn at random from the
+// dataset, so no single book's loan history grows over the run.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Thread)
+public class CirculationBenchmark {
+
+    private BorrowedBookService borrowedBookService;
+
+    private List<String> bookIds;
+
+    private List<String> memberIds;
+
+    private final SplittableRandom random = new SplittableRandom(7);
+
+    @Setup(Level.Trial)
+    public void setUp(LibraryState library) {
+        borrowedBookService = library.bean(BorrowedBookService.class);
+        bookIds = library.bean(BookService.class).findAll("id").stream().map(Book::getId).toList();
+        memberIds = library.bean(MemberService.class).findAll("id").stream().map(Member::getId).toList();
+    }
+
+    // Returned once the timed borrow is done
+    @State(Scope.Thread)
+    public static class Borrowed {
+
+        String loanId;
+
+        @TearDown(Level.Invocation)
+        public void giveBack(CirculationBenchmark benchmark) {
+            if (loanId != null) {
+                benchmark.borrowedBookService.returnBook(loanId);
+                loanId = null;
+            }
+        }
+    }
+
+    // Borrowed before each timed return
+    @State(Scope.Thread)
+    public static class OnLoan {
+
+        String loanId;
+
+        @Setup(Level.Invocation)
+        public void borrow(CirculationBenchmark benchmark) {
+            loanId = benchmark.borrowedBookService.borrowBook(benchmark.newLoan()).getId();
+        }
+    }
+
+    @Benchmark
+    public BorrowedBook borrowBook(Borrowed borrowed) {
+        BorrowedBook loan = borrowedBookService.borrowBook(newLoan());
+        borrowed.loanId = loan.getId();
+        return loan;
+    }
+
+    @Benchmark
+    public Object returnBook(OnLoan onLoan) {
+        return borrowedBookService.returnBook(onLoan.loanId);
+    }
+
+    // About one loan in twenty of the active ones is overdue in the synthetic dataset
+    @Benchmark
+    public List<BorrowedBook> findOverdueBooks() {
+        return borrowedBookService.findOverdueBooks();
+    }
+
+    private BorrowedBook newLoan() {
+        Book book = new Book();
+        book.setId(bookIds.get(random.nextInt(bookIds.size())));
+        Member member = new Member();
+        member.setId(memberIds.get(random.nextInt(memberIds.size())));
+        BorrowedBook loan = new BorrowedBook();
+        loan.setBook(book);
+        loan.setMember(member);
+        loan.setBorrowDate(LocalDate.now());
+        loan.setDueDate(LocalDate.now().plusDays(14));
+        return loan;
+    }
+}
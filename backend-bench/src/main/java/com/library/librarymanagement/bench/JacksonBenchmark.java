@@ -0,0 +1,64 @@
+package com.library.librarymanagement.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.model.BorrowedBook;
+import com.library.librarymanagement.repository.CursorPageRequest;
+import com.library.librarymanagement.service.BookService;
+import com.library.librarymanagement.service.BorrowedBookService;
+
+// JSON encoding of the book and loan list bodies with the application's ObjectMapper. The pages are
+// loaded and hydrated once, so only serialization is timed: a book with its author and borrow
+// history, a loan with its book and member.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class JacksonBenchmark {
+
+    @Param({ "50", "500" })
+    public int items;
+
+    private ObjectMapper objectMapper;
+
+    private List<Book> books;
+
+    private List<BorrowedBook> loans;
+
+    @Setup(Level.Trial)
+    public void setUp(LibraryState library) {
+        objectMapper = library.bean(ObjectMapper.class);
+        books = library.bean(BookService.class).findPage(new CursorPageRequest(items, null, null), null).getItems();
+        loans = library.bean(BorrowedBookService.class).findPage(new CursorPageRequest(items, null, null), null)
+                .getItems();
+    }
+
+    @Benchmark
+    public byte[] books() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(books);
+    }
+
+    @Benchmark
+    public byte[] loans() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(loans);
+    }
+}
@@ -0,0 +1,60 @@
+package com.library.librarymanagement.bench;
+
+import java.net.InetSocketAddress;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.library.librarymanagement.LibraryManagementApplication;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+
+// The application started inside the benchmark JVM against an in-process mongo-java-server, seeded with
+// the synthetic dataset (SyntheticDataGenerator) for the given number of loans: one book per 20 loans,
+// one member per 50. Services, caches and indexes are the real ones; only the web server, the journal
+// and the change stream are left out. Ready once run() returns, as the startup loads are synchronous.
+// Index reconciliation is off: the stand-in ignores secondary indexes, and its collections are not safe
+// to create indexes on from the background reconciler while the seed is inserting.
+@State(Scope.Benchmark)
+public class LibraryState {
+
+    @Param({ "10k", "100k" })
+    public String loans;
+
+    private MongoServer server;
+
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void start() {
+        server = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = server.bind();
+        context = new SpringApplicationBuilder(LibraryManagementApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.data.mongodb.uri=mongodb://" + address.getHostString() + ":" + address.getPort()
+                        + "/library_bench",
+                        "--seed.scale=" + loans,
+                        "--journal.enabled=false",
+                        "--changestreams.enabled=false",
+                        "--indexes.reconcile.enabled=false",
+                        "--logging.level.root=WARN");
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+        server.shutdownNow();
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+}
@@ -0,0 +1,79 @@
+package com.library.librarymanagement.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.search.SearchIndexService;
+
+// Keyword search over the book catalogue, the removed $regex query against the inverted index.
+// regexScan is BookRepository.findByKeyword as it was; indexLookup is the in-memory match alone and
+// indexSearch adds the $in fetch of the matching documents, so it returns the same books as regexScan.
+// "kaloren" is a rare title word, as a search box query usually is; -p keyword=river runs a common one,
+// which matches a tenth of the catalogue.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+@State(Scope.Benchmark)
+public class SearchBenchmark {
+
+    @Param({ "kaloren" })
+    public String keyword;
+
+    private MongoTemplate mongoTemplate;
+
+    private SearchIndexService searchIndexService;
+
+    private Document regexFilter;
+
+    @Setup(Level.Trial)
+    public void setUp(CatalogueState catalogue) {
+        mongoTemplate = catalogue.bean(MongoTemplate.class);
+        searchIndexService = catalogue.bean(SearchIndexService.class);
+        // The filter as the @Query string spelled it; the query mapper rejects author.name on a DBRef
+        Document regex = new Document("$regex", keyword).append("$options", "i");
+        regexFilter = new Document("$or", List.of(new Document("title", regex), new Document("category", regex),
+                new Document("author.name", regex)));
+    }
+
+    @Benchmark
+    public List<Book> regexScan() {
+        List<Book> books = new ArrayList<>();
+        for (Document document : mongoTemplate.getCollection("books").find(regexFilter)) {
+            books.add(mongoTemplate.getConverter().read(Book.class, document));
+        }
+        return books;
+    }
+
+    @Benchmark
+    public Set<String> indexLookup() {
+        return searchIndexService.searchBooks(keyword);
+    }
+
+    @Benchmark
+    public List<Book> indexSearch() {
+        return mongoTemplate.find(new Query(Criteria.where("id").in(searchIndexService.searchBooks(keyword))),
+                Book.class);
+    }
+}
@@ -0,0 +1,109 @@
+package com.library.librarymanagement.bench;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.model.BorrowedBook;
+import com.library.librarymanagement.repository.CursorPageRequest;
+import com.library.librarymanagement.service.BookService;
+import com.library.librarymanagement.service.BorrowedBookService;
+
+// JSON against Smile and CBOR for the GET /api/books and GET /api/borrowed-books bodies, with the mappers
+// of the application's message converters: encoding alone, and gzip of the encoded body as
+// server.compression applies it. Pages are loaded once, as in JacksonBenchmark. The encoded and gzipped
+// sizes are printed at setup, since JMH only reports times.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    @Param({ "json", "smile", "cbor" })
+    public String format;
+
+    @Param({ "50", "500" })
+    public int items;
+
+    private ObjectMapper mapper;
+
+    private List<Book> books;
+
+    private List<BorrowedBook> loans;
+
+    private byte[] booksBody;
+
+    private byte[] loansBody;
+
+    @Setup(Level.Trial)
+    public void setUp(LibraryState library) throws IOException {
+        switch (format) {
+            case "smile":
+                mapper = library.bean(MappingJackson2SmileHttpMessageConverter.class).getObjectMapper();
+                break;
+            case "cbor":
+                mapper = library.bean(MappingJackson2CborHttpMessageConverter.class).getObjectMapper();
+                break;
+            default:
+                mapper = library.bean(ObjectMapper.class);
+                break;
+        }
+        books = library.bean(BookService.class).findPage(new CursorPageRequest(items, null, null), null).getItems();
+        loans = library.bean(BorrowedBookService.class).findPage(new CursorPageRequest(items, null, null), null)
+                .getItems();
+        booksBody = mapper.writeValueAsBytes(books);
+        loansBody = mapper.writeValueAsBytes(loans);
+        System.out.printf("%n%s, %d items: books %d bytes (%d gzipped), loans %d bytes (%d gzipped)%n", format, items,
+                booksBody.length, gzip(booksBody).length, loansBody.length, gzip(loansBody).length);
+    }
+
+    @Benchmark
+    public byte[] encodeBooks() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(books);
+    }
+
+    @Benchmark
+    public byte[] encodeLoans() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(loans);
+    }
+
+    @Benchmark
+    public byte[] gzipBooks() throws IOException {
+        return gzip(booksBody);
+    }
+
+    @Benchmark
+    public byte[] gzipLoans() throws IOException {
+        return gzip(loansBody);
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(body);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -2,8 +2,16 @@ package com.library.librarymanagement;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.data.mongo.MongoReactiveDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.mongo.MongoReactiveRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.mongo.MongoReactiveAutoConfiguration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+// The reactive driver is only used by ReactiveLibraryApplication, whose beans only load in a reactive
+// web application
+@SpringBootApplication(exclude = { MongoReactiveAutoConfiguration.class, MongoReactiveDataAutoConfiguration.class,
+        MongoReactiveRepositoriesAutoConfiguration.class })
+@EnableScheduling
 public class LibraryManagementApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,246 @@
+package com.library.librarymanagement.availability;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Available and total copies per book in parallel int arrays, addressed by a dense slot assigned to each
+// book id, plus a bitset of the slots with a copy on the shelf. Reads share a read lock, writes are
+// serialized. Every write stamps its slot, so a reconciliation pass can skip books that changed after
+// it started reading from Mongo.
+public class AvailabilityIndex {
+
+    public static final int UNKNOWN = -1;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> slots = new HashMap<>();
+    private final BitSet usedSlots = new BitSet();
+    private final BitSet availableSlots = new BitSet();
+    // Stamps of removed books, so a pass that read them before the delete does not bring them back
+    private final Map<String, Long> removed = new HashMap<>();
+    private String[] ids = new String[INITIAL_CAPACITY];
+    private int[] available = new int[INITIAL_CAPACITY];
+    private int[] total = new int[INITIAL_CAPACITY];
+    private long[] stamps = new long[INITIAL_CAPACITY];
+    private long lastStamp;
+
+    public static final class Copies {
+
+        private final String id;
+        private final int available;
+        private final int total;
+
+        Copies(String id, int available, int total) {
+            this.id = id;
+            this.available = available;
+            this.total = total;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public int getAvailable() {
+            return available;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+    }
+
+    public void put(String id, int availableCopies, int totalCopies) {
+        lock.writeLock().lock();
+        try {
+            set(slotFor(id), availableCopies, totalCopies);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String id) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slots.remove(id);
+            if (slot != null) {
+                free(slot);
+            }
+            removed.put(id, ++lastStamp);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Mirrors BookRepository.decrementAvailableCopies: never below zero
+    public void decrement(String id) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slots.get(id);
+            if (slot != null && available[slot] > 0) {
+                set(slot, available[slot] - 1, total[slot]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Mirrors BookRepository.incrementAvailableCopies: never above the total
+    public void increment(String id) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slots.get(id);
+            if (slot != null && available[slot] < total[slot]) {
+                set(slot, available[slot] + 1, total[slot]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int available(String id) {
+        lock.readLock().lock();
+        try {
+            Integer slot = slots.get(id);
+            return slot == null ? UNKNOWN : available[slot];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Copies> availableBooks() {
+        lock.readLock().lock();
+        try {
+            List<Copies> books = new ArrayList<>(availableSlots.cardinality());
+            for (int slot = availableSlots.nextSetBit(0); slot >= 0; slot = availableSlots.nextSetBit(slot + 1)) {
+                books.add(new Copies(ids[slot], available[slot], total[slot]));
+            }
+            return books;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slots.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int availableCount() {
+        lock.readLock().lock();
+        try {
+            return availableSlots.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long availableCopies() {
+        lock.readLock().lock();
+        try {
+            long copies = 0;
+            for (int slot = availableSlots.nextSetBit(0); slot >= 0; slot = availableSlots.nextSetBit(slot + 1)) {
+                copies += available[slot];
+            }
+            return copies;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Stamp of the latest write; pass it to reconcile and retainOnly so writes made after it win
+    public long stamp() {
+        lock.readLock().lock();
+        try {
+            return lastStamp;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Applies the copy counts read from Mongo unless the book changed here since the given stamp;
+    // returns whether the index disagreed
+    public boolean reconcile(String id, int availableCopies, int totalCopies, long since) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slots.get(id);
+            if (slot == null && removed.getOrDefault(id, 0L) > since) {
+                return false;
+            }
+            if (slot != null && (stamps[slot] > since
+                    || (available[slot] == availableCopies && total[slot] == totalCopies))) {
+                return false;
+            }
+            set(slot != null ? slot : slotFor(id), availableCopies, totalCopies);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Drops books not seen by a reconciliation pass, unless they were written after it started
+    public int retainOnly(Set<String> seen, long since) {
+        lock.writeLock().lock();
+        try {
+            List<String> gone = new ArrayList<>();
+            slots.forEach((id, slot) -> {
+                if (stamps[slot] <= since && !seen.contains(id)) {
+                    gone.add(id);
+                }
+            });
+            for (String id : gone) {
+                free(slots.remove(id));
+            }
+            removed.values().removeIf(stamp -> stamp <= since);
+            return gone.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int slotFor(String id) {
+        Integer slot = slots.get(id);
+        if (slot != null) {
+            return slot;
+        }
+        removed.remove(id);
+        int free = usedSlots.nextClearBit(0);
+        if (free == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            available = Arrays.copyOf(available, capacity);
+            total = Arrays.copyOf(total, capacity);
+            stamps = Arrays.copyOf(stamps, capacity);
+        }
+        usedSlots.set(free);
+        ids[free] = id;
+        slots.put(id, free);
+        return free;
+    }
+
+    private void set(int slot, int availableCopies, int totalCopies) {
+        available[slot] = availableCopies;
+        total[slot] = totalCopies;
+        stamps[slot] = ++lastStamp;
+        availableSlots.set(slot, availableCopies > 0);
+    }
+
+    private void free(int slot) {
+        usedSlots.clear(slot);
+        availableSlots.clear(slot);
+        ids[slot] = null;
+        available[slot] = 0;
+        total[slot] = 0;
+    }
+}
@@ -0,0 +1,111 @@
+package com.library.librarymanagement.availability;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.library.librarymanagement.model.Book;
+
+// Copy counts of every book, served from memory for GET /api/books/available and the dashboard.
+// Loaded once the application is ready (after seeding), kept current by BookService next to each
+// conditional $inc, and reconciled against Mongo on an interval to pick up writes from elsewhere.
+@Service
+public class AvailabilityService {
+
+    private static final Logger log = LoggerFactory.getLogger(AvailabilityService.class);
+
+    private final AvailabilityIndex index = new AvailabilityIndex();
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    // Until the first load completes, callers fall back to Mongo
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reconcile();
+    }
+
+    @Scheduled(fixedDelayString = "${availability.reconcile-interval:PT5M}",
+            initialDelayString = "${availability.reconcile-interval:PT5M}")
+    public synchronized void reconcile() {
+        long start = System.currentTimeMillis();
+        long since = index.stamp();
+        Set<String> seen = new HashSet<>();
+        int drifted = 0;
+        Query query = new Query();
+        query.fields().include("availableCopies").include("totalCopies");
+        try (Stream<Document> books = mongoTemplate.query(Book.class).as(Document.class).matching(query).stream()) {
+            for (Document book : (Iterable<Document>) books::iterator) {
+                String id = book.get("_id").toString();
+                seen.add(id);
+                if (index.reconcile(id, count(book, "availableCopies"), count(book, "totalCopies"), since)) {
+                    drifted++;
+                }
+            }
+            int removed = index.retainOnly(seen, since);
+            if (!ready) {
+                ready = true;
+                log.info("Availability index loaded in {} ms: {} books, {} with copies available",
+                        System.currentTimeMillis() - start, index.size(), index.availableCount());
+            } else if (drifted > 0 || removed > 0) {
+                log.info("Availability index reconciled: {} books updated, {} removed", drifted, removed);
+            }
+        } catch (RuntimeException e) {
+            log.error("Availability index reconciliation failed", e);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public List<AvailabilityIndex.Copies> availableBooks() {
+        return index.availableBooks();
+    }
+
+    // Copies on the shelf across all books, or AvailabilityIndex.UNKNOWN before the first load
+    public long availableCopies() {
+        return ready ? index.availableCopies() : AvailabilityIndex.UNKNOWN;
+    }
+
+    public void put(Book book) {
+        if (book.getId() != null) {
+            index.put(book.getId(), count(book.getAvailableCopies()), count(book.getTotalCopies()));
+        }
+    }
+
+    public void remove(String bookId) {
+        index.remove(bookId);
+    }
+
+    public void decrement(String bookId) {
+        index.decrement(bookId);
+    }
+
+    public void increment(String bookId) {
+        index.increment(bookId);
+    }
+
+    private static int count(Document book, String field) {
+        Object value = book.get(field);
+        return value instanceof Number ? ((Number) value).intValue() : 0;
+    }
+
+    private static int count(Integer value) {
+        return value == null ? 0 : value;
+    }
+}
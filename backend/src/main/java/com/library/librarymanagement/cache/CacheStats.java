@@ -0,0 +1,62 @@
+package com.library.librarymanagement.cache;
+
+public class CacheStats {
+
+    private final String name;
+    private final int size;
+    private final int maxSize;
+    private final long ttlMillis;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long puts;
+
+    public CacheStats(String name, int size, int maxSize, long ttlMillis, long hits, long misses, long evictions,
+            long puts) {
+        this.name = name;
+        this.size = size;
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.puts = puts;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public long getPuts() {
+        return puts;
+    }
+
+    public double getHitRatio() {
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+}
@@ -0,0 +1,169 @@
+package com.library.librarymanagement.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+// Bounded read-through cache keyed by document id. Least recently used entries are evicted once
+// maxSize is reached and entries expire ttlMillis after they were loaded. Cached instances are
+// shared, so callers must not mutate them.
+// A miss leaves a loading marker under its key, and the loaded value is stored only if that marker is
+// still there: an invalidation of the key in the meantime removes it, so a load that raced with a write
+// never caches the old value, while loads of other keys are unaffected.
+public class EntityCache<T> {
+
+    private final String name;
+    private final int maxSize;
+    private final long ttlMillis;
+    private final Map<String, Entry<T>> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+
+    public EntityCache(String name, int maxSize, long ttlMillis) {
+        this.name = name;
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry<T>> eldest) {
+                if (size() > EntityCache.this.maxSize) {
+                    if (!eldest.getValue().isLoading()) {
+                        evictions.increment();
+                    }
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public Optional<T> get(String id, Function<String, Optional<T>> loader) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        Entry<T> entry = lookup(id);
+        if (!entry.isLoading()) {
+            hits.increment();
+            return Optional.of(entry.value);
+        }
+        misses.increment();
+        Optional<T> loaded = Optional.empty();
+        try {
+            loaded = loader.apply(id);
+            return loaded;
+        } finally {
+            complete(id, entry, loaded.orElse(null));
+        }
+    }
+
+    // Serves what it can from the cache and loads the remaining ids with a single call
+    public Map<String, T> getAll(Collection<String> ids, Function<Collection<String>, Iterable<T>> loader,
+            Function<T, String> idGetter) {
+        Map<String, T> result = new HashMap<>();
+        Map<String, Entry<T>> missing = new HashMap<>();
+        for (String id : ids) {
+            Entry<T> entry = lookup(id);
+            if (!entry.isLoading()) {
+                result.put(id, entry.value);
+            } else {
+                missing.put(id, entry);
+            }
+        }
+        hits.add(result.size());
+        misses.add(missing.size());
+
+        if (!missing.isEmpty()) {
+            try {
+                for (T value : loader.apply(new ArrayList<>(missing.keySet()))) {
+                    result.put(idGetter.apply(value), value);
+                }
+            } finally {
+                missing.forEach((id, marker) -> complete(id, marker, result.get(id)));
+            }
+        }
+        return result;
+    }
+
+    public void invalidate(String id) {
+        if (id == null) {
+            return;
+        }
+        synchronized (entries) {
+            entries.remove(id);
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public CacheStats stats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new CacheStats(name, size, maxSize, ttlMillis, hits.sum(), misses.sum(), evictions.sum(),
+                puts.sum());
+    }
+
+    // The cached entry, or on a miss a new loading marker left under the key for the caller's load
+    private Entry<T> lookup(String id) {
+        synchronized (entries) {
+            Entry<T> entry = entries.get(id);
+            if (entry != null && !entry.isLoading()) {
+                if (entry.expiresAt > System.currentTimeMillis()) {
+                    return entry;
+                }
+                evictions.increment();
+            }
+            Entry<T> marker = new Entry<>(null, 0);
+            entries.put(id, marker);
+            return marker;
+        }
+    }
+
+    // Replaces the caller's marker with the loaded value, or drops it when nothing was found; a marker
+    // that is gone (invalidated, evicted or taken over by a later miss) leaves the cache as it is
+    private void complete(String id, Entry<T> marker, T value) {
+        synchronized (entries) {
+            if (entries.get(id) != marker) {
+                return;
+            }
+            if (value == null) {
+                entries.remove(id);
+            } else {
+                entries.put(id, new Entry<>(value, System.currentTimeMillis() + ttlMillis));
+                puts.increment();
+            }
+        }
+    }
+
+    private static final class Entry<T> {
+        private final T value;
+        private final long expiresAt;
+
+        private Entry(T value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isLoading() {
+            return value == null;
+        }
+    }
+}
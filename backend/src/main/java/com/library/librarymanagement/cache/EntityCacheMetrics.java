@@ -0,0 +1,50 @@
+package com.library.librarymanagement.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+// Publishes an EntityCache as Micrometer's standard cache meters (cache.gets, cache.puts,
+// cache.evictions, cache.size) tagged with the cache name. Each scrape reads one stats() snapshot
+// per meter.
+public class EntityCacheMetrics extends CacheMeterBinder<EntityCache<?>> {
+
+    public EntityCacheMetrics(EntityCache<?> cache) {
+        super(cache, cache.getName(), Tags.empty());
+    }
+
+    @Override
+    protected Long size() {
+        EntityCache<?> cache = getCache();
+        return cache == null ? null : (long) cache.stats().getSize();
+    }
+
+    @Override
+    protected long hitCount() {
+        EntityCache<?> cache = getCache();
+        return cache == null ? 0 : cache.stats().getHits();
+    }
+
+    @Override
+    protected Long missCount() {
+        EntityCache<?> cache = getCache();
+        return cache == null ? null : cache.stats().getMisses();
+    }
+
+    @Override
+    protected Long evictionCount() {
+        EntityCache<?> cache = getCache();
+        return cache == null ? null : cache.stats().getEvictions();
+    }
+
+    @Override
+    protected long putCount() {
+        EntityCache<?> cache = getCache();
+        return cache == null ? 0 : cache.stats().getPuts();
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        // The standard meters cover everything EntityCache counts
+    }
+}
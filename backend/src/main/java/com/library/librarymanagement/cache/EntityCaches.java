@@ -0,0 +1,44 @@
+package com.library.librarymanagement.cache;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.library.librarymanagement.model.Author;
+import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.model.Member;
+
+// Caches for documents that are resolved by id as references of other documents. The services
+// invalidate an entry whenever they write the document.
+@Component
+public class EntityCaches {
+
+    private final EntityCache<Author> authors;
+    private final EntityCache<Book> books;
+    private final EntityCache<Member> members;
+
+    public EntityCaches(@Value("${cache.entities.max-size:10000}") int maxSize,
+            @Value("${cache.entities.ttl-seconds:60}") long ttlSeconds) {
+        long ttlMillis = ttlSeconds * 1000;
+        this.authors = new EntityCache<>("authors", maxSize, ttlMillis);
+        this.books = new EntityCache<>("books", maxSize, ttlMillis);
+        this.members = new EntityCache<>("members", maxSize, ttlMillis);
+    }
+
+    public EntityCache<Author> authors() {
+        return authors;
+    }
+
+    public EntityCache<Book> books() {
+        return books;
+    }
+
+    public EntityCache<Member> members() {
+        return members;
+    }
+
+    public List<CacheStats> stats() {
+        return List.of(authors.stats(), books.stats(), members.stats());
+    }
+}
@@ -0,0 +1,20 @@
+package com.library.librarymanagement.config;
+
+import org.springframework.stereotype.Component;
+
+import com.library.librarymanagement.cache.EntityCacheMetrics;
+import com.library.librarymanagement.cache.EntityCaches;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Hit, miss, put and eviction counts and the size of the entity caches, so they reach
+// /actuator/prometheus (cache_gets_total{cache="books",result="hit"} and so on) next to GET /api/cache/stats.
+@Component
+public class CacheMetrics {
+
+    public CacheMetrics(EntityCaches entityCaches, MeterRegistry meterRegistry) {
+        new EntityCacheMetrics(entityCaches.authors()).bindTo(meterRegistry);
+        new EntityCacheMetrics(entityCaches.books()).bindTo(meterRegistry);
+        new EntityCacheMetrics(entityCaches.members()).bindTo(meterRegistry);
+    }
+}
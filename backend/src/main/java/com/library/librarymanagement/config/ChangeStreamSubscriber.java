@@ -0,0 +1,347 @@
+package com.library.librarymanagement.config;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.BsonDateTime;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import com.library.librarymanagement.availability.AvailabilityService;
+import com.library.librarymanagement.cache.EntityCaches;
+import com.library.librarymanagement.model.Author;
+import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.model.Member;
+import com.library.librarymanagement.repository.CollectionVersions;
+import com.library.librarymanagement.search.SearchIndexService;
+import com.library.librarymanagement.service.OverdueSweeper;
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+
+import jakarta.annotation.PreDestroy;
+
+// Keeps this instance's entity caches, search index, availability index and overdue count current
+// with writes made by other instances, by tailing one change stream over the four collections. The
+// services already apply their own writes, so replaying those here is redundant but harmless.
+// The resume token is saved in change_stream_state under changestreams.subscriber-id, so a restarted
+// instance picks up where it stopped instead of at the current time.
+// Change streams need a replica set; against a standalone server the subscriber logs once and stays off.
+@Component
+public class ChangeStreamSubscriber {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeStreamSubscriber.class);
+
+    private static final List<String> COLLECTIONS = List.of("books", "authors", "members", "borrowed_books");
+
+    // Resume point no longer in the oplog, or the stream cannot be resumed
+    private static final Set<Integer> HISTORY_LOST = Set.of(286, 280);
+
+    private static final long RETRY_MILLIS = 5_000;
+
+    private static final String STATE_COLLECTION = "change_stream_state";
+
+    // The token moves on every empty batch; saving it at most this often keeps the writes down
+    private static final long SAVE_MILLIS = 1_000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private EntityCaches entityCaches;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @Autowired
+    private OverdueSweeper overdueSweeper;
+
+    @Autowired
+    private CollectionVersions collectionVersions;
+
+    @Value("${changestreams.enabled:true}")
+    private boolean enabled;
+
+    @Value("${changestreams.subscriber-id:library}")
+    private String subscriberId;
+
+    private volatile boolean running;
+
+    // Last event (or empty batch) this instance has caught up to; reopening the stream resumes after
+    // it, so a dropped connection or failover never needs a full reload
+    private volatile BsonDocument resumeToken;
+
+    private BsonDocument savedToken;
+
+    private long savedAt;
+
+    // Opened before the search and availability indexes load, so nothing written while they are built
+    // is missed
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor;
+        try {
+            if (!replicated()) {
+                log.warn("MongoDB is a standalone server without change streams; caches will not see writes from "
+                        + "other instances");
+                return;
+            }
+            resumeToken = loadToken();
+            if (resumeToken != null) {
+                log.info("Resuming the change stream from the token saved for {}", subscriberId);
+            }
+            cursor = open();
+        } catch (MongoException e) {
+            log.warn("Could not open the change stream, retrying in the background", e);
+            cursor = null;
+        }
+        running = true;
+        MongoChangeStreamCursor<ChangeStreamDocument<Document>> first = cursor;
+        Thread subscriber = new Thread(() -> run(first), "change-stream-subscriber");
+        subscriber.setDaemon(true);
+        subscriber.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+    }
+
+    // Replica set members and mongos routers serve change streams
+    private boolean replicated() {
+        Document hello = mongoTemplate.getDb().runCommand(new Document("isMaster", 1));
+        return hello.containsKey("setName") || "isdbgrid".equals(hello.getString("msg"));
+    }
+
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> open() {
+        ChangeStreamIterable<Document> stream = mongoTemplate.getDb()
+                .watch(List.of(Aggregates.match(Filters.in("ns.coll", COLLECTIONS))))
+                .fullDocument(FullDocument.UPDATE_LOOKUP)
+                .maxAwaitTime(1, TimeUnit.SECONDS);
+        if (resumeToken != null) {
+            stream = stream.resumeAfter(resumeToken);
+        }
+        MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = stream.cursor();
+        resumeToken = cursor.getResumeToken();
+        return cursor;
+    }
+
+    private void run(MongoChangeStreamCursor<ChangeStreamDocument<Document>> first) {
+        MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = first;
+        while (running) {
+            try {
+                if (cursor == null) {
+                    cursor = open();
+                    log.info("Change stream reopened");
+                }
+                ChangeStreamDocument<Document> event = cursor.tryNext();
+                if (event != null) {
+                    apply(event);
+                    if (event.getOperationType() == OperationType.INVALIDATE) {
+                        // The stream is closed and cannot be resumed past this event; start a new one
+                        close(cursor);
+                        cursor = null;
+                        resumeToken = null;
+                        saveToken(true);
+                        continue;
+                    }
+                }
+                // Also advances on empty batches, so a resume does not replay events for other collections
+                BsonDocument token = cursor.getResumeToken();
+                if (token != null) {
+                    resumeToken = token;
+                }
+                saveToken(false);
+            } catch (MongoException e) {
+                close(cursor);
+                cursor = null;
+                if (!running) {
+                    break;
+                }
+                if (e instanceof MongoCommandException command && HISTORY_LOST.contains(command.getErrorCode())) {
+                    log.warn("Change stream history lost, reloading caches and indexes", e);
+                    resumeToken = null;
+                    saveToken(true);
+                    reloadAll();
+                } else {
+                    log.warn("Change stream interrupted ({}), resuming in {} ms", e.getMessage(), RETRY_MILLIS);
+                    sleep();
+                }
+            } catch (RuntimeException e) {
+                // A change that cannot be applied is skipped; the scheduled reconciliations catch up
+                log.error("Could not apply change stream event", e);
+            }
+        }
+        close(cursor);
+        try {
+            saveToken(true);
+        } catch (RuntimeException e) {
+            log.warn("Could not save the change stream resume token", e);
+        }
+    }
+
+    private BsonDocument loadToken() {
+        BsonDocument state = state().find(Filters.eq("_id", subscriberId)).first();
+        savedToken = state != null && state.isDocument("resumeToken") ? state.getDocument("resumeToken") : null;
+        return savedToken;
+    }
+
+    // Writes the current token when it moved and the last save is older than SAVE_MILLIS, or right
+    // away when forced; a cleared token removes the saved one so the next start opens a fresh stream
+    private void saveToken(boolean force) {
+        BsonDocument token = resumeToken;
+        long now = System.currentTimeMillis();
+        boolean unchanged = token == null ? savedToken == null : token.equals(savedToken);
+        if (unchanged || (!force && now - savedAt < SAVE_MILLIS)) {
+            return;
+        }
+        if (token == null) {
+            state().deleteOne(Filters.eq("_id", subscriberId));
+        } else {
+            state().replaceOne(Filters.eq("_id", subscriberId), new BsonDocument("_id", new BsonString(subscriberId))
+                    .append("resumeToken", token)
+                    .append("savedAt", new BsonDateTime(now)), new ReplaceOptions().upsert(true));
+        }
+        savedToken = token;
+        savedAt = now;
+    }
+
+    // Read and written as raw BSON, so the token is stored exactly as the server issued it
+    private MongoCollection<BsonDocument> state() {
+        return mongoTemplate.getDb().getCollection(STATE_COLLECTION, BsonDocument.class);
+    }
+
+    private void apply(ChangeStreamDocument<Document> event) {
+        OperationType operation = event.getOperationType();
+        if (event.getNamespace() != null) {
+            collectionVersions.changed(event.getNamespace().getCollectionName());
+        } else {
+            collectionVersions.changedAll();
+        }
+        if (event.getNamespace() == null || event.getDocumentKey() == null) {
+            // drop, rename, invalidate: nothing targeted to do
+            if (operation == OperationType.DROP || operation == OperationType.INVALIDATE) {
+                reloadAll();
+            }
+            return;
+        }
+        String collection = event.getNamespace().getCollectionName();
+        String id = idOf(event.getDocumentKey().get("_id"));
+        Document document = event.getFullDocument();
+
+        switch (collection) {
+            case "books":
+                entityCaches.books().invalidate(id);
+                if (document == null) {
+                    searchIndexService.removeBook(id);
+                    availabilityService.remove(id);
+                } else {
+                    Book book = mongoTemplate.getConverter().read(Book.class, document);
+                    searchIndexService.indexBook(book);
+                    availabilityService.put(book);
+                }
+                break;
+            case "authors":
+                entityCaches.authors().invalidate(id);
+                if (document == null) {
+                    searchIndexService.removeAuthor(id);
+                } else {
+                    Author author = mongoTemplate.getConverter().read(Author.class, document);
+                    // Books are indexed with their author's name; only a rename needs them re-indexed
+                    if (changed(event, "name")) {
+                        searchIndexService.indexAuthorWithBooks(author);
+                    } else {
+                        searchIndexService.indexAuthor(author);
+                    }
+                }
+                break;
+            case "members":
+                entityCaches.members().invalidate(id);
+                if (document == null) {
+                    searchIndexService.removeMember(id);
+                } else {
+                    searchIndexService.indexMember(mongoTemplate.getConverter().read(Member.class, document));
+                }
+                break;
+            case "borrowed_books":
+                if (changed(event, "status")) {
+                    overdueSweeper.recountSoon();
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    // Inserts, replacements and deletes may change anything; updates list the fields they set
+    private static boolean changed(ChangeStreamDocument<Document> event, String field) {
+        if (event.getOperationType() != OperationType.UPDATE || event.getUpdateDescription() == null) {
+            return true;
+        }
+        BsonDocument updated = event.getUpdateDescription().getUpdatedFields();
+        return updated != null && updated.containsKey(field);
+    }
+
+    private void reloadAll() {
+        entityCaches.authors().invalidateAll();
+        entityCaches.books().invalidateAll();
+        entityCaches.members().invalidateAll();
+        searchIndexService.rebuild();
+        availabilityService.reconcile();
+        overdueSweeper.recountSoon();
+    }
+
+    private static String idOf(BsonValue id) {
+        if (id == null) {
+            return null;
+        }
+        return id.isObjectId() ? id.asObjectId().getValue().toHexString()
+                : id.isString() ? id.asString().getValue() : id.toString();
+    }
+
+    private static void close(MongoChangeStreamCursor<?> cursor) {
+        if (cursor != null) {
+            try {
+                cursor.close();
+            } catch (RuntimeException e) {
+                // Already broken
+            }
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(RETRY_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
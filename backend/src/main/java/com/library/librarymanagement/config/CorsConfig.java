@@ -2,11 +2,15 @@ package com.library.librarymanagement.config;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
 import org.springframework.web.servlet.config.annotation.ContentNegotiationConfigurer;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import com.library.librarymanagement.repository.CursorPage;
+
 @Configuration
 public class CorsConfig implements WebMvcConfigurer {
 
@@ -40,7 +44,9 @@ public class CorsConfig implements WebMvcConfigurer {
                 .allowedOrigins(origins)
                 .allowedMethods(allowedMethods.split(","))
                 .allowedHeaders(allowedHeaders.equals("*") ? new String[]{"*"} : allowedHeaders.split(","))
-                .exposedHeaders(exposedHeaders.equals("*") ? new String[0] : exposedHeaders.split(","))
+                .exposedHeaders(exposedHeaders.equals("*") ? new String[]{CursorPage.NEXT_CURSOR_HEADER, HttpHeaders.ETAG}
+                        : StringUtils.addStringToArray(StringUtils.addStringToArray(exposedHeaders.split(","),
+                                CursorPage.NEXT_CURSOR_HEADER), HttpHeaders.ETAG))
                 .allowCredentials(allowCredentials)
                 .maxAge(maxAge);
     }
@@ -52,6 +58,8 @@ public class CorsConfig implements WebMvcConfigurer {
                 .ignoreAcceptHeader(false)
                 .defaultContentType(MediaType.APPLICATION_JSON)
                 .mediaType("json", MediaType.APPLICATION_JSON)
-                .mediaType("xml", MediaType.APPLICATION_XML);
+                .mediaType("xml", MediaType.APPLICATION_XML)
+                .mediaType("smile", BinaryFormatsConfig.SMILE)
+                .mediaType("cbor", MediaType.APPLICATION_CBOR);
     }
 }
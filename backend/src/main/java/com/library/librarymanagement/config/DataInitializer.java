@@ -3,6 +3,7 @@ package com.library.librarymanagement.config;
 import java.time.LocalDate;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.stereotype.Component;
@@ -34,19 +35,30 @@ public class DataInitializer implements CommandLineRunner {
     @Autowired
     private MongoTemplate mongoTemplate;
 
+    @Autowired
+    private SyntheticDataGenerator syntheticDataGenerator;
+
+    @Value("${seed.scale:}")
+    private String seedScale;
+
     @Override
     public void run(String... args) throws Exception {
-        // Check if collections exist; only initialize if not present
-        boolean booksExist = mongoTemplate.collectionExists(Book.class);
-        boolean authorsExist = mongoTemplate.collectionExists(Author.class);
-        boolean membersExist = mongoTemplate.collectionExists(Member.class);
-        boolean borrowedBooksExist = mongoTemplate.collectionExists(BorrowedBook.class);
-
-        if (booksExist && authorsExist && membersExist && borrowedBooksExist) {
+        // Seed only an empty database: any existing document means the data is the user's, and seeding
+        // again would duplicate books and authors and collide with existing members on the unique email
+        // index. IndexInitializer may already have created the collections empty, so existence alone is
+        // not enough.
+        if (hasDocuments(Book.class) || hasDocuments(Author.class) || hasDocuments(Member.class)
+                || hasDocuments(BorrowedBook.class)) {
             System.out.println("Sample data already exists. Skipping initialization.");
             return;
         }
 
+        // A capacity-testing dataset replaces the sample data when a scale is configured
+        if (!seedScale.isBlank()) {
+            syntheticDataGenerator.generate(seedScale);
+            return;
+        }
+
         // Create Authors
         Author author1 = new Author("F. Scott Fitzgerald",
                 "Francis Scott Key Fitzgerald was an American novelist, essayist, short story writer, and screenwriter.",
@@ -129,4 +141,8 @@ public class DataInitializer implements CommandLineRunner {
 
         System.out.println("Sample data has been initialized!");
     }
+
+    private boolean hasDocuments(Class<?> type) {
+        return mongoTemplate.collectionExists(type) && mongoTemplate.estimatedCount(type) > 0;
+    }
 }
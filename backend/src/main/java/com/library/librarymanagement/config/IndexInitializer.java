@@ -0,0 +1,163 @@
+package com.library.librarymanagement.config;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+
+// Declared index catalogue, reconciled against the database at startup: missing indexes are created
+// and indexes that differ from their declaration (or are not declared at all) are reported.
+// Runs before DataInitializer so seeded collections are indexed from the start.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class IndexInitializer implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(IndexInitializer.class);
+
+    static final Map<String, List<IndexDefinition>> CATALOGUE = new LinkedHashMap<>();
+
+    static {
+        CATALOGUE.put("books", List.of(
+                // findByAuthorId and AuthorService.populateBooks
+                new Index().on("author.$id", Sort.Direction.ASC).named("author_id"),
+                // findAvailableBooks: only books with copies left are indexed
+                new Index().on("availableCopies", Sort.Direction.ASC).named("available_copies")
+                        .partial(PartialIndexFilter.of(Criteria.where("availableCopies").gt(0))),
+                // default sort of the paged book list
+                new Index().on("title", Sort.Direction.ASC).on("_id", Sort.Direction.ASC).named("title_id")));
+
+        CATALOGUE.put("authors", List.of(
+                new Index().on("name", Sort.Direction.ASC).on("_id", Sort.Direction.ASC).named("name_id")));
+
+        CATALOGUE.put("members", List.of(
+                new Index().on("email", Sort.Direction.ASC).unique().named("email"),
+                new Index().on("name", Sort.Direction.ASC).on("_id", Sort.Direction.ASC).named("name_id")));
+
+        CATALOGUE.put("borrowed_books", List.of(
+                // findByBookId, BookService batch hydration and the $lookup pipeline
+                new Index().on("book.$id", Sort.Direction.ASC).named("book_id"),
+                // findByMemberId and MemberService.populateBorrowedBooks
+                new Index().on("member.$id", Sort.Direction.ASC).named("member_id"),
+                // active loans (returnDate null) and the overdue sweep (returnDate null, dueDate range)
+                new Index().on("returnDate", Sort.Direction.ASC).on("dueDate", Sort.Direction.ASC)
+                        .named("active_due_date"),
+                // findOverdueBooks and the overdue count (status OVERDUE)
+                new Index().on("status", Sort.Direction.ASC).on("dueDate", Sort.Direction.ASC)
+                        .named("status_due_date"),
+                // findByBorrowDateBetween
+                new Index().on("borrowDate", Sort.Direction.ASC).named("borrow_date"),
+                // loan list sorted by the book/member snapshot
+                new Index().on("bookTitle", Sort.Direction.ASC).on("_id", Sort.Direction.ASC)
+                        .named("book_title_id"),
+                new Index().on("memberName", Sort.Direction.ASC).on("_id", Sort.Direction.ASC)
+                        .named("member_name_id")));
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${indexes.reconcile.enabled:true}")
+    private boolean enabled;
+
+    @Override
+    public void run(String... args) {
+        if (!enabled) {
+            return;
+        }
+        // Index builds do not block the collection (MongoDB 4.2+), but they can take a while on
+        // large collections, so reconciliation runs off the startup thread
+        Thread reconciler = new Thread(this::reconcile, "index-reconciler");
+        reconciler.setDaemon(true);
+        reconciler.start();
+    }
+
+    void reconcile() {
+        CATALOGUE.forEach((collection, declared) -> {
+            try {
+                reconcile(collection, declared);
+            } catch (RuntimeException e) {
+                log.error("Index reconciliation failed for collection {}", collection, e);
+            }
+        });
+    }
+
+    private void reconcile(String collection, List<IndexDefinition> declared) {
+        List<Document> existing = new ArrayList<>();
+        if (mongoTemplate.collectionExists(collection)) {
+            mongoTemplate.getCollection(collection).listIndexes().into(existing);
+        }
+
+        List<String> declaredNames = new ArrayList<>();
+        for (IndexDefinition definition : declared) {
+            Document options = definition.getIndexOptions();
+            String name = options.getString("name");
+            declaredNames.add(name);
+
+            Document match = findByKeys(existing, definition.getIndexKeys());
+            if (match == null) {
+                log.info("Creating index {}.{} {}", collection, name, definition.getIndexKeys().toJson());
+                mongoTemplate.indexOps(collection).ensureIndex(definition);
+            } else if (!sameOptions(match, options)) {
+                log.warn("Index drift on {}: {} exists as {} but is declared as {} {}", collection, name,
+                        match.toJson(), definition.getIndexKeys().toJson(), options.toJson());
+            }
+        }
+
+        for (Document index : existing) {
+            String name = index.getString("name");
+            if (!"_id_".equals(name) && findByKeys(declaredIndexes(declared), index.get("key", Document.class)) == null) {
+                log.warn("Undeclared index on {}: {} {}", collection, name, index.get("key", Document.class).toJson());
+            }
+        }
+    }
+
+    private static List<Document> declaredIndexes(List<IndexDefinition> declared) {
+        List<Document> indexes = new ArrayList<>();
+        for (IndexDefinition definition : declared) {
+            indexes.add(new Document("key", definition.getIndexKeys()));
+        }
+        return indexes;
+    }
+
+    // Key order matters for compound indexes, which Document.equals ignores
+    private static Document findByKeys(List<Document> indexes, Document keys) {
+        for (Document index : indexes) {
+            Document existingKeys = index.get("key", Document.class);
+            if (existingKeys != null && keySignature(existingKeys).equals(keySignature(keys))) {
+                return index;
+            }
+        }
+        return null;
+    }
+
+    private static List<String> keySignature(Document keys) {
+        List<String> signature = new ArrayList<>();
+        keys.forEach((field, direction) -> signature.add(field + ":"
+                + (direction instanceof Number number ? String.valueOf(number.intValue()) : direction)));
+        return signature;
+    }
+
+    private static boolean sameOptions(Document existing, Document declared) {
+        boolean existingUnique = Boolean.TRUE.equals(existing.get("unique"));
+        boolean declaredUnique = Boolean.TRUE.equals(declared.get("unique"));
+        return existingUnique == declaredUnique
+                && Objects.equals(existing.get("partialFilterExpression"), declared.get("partialFilterExpression"));
+    }
+}
@@ -0,0 +1,61 @@
+package com.library.librarymanagement.config;
+
+import java.io.IOException;
+
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.convert.LazyLoadingProxy;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    public Module lazyLoadingProxyModule() {
+        SimpleModule module = new SimpleModule("LazyLoadingProxyModule");
+        module.addSerializer(LazyLoadingProxy.class, new LazyLoadingProxySerializer(null));
+        return module;
+    }
+
+    // Models carry a @JsonFilter for ?fields= (see SparseFieldsAdvice); without a filter for the
+    // request every property is written
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer sparseFieldsFilterCustomizer() {
+        return builder -> builder.filters(new SimpleFilterProvider().setFailOnUnknownId(false));
+    }
+
+    // Serializes the resolved target of a lazy DBRef instead of the proxy class itself
+    static class LazyLoadingProxySerializer extends JsonSerializer<LazyLoadingProxy> implements ContextualSerializer {
+
+        private final BeanProperty property;
+
+        LazyLoadingProxySerializer(BeanProperty property) {
+            this.property = property;
+        }
+
+        @Override
+        public JsonSerializer<?> createContextual(SerializerProvider provider, BeanProperty property) {
+            return new LazyLoadingProxySerializer(property);
+        }
+
+        @Override
+        public void serialize(LazyLoadingProxy proxy, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+            Object target = proxy.getTarget();
+            if (target == null) {
+                provider.defaultSerializeNull(gen);
+                return;
+            }
+            provider.findValueSerializer(target.getClass(), property).serialize(target, gen, provider);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.library.librarymanagement.config;
+
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import com.library.librarymanagement.model.BorrowedBook;
+import com.library.librarymanagement.service.OverdueSweeper;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Active and overdue loan gauges. The active count is covered by the active_due_date index and is
+// refreshed at most every REFRESH_MILLIS so frequent scrapes do not turn into frequent counts; the
+// overdue count is the one OverdueSweeper keeps.
+@Component
+public class LoanMetrics {
+
+    private static final long REFRESH_MILLIS = 30_000;
+
+    private final MongoTemplate mongoTemplate;
+
+    private volatile long refreshedAt;
+    private volatile long activeLoans;
+
+    public LoanMetrics(MongoTemplate mongoTemplate, OverdueSweeper overdueSweeper, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        Gauge.builder("library.loans.active", this, LoanMetrics::activeLoans)
+                .description("Loans not yet returned")
+                .register(meterRegistry);
+        Gauge.builder("library.loans.overdue", overdueSweeper, OverdueSweeper::overdueLoans)
+                .description("Loans flagged overdue by the sweeper")
+                .register(meterRegistry);
+    }
+
+    private double activeLoans() {
+        refreshIfStale();
+        return activeLoans;
+    }
+
+    private synchronized void refreshIfStale() {
+        long now = System.currentTimeMillis();
+        if (now - refreshedAt < REFRESH_MILLIS) {
+            return;
+        }
+        refreshedAt = now;
+        activeLoans = mongoTemplate.count(new Query(Criteria.where("returnDate").is(null)), BorrowedBook.class);
+    }
+}
@@ -0,0 +1,40 @@
+package com.library.librarymanagement.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.library.librarymanagement.repository.BorrowedBookRepository;
+
+// One-off backfill of the book/member snapshot on loans written before BorrowedBook carried it.
+// Only loans still missing the snapshot are touched, so once done this is a single empty query.
+@Component
+public class LoanSnapshotBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(LoanSnapshotBackfill.class);
+
+    @Autowired
+    private BorrowedBookRepository borrowedBookRepository;
+
+    @Value("${loans.snapshot-backfill.enabled:true}")
+    private boolean enabled;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            long updated = borrowedBookRepository.backfillSnapshots();
+            if (updated > 0) {
+                log.info("Backfilled the book/member snapshot on {} loans", updated);
+            }
+        } catch (RuntimeException e) {
+            log.error("Loan snapshot backfill failed", e);
+        }
+    }
+}
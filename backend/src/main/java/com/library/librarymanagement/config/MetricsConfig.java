@@ -0,0 +1,38 @@
+package com.library.librarymanagement.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Request latency histograms, driver command timers and connection pool gauges come from Spring Boot's
+// Actuator auto-configuration (see management.* in application.properties); this adds the
+// per-command document counts and the per-request Mongo command count and budget.
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${mongo.query-budget.commands:20}")
+    private int commandBudget;
+
+    @Value("${mongo.query-budget.documents:5000}")
+    private long documentBudget;
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoCommandMetricsCustomizer(MongoCommandMetrics mongoCommandMetrics) {
+        return builder -> builder.addCommandListener(mongoCommandMetrics);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new MongoCommandCountInterceptor(meterRegistry, commandBudget, documentBudget))
+                .addPathPatterns("/api/**");
+    }
+}
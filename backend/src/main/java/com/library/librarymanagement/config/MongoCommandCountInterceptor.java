@@ -0,0 +1,62 @@
+package com.library.librarymanagement.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Records how many Mongo commands each route costs, tagged like http.server.requests, and logs
+// requests that exceed the configured command or document budget
+public class MongoCommandCountInterceptor implements AsyncHandlerInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(MongoCommandCountInterceptor.class);
+
+    private final MeterRegistry meterRegistry;
+    private final int commandBudget;
+    private final long documentBudget;
+
+    public MongoCommandCountInterceptor(MeterRegistry meterRegistry, int commandBudget, long documentBudget) {
+        this.meterRegistry = meterRegistry;
+        this.commandBudget = commandBudget;
+        this.documentBudget = documentBudget;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        MongoQueryTally.start();
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+            Object handler) {
+        // Streaming responses continue on another thread; the async dispatch starts a new tally
+        MongoQueryTally.finish();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+            Exception ex) {
+        MongoQueryTally tally = MongoQueryTally.finish();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        DistributionSummary.builder("http.server.requests.mongo.commands")
+                .description("Mongo commands issued while serving a request")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(tally.getCommands());
+
+        if ((commandBudget > 0 && tally.getCommands() > commandBudget)
+                || (documentBudget > 0 && tally.getDocuments() > documentBudget)) {
+            log.warn("Mongo query budget exceeded by {} {}: {} commands (budget {}), {} documents (budget {})",
+                    request.getMethod(), uri, tally.getCommands(), commandBudget, tally.getDocuments(),
+                    documentBudget);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.library.librarymanagement.config;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Complements the driver timers Spring Boot already records (mongodb.driver.commands, tagged by
+// command and collection) with the number of documents each command returned or wrote, and counts
+// the commands and documents of the current request thread (see MongoQueryTally).
+@Component
+public class MongoCommandMetrics implements CommandListener {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Integer, String> collectionsByRequestId = new ConcurrentHashMap<>();
+
+    public MongoCommandMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        MongoQueryTally tally = MongoQueryTally.current();
+        if (tally != null) {
+            tally.recordCommand();
+        }
+        collectionsByRequestId.put(event.getRequestId(), collectionOf(event.getCommandName(), event.getCommand()));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        String collection = collectionsByRequestId.remove(event.getRequestId());
+        int documents = documentsOf(event.getResponse());
+        MongoQueryTally tally = MongoQueryTally.current();
+        if (tally != null) {
+            tally.recordDocuments(documents);
+        }
+        DistributionSummary.builder("mongodb.command.documents")
+                .description("Documents returned or written per Mongo command")
+                .tag("command", event.getCommandName())
+                .tag("collection", collection != null ? collection : "unknown")
+                .register(meterRegistry)
+                .record(documents);
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        collectionsByRequestId.remove(event.getRequestId());
+    }
+
+    private static String collectionOf(String commandName, BsonDocument command) {
+        // getMore names the collection in a separate field; most other commands use their own name
+        BsonValue value = "getMore".equals(commandName) ? command.get("collection") : command.get(commandName);
+        return value != null && value.isString() ? value.asString().getValue() : "unknown";
+    }
+
+    private static int documentsOf(BsonDocument response) {
+        BsonDocument cursor = response.getDocument("cursor", null);
+        if (cursor != null) {
+            for (String batch : List.of("firstBatch", "nextBatch")) {
+                BsonArray documents = cursor.getArray(batch, null);
+                if (documents != null) {
+                    return documents.size();
+                }
+            }
+            return 0;
+        }
+        // Writes report their count in n; count/distinct have no document list
+        BsonValue n = response.get("n");
+        return n != null && n.isNumber() ? n.asNumber().intValue() : 0;
+    }
+}
@@ -0,0 +1,34 @@
+package com.library.librarymanagement.config;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+// Reports the request's Mongo cost as X-Mongo-Commands / X-Mongo-Documents outside production.
+// Written just before the body, so it covers the work done by the handler.
+@ControllerAdvice
+@Profile("!prod")
+public class MongoQueryHeadersAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+            Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request,
+            ServerHttpResponse response) {
+        MongoQueryTally tally = MongoQueryTally.current();
+        if (tally != null) {
+            response.getHeaders().set("X-Mongo-Commands", String.valueOf(tally.getCommands()));
+            response.getHeaders().set("X-Mongo-Documents", String.valueOf(tally.getDocuments()));
+        }
+        return body;
+    }
+}
@@ -0,0 +1,67 @@
+package com.library.librarymanagement.config;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Mongo commands issued, and documents they returned or wrote, on the current thread since start().
+// MongoCommandCountInterceptor scopes one tally to each /api request; tests can do the same around
+// a service call or MockMvc request and assert on current() to catch N+1 regressions.
+public final class MongoQueryTally {
+
+    private static final ThreadLocal<MongoQueryTally> CURRENT = new ThreadLocal<>();
+
+    private final AtomicInteger commands = new AtomicInteger();
+    private final AtomicLong documents = new AtomicLong();
+
+    private MongoQueryTally() {
+    }
+
+    public static MongoQueryTally start() {
+        MongoQueryTally tally = new MongoQueryTally();
+        CURRENT.set(tally);
+        return tally;
+    }
+
+    // The running tally, or null when nothing is being counted on this thread
+    public static MongoQueryTally current() {
+        return CURRENT.get();
+    }
+
+    public static MongoQueryTally finish() {
+        MongoQueryTally tally = CURRENT.get();
+        CURRENT.remove();
+        return tally != null ? tally : new MongoQueryTally();
+    }
+
+    // Lets a task forked onto another thread add to the tally of the thread that forked it
+    public static Runnable propagate(Runnable task) {
+        MongoQueryTally tally = CURRENT.get();
+        if (tally == null) {
+            return task;
+        }
+        return () -> {
+            CURRENT.set(tally);
+            try {
+                task.run();
+            } finally {
+                CURRENT.remove();
+            }
+        };
+    }
+
+    void recordCommand() {
+        commands.incrementAndGet();
+    }
+
+    void recordDocuments(int count) {
+        documents.addAndGet(count);
+    }
+
+    public int getCommands() {
+        return commands.get();
+    }
+
+    public long getDocuments() {
+        return documents.get();
+    }
+}
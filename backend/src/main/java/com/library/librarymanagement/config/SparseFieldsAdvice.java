@@ -0,0 +1,70 @@
+package com.library.librarymanagement.config;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+// Applies ?fields= to the serialized response: only the selected properties of the top-level
+// entities are written. Nested entities use their own filter id and are written in full.
+@ControllerAdvice
+public class SparseFieldsAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType,
+            MethodParameter returnType, ServerHttpRequest request, ServerHttpResponse response) {
+        if (!(request instanceof ServletServerHttpRequest servletRequest)) {
+            return;
+        }
+        String fields = servletRequest.getServletRequest().getParameter("fields");
+        if (fields == null || fields.isBlank()) {
+            return;
+        }
+
+        FilterProvider filters = filtersFor(elementType(bodyContainer.getValue()), fields);
+        if (filters != null) {
+            bodyContainer.setFilters(filters);
+        }
+    }
+
+    // The filters writing only the selected properties of the given model type, or null when it has
+    // no @JsonFilter; also used by the reactive controllers
+    public static FilterProvider filtersFor(Class<?> type, String fields) {
+        JsonFilter filter = AnnotationUtils.findAnnotation(type, JsonFilter.class);
+        if (filter == null) {
+            return null;
+        }
+
+        Set<String> selected = new LinkedHashSet<>();
+        selected.add("id");
+        for (String field : fields.split(",")) {
+            if (!field.isBlank()) {
+                selected.add(field.trim());
+            }
+        }
+        return new SimpleFilterProvider().setFailOnUnknownId(false)
+                .addFilter(filter.value(), SimpleBeanPropertyFilter.filterOutAllExcept(selected));
+    }
+
+    private static Class<?> elementType(Object value) {
+        if (value instanceof Collection<?> collection) {
+            Object first = collection.stream().filter(item -> item != null).findFirst().orElse(null);
+            return first != null ? first.getClass() : Object.class;
+        }
+        return value != null ? value.getClass() : Object.class;
+    }
+}
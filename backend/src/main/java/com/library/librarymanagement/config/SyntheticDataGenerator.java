@@ -0,0 +1,302 @@
+package com.library.librarymanagement.config;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import com.library.librarymanagement.model.Author;
+import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.model.BorrowedBook;
+import com.library.librarymanagement.model.Member;
+
+// Capacity-testing dataset, used by DataInitializer instead of the sample data when seed.scale is
+// set (e.g. 100k, 1M = number of loans). Borrows per book follow a Zipf distribution, loans span
+// several years of history with a share of active and overdue ones, and everything is written
+// with unordered bulk inserts from parallel producers. Output is deterministic for a random seed.
+@Component
+public class SyntheticDataGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(SyntheticDataGenerator.class);
+
+    private static final int LOAN_DAYS = 14;
+
+    private static final String[] ADJECTIVES = { "Silent", "Crimson", "Hidden", "Last", "Golden", "Broken",
+            "Distant", "Burning", "Forgotten", "Wild", "Quiet", "Endless", "Midnight", "Bitter", "Lost", "Iron",
+            "Glass", "Hollow", "Northern", "Secret" };
+    private static final String[] NOUNS = { "River", "Garden", "Empire", "Shadow", "Harbor", "Kingdom", "Letter",
+            "Orchard", "Storm", "Mirror", "Voyage", "Lantern", "Forest", "Winter", "Promise", "Island", "Station",
+            "Archive", "Mountain", "Daughter" };
+    private static final String[] PLACES = { "Avalon", "the North", "the Sea", "Babel", "the Valley", "Kyoto",
+            "the Desert", "Prague", "the Moon", "Lisbon" };
+    private static final String[] CATEGORIES = { "Fiction", "Fantasy", "Science Fiction", "Mystery", "Romance",
+            "History", "Biography", "Poetry", "Dystopian Fiction", "Political Satire", "Horror", "Children" };
+    private static final String[] NATIONALITIES = { "American", "British", "French", "German", "Japanese",
+            "Nigerian", "Indian", "Brazilian", "Canadian", "Australian", "Indonesian", "Kenyan" };
+    private static final String[] FIRST_NAMES = { "Jack", "Emily", "Michael", "Sarah", "David", "Aisha", "Wei",
+            "Sofia", "Liam", "Priya", "Mateo", "Yuki", "Olivia", "Noah", "Amara", "Lucas", "Hana", "Ethan", "Zara",
+            "Omar" };
+    private static final String[] LAST_NAMES = { "Smith", "Johnson", "Brown", "Davis", "Wilson", "Tanaka", "Garcia",
+            "Okafor", "Chen", "Patel", "Muller", "Rossi", "Silva", "Kowalski", "Nguyen", "Haddad", "Larsen",
+            "Santoso", "Dubois", "Kim" };
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${seed.zipf-exponent:1.0}")
+    private double zipfExponent;
+
+    @Value("${seed.active-ratio:0.10}")
+    private double activeRatio;
+
+    @Value("${seed.overdue-ratio:0.05}")
+    private double overdueRatio;
+
+    @Value("${seed.history-years:3}")
+    private int historyYears;
+
+    @Value("${seed.threads:0}")
+    private int threads;
+
+    @Value("${seed.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${seed.random-seed:42}")
+    private long randomSeed;
+
+    public void generate(String scale) {
+        long start = System.currentTimeMillis();
+        long loanCount = parseScale(scale);
+        int bookCount = (int) Math.max(50, loanCount / 20);
+        int memberCount = (int) Math.max(20, loanCount / 50);
+        int authorCount = Math.max(10, bookCount / 8);
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        log.info("Generating {} loans over {} books, {} members and {} authors with {} threads", loanCount,
+                bookCount, memberCount, authorCount, poolSize);
+
+        SplittableRandom random = new SplittableRandom(randomSeed);
+        List<Author> authors = authors(authorCount, random);
+        List<Book> books = books(bookCount, authors, random);
+        List<Member> members = members(memberCount, random);
+
+        ExecutorService pool = Executors.newFixedThreadPool(poolSize);
+        try {
+            List<Future<?>> pending = new ArrayList<>();
+            insertInBatches(pool, Author.class, authors, pending);
+            insertInBatches(pool, Member.class, members, pending);
+
+            // Zipf over a shuffled rank order, so the popular books are spread across the id range
+            ZipfSampler bookSampler = new ZipfSampler(bookCount, zipfExponent, random.split());
+            ZipfSampler memberSampler = new ZipfSampler(memberCount, zipfExponent / 2, random.split());
+            AtomicIntegerArray onLoan = new AtomicIntegerArray(bookCount);
+            LocalDate today = LocalDate.now();
+            for (long from = 0; from < loanCount; from += batchSize) {
+                int size = (int) Math.min(batchSize, loanCount - from);
+                long chunk = from / batchSize;
+                pending.add(pool.submit(() -> {
+                    SplittableRandom chunkRandom = new SplittableRandom(randomSeed ^ (chunk * 0x9E3779B97F4A7C15L));
+                    List<BorrowedBook> loans = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        int book = bookSampler.sample(chunkRandom);
+                        BorrowedBook loan = loan(books.get(book), members.get(memberSampler.sample(chunkRandom)),
+                                today, chunkRandom);
+                        if (loan.getReturnDate() == null) {
+                            onLoan.incrementAndGet(book);
+                        }
+                        loans.add(loan);
+                    }
+                    insert(BorrowedBook.class, loans);
+                }));
+            }
+            await(pending);
+
+            // Copies follow demand: every book has its active loans plus a few on the shelf
+            for (int i = 0; i < bookCount; i++) {
+                Book book = books.get(i);
+                book.setTotalCopies(onLoan.get(i) + 1 + random.nextInt(5));
+                book.setAvailableCopies(book.getTotalCopies() - onLoan.get(i));
+            }
+            insertInBatches(pool, Book.class, books, pending);
+            await(pending);
+        } finally {
+            pool.shutdown();
+        }
+
+        log.info("Generated {} loans, {} books, {} members and {} authors in {} ms", loanCount, bookCount,
+                memberCount, authorCount, System.currentTimeMillis() - start);
+    }
+
+    // Accepts a plain count or a k/M suffix, e.g. 5000, 250k, 1M
+    static long parseScale(String scale) {
+        String value = scale.trim().toLowerCase(Locale.ROOT);
+        long multiplier = 1;
+        if (value.endsWith("k")) {
+            multiplier = 1_000;
+            value = value.substring(0, value.length() - 1);
+        } else if (value.endsWith("m")) {
+            multiplier = 1_000_000;
+            value = value.substring(0, value.length() - 1);
+        }
+        try {
+            long count = Math.round(Double.parseDouble(value) * multiplier);
+            if (count <= 0) {
+                throw new IllegalArgumentException("seed.scale must be positive: " + scale);
+            }
+            return count;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid seed.scale: " + scale);
+        }
+    }
+
+    private BorrowedBook loan(Book book, Member member, LocalDate today, SplittableRandom random) {
+        double kind = random.nextDouble();
+        LocalDate borrowDate;
+        if (kind < overdueRatio) {
+            borrowDate = today.minusDays(LOAN_DAYS + 1 + random.nextInt(60));
+        } else if (kind < overdueRatio + activeRatio) {
+            borrowDate = today.minusDays(random.nextInt(LOAN_DAYS));
+        } else {
+            int historyDays = Math.max(historyYears * 365, LOAN_DAYS * 3);
+            borrowDate = today.minusDays(LOAN_DAYS + 1 + random.nextInt(historyDays - LOAN_DAYS));
+        }
+
+        BorrowedBook loan = new BorrowedBook(book, member, borrowDate, borrowDate.plusDays(LOAN_DAYS));
+        // Bulk inserts skip @Version initialization
+        loan.setVersion(0L);
+        if (kind >= overdueRatio + activeRatio) {
+            // Most returns are on time, some run up to a week late
+            LocalDate returnDate = borrowDate.plusDays(1 + random.nextInt(LOAN_DAYS + 7));
+            loan.setReturnDate(returnDate.isBefore(today) ? returnDate : today.minusDays(1));
+            loan.setStatus(BorrowedBook.RETURNED);
+        }
+        return loan;
+    }
+
+    private static List<Author> authors(int count, SplittableRandom random) {
+        List<Author> authors = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = pick(FIRST_NAMES, random) + " " + pick(LAST_NAMES, random);
+            Author author = new Author(name, name + " is a synthetic author.", pick(NATIONALITIES, random));
+            author.setId(new ObjectId().toHexString());
+            author.setVersion(0L);
+            authors.add(author);
+        }
+        return authors;
+    }
+
+    private static List<Book> books(int count, List<Author> authors, SplittableRandom random) {
+        List<Book> books = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String title = "The " + pick(ADJECTIVES, random) + " " + pick(NOUNS, random);
+            if (random.nextInt(3) == 0) {
+                title += " of " + pick(PLACES, random);
+            }
+            String isbn = String.format("978-%d-%06d-%d", random.nextInt(10), i % 1_000_000, i / 1_000_000);
+            Book book = new Book(title, pick(CATEGORIES, random), 1850 + random.nextInt(176), isbn, 1,
+                    authors.get(random.nextInt(authors.size())));
+            book.setId(new ObjectId().toHexString());
+            book.setVersion(0L);
+            books.add(book);
+        }
+        return books;
+    }
+
+    private static List<Member> members(int count, SplittableRandom random) {
+        List<Member> members = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String first = pick(FIRST_NAMES, random);
+            String last = pick(LAST_NAMES, random);
+            // The running number keeps emails unique, as the members.email index requires
+            Member member = new Member(first + " " + last,
+                    (first + "." + last + "." + i + "@example.com").toLowerCase(Locale.ROOT),
+                    String.format("+1-555-%07d", i), (1 + random.nextInt(999)) + " " + pick(NOUNS, random) + " St");
+            member.setId(new ObjectId().toHexString());
+            member.setVersion(0L);
+            members.add(member);
+        }
+        return members;
+    }
+
+    private <T> void insertInBatches(ExecutorService pool, Class<T> type, List<T> items, List<Future<?>> pending) {
+        for (int from = 0; from < items.size(); from += batchSize) {
+            List<T> batch = items.subList(from, Math.min(items.size(), from + batchSize));
+            pending.add(pool.submit(() -> insert(type, batch)));
+        }
+    }
+
+    private <T> void insert(Class<T> type, List<T> batch) {
+        mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type).insert(batch).execute();
+    }
+
+    private static void await(List<Future<?>> pending) {
+        try {
+            for (Future<?> future : pending) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Synthetic data generation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Synthetic data generation failed", e.getCause());
+        } finally {
+            pending.clear();
+        }
+    }
+
+    private static String pick(String[] values, SplittableRandom random) {
+        return values[random.nextInt(values.length)];
+    }
+
+    // Inverse-CDF sampling of Zipf(n, s) ranks, mapped through a fixed random permutation
+    private static class ZipfSampler {
+
+        private final double[] cdf;
+        private final int[] permutation;
+
+        ZipfSampler(int n, double exponent, SplittableRandom random) {
+            cdf = new double[n];
+            double sum = 0;
+            for (int rank = 0; rank < n; rank++) {
+                sum += 1.0 / Math.pow(rank + 1, exponent);
+                cdf[rank] = sum;
+            }
+            for (int rank = 0; rank < n; rank++) {
+                cdf[rank] /= sum;
+            }
+            permutation = new int[n];
+            for (int i = 0; i < n; i++) {
+                permutation[i] = i;
+            }
+            for (int i = n - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swap = permutation[i];
+                permutation[i] = permutation[j];
+                permutation[j] = swap;
+            }
+        }
+
+        int sample(SplittableRandom random) {
+            int rank = Arrays.binarySearch(cdf, random.nextDouble());
+            if (rank < 0) {
+                rank = -rank - 1;
+            }
+            return permutation[Math.min(rank, cdf.length - 1)];
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.library.librarymanagement.config;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.library.librarymanagement.model.Author;
+import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.model.BorrowedBook;
+import com.library.librarymanagement.model.Member;
+import com.library.librarymanagement.repository.EntityVersions;
+
+// One-off backfill of @Version on documents written before the models carried it. A document without
+// a version would be inserted again on save instead of updated, so each collection is brought to 0.
+@Component
+public class VersionBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(VersionBackfill.class);
+
+    private static final List<Class<?>> VERSIONED = List.of(Author.class, Book.class, Member.class,
+            BorrowedBook.class);
+
+    @Autowired
+    private EntityVersions entityVersions;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        for (Class<?> type : VERSIONED) {
+            try {
+                long updated = entityVersions.backfill(type);
+                if (updated > 0) {
+                    log.info("Backfilled the version on {} {} documents", updated, type.getSimpleName());
+                }
+            } catch (RuntimeException e) {
+                log.error("Version backfill failed for {}", type.getSimpleName(), e);
+            }
+        }
+    }
+}
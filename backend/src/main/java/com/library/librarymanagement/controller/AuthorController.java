@@ -4,6 +4,8 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -14,11 +16,17 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import com.library.librarymanagement.model.Author;
+import com.library.librarymanagement.repository.CursorPage;
+import com.library.librarymanagement.repository.CursorPageRequest;
 import com.library.librarymanagement.service.AuthorService;
+import com.library.librarymanagement.service.BulkIngestService;
+import com.library.librarymanagement.service.BulkResult;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
@@ -33,22 +41,56 @@ public class AuthorController {
     @Autowired
     private AuthorService authorService;
 
+    @Autowired
+    private BulkIngestService bulkIngestService;
+
     @GetMapping
-    public ResponseEntity<List<Author>> getAllAuthors() {
+    public ResponseEntity<List<Author>> getAllAuthors(@RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) String sort,
+            @RequestParam(defaultValue = "false") boolean unpaged,
+            @RequestParam(required = false) String fields, WebRequest webRequest) {
         try {
-            List<Author> authors = authorService.findAll();
-            return ResponseEntity.ok(authors);
+            if (unpaged) {
+                if (webRequest.checkNotModified(ETags.weak(authorService.fingerprint(), webRequest))) {
+                    return null;
+                }
+                List<Author> authors = authorService.findAll(fields);
+                return ResponseEntity.ok(authors);
+            }
+            CursorPageRequest pageRequest = new CursorPageRequest(limit, after, sort);
+            if (webRequest.checkNotModified(ETags.weak(authorService.fingerprint(pageRequest), webRequest))) {
+                return null;
+            }
+            CursorPage<Author> page = authorService.findPage(pageRequest, fields);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                response.header(CursorPage.NEXT_CURSOR_HEADER, page.getNextCursor());
+            }
+            return response.body(page.getItems());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Author> getAuthorById(@PathVariable String id) {
+    public ResponseEntity<Author> getAuthorById(@PathVariable String id,
+            @RequestParam(required = false) String fields, WebRequest webRequest) {
         try {
-            Optional<Author> author = authorService.findById(id);
+            Optional<Long> version = authorService.findVersion(id);
+            if (version.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            if (webRequest.checkNotModified(ETags.strong(version.get(), webRequest))) {
+                return null;
+            }
+            Optional<Author> author = authorService.findById(id, fields);
             return author.map(ResponseEntity::ok)
                     .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -65,23 +107,43 @@ public class AuthorController {
         }
     }
 
+    // Accepts a JSON array or NDJSON; per-item results, partial failures do not abort the load
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkResult> bulkCreateAuthors(HttpServletRequest request) {
+        try {
+            BulkResult result = bulkIngestService.ingestAuthors(request.getInputStream());
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
     @PutMapping(value = "/{id}", consumes = "application/json", produces = "application/json")
     public ResponseEntity<Author> updateAuthor(@PathVariable String id, @Valid @RequestBody Author authorDetails,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             HttpServletRequest request) {
         System.out.println("[DEBUG] PUT /api/authors/" + id + " Content-Type: " + request.getContentType());
         try {
             Optional<Author> existingAuthor = authorService.findById(id);
             if (existingAuthor.isPresent()) {
                 Author author = existingAuthor.get();
+                if (ETags.missing(ifMatch)) {
+                    return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).build();
+                }
+                if (!ETags.matches(ifMatch, author.getVersion())) {
+                    return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+                }
                 author.setName(authorDetails.getName());
                 author.setBiography(authorDetails.getBiography());
                 author.setNationality(authorDetails.getNationality());
 
                 Author updatedAuthor = authorService.save(author);
-                return ResponseEntity.ok(updatedAuthor);
+                return ResponseEntity.ok().eTag(ETags.strong(updatedAuthor.getVersion())).body(updatedAuthor);
             } else {
                 return ResponseEntity.notFound().build();
             }
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
@@ -103,10 +165,13 @@ public class AuthorController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<Author>> searchAuthors(@RequestParam String q) {
+    public ResponseEntity<List<Author>> searchAuthors(@RequestParam String q,
+            @RequestParam(required = false) String fields) {
         try {
-            List<Author> authors = authorService.searchAuthors(q);
+            List<Author> authors = authorService.searchAuthors(q, fields);
             return ResponseEntity.ok(authors);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -4,7 +4,10 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -14,11 +17,19 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.repository.CursorPage;
+import com.library.librarymanagement.repository.CursorPageRequest;
+import com.library.librarymanagement.service.ExportService;
 import com.library.librarymanagement.service.BookService;
+import com.library.librarymanagement.service.BulkIngestService;
+import com.library.librarymanagement.service.BulkResult;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
@@ -33,22 +44,71 @@ public class BookController {
     @Autowired
     private BookService bookService;
 
+    @Autowired
+    private BulkIngestService bulkIngestService;
+
+    @Autowired
+    private ExportService exportService;
+
     @GetMapping
-    public ResponseEntity<List<Book>> getAllBooks() {
+    public ResponseEntity<List<Book>> getAllBooks(@RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) String sort,
+            @RequestParam(defaultValue = "false") boolean unpaged,
+            @RequestParam(required = false) String fields, WebRequest webRequest) {
         try {
-            List<Book> books = bookService.findAll();
-            return ResponseEntity.ok(books);
+            // Pages are tagged by the ids and versions they contain, read without loading the documents; the
+            // unpaged list by the collection's write counter
+            if (unpaged) {
+                if (webRequest.checkNotModified(ETags.weak(bookService.fingerprint(), webRequest))) {
+                    return null;
+                }
+                List<Book> books = bookService.findAll(fields);
+                return ResponseEntity.ok(books);
+            }
+            CursorPageRequest pageRequest = new CursorPageRequest(limit, after, sort);
+            if (webRequest.checkNotModified(ETags.weak(bookService.fingerprint(pageRequest), webRequest))) {
+                return null;
+            }
+            CursorPage<Book> page = bookService.findPage(pageRequest, fields);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                response.header(CursorPage.NEXT_CURSOR_HEADER, page.getNextCursor());
+            }
+            return response.body(page.getItems());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportBooks() {
+        StreamingResponseBody body = exportService::exportBooks;
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(ExportService.NDJSON))
+                .header("Content-Disposition", "attachment; filename=\"books.ndjson\"")
+                .body(body);
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<Book> getBookById(@PathVariable String id) {
+    public ResponseEntity<Book> getBookById(@PathVariable String id,
+            @RequestParam(required = false) String fields, WebRequest webRequest) {
         try {
-            Optional<Book> book = bookService.findById(id);
+            // Answered from the version alone, before the book or its relationships are loaded
+            Optional<Long> version = bookService.findVersion(id);
+            if (version.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            if (webRequest.checkNotModified(ETags.strong(version.get(), webRequest))) {
+                return null;
+            }
+            Optional<Book> book = bookService.findById(id, fields);
             return book.map(ResponseEntity::ok)
                     .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -65,14 +125,32 @@ public class BookController {
         }
     }
 
+    // Accepts a JSON array or NDJSON; per-item results, partial failures do not abort the load
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkResult> bulkCreateBooks(HttpServletRequest request) {
+        try {
+            BulkResult result = bulkIngestService.ingestBooks(request.getInputStream());
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
     @PutMapping(value = "/{id}", consumes = "application/json", produces = "application/json")
     public ResponseEntity<Book> updateBook(@PathVariable String id, @Valid @RequestBody Book bookDetails,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             HttpServletRequest request) {
         System.out.println("[DEBUG] PUT /api/books/" + id + " Content-Type: " + request.getContentType());
         try {
             Optional<Book> existingBook = bookService.findById(id);
             if (existingBook.isPresent()) {
                 Book book = existingBook.get();
+                if (ETags.missing(ifMatch)) {
+                    return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).build();
+                }
+                if (!ETags.matches(ifMatch, book.getVersion())) {
+                    return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+                }
                 book.setTitle(bookDetails.getTitle());
                 book.setCategory(bookDetails.getCategory());
                 book.setPublishingYear(bookDetails.getPublishingYear());
@@ -82,10 +160,13 @@ public class BookController {
                 book.setAuthor(bookDetails.getAuthor());
 
                 Book updatedBook = bookService.save(book);
-                return ResponseEntity.ok(updatedBook);
+                return ResponseEntity.ok().eTag(ETags.strong(updatedBook.getVersion())).body(updatedBook);
             } else {
                 return ResponseEntity.notFound().build();
             }
+        } catch (OptimisticLockingFailureException e) {
+            // Saved over a version that changed after it was read
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
@@ -107,20 +188,26 @@ public class BookController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<Book>> searchBooks(@RequestParam String q) {
+    public ResponseEntity<List<Book>> searchBooks(@RequestParam String q,
+            @RequestParam(required = false) String fields) {
         try {
-            List<Book> books = bookService.searchBooks(q);
+            List<Book> books = bookService.searchBooks(q, fields);
             return ResponseEntity.ok(books);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    // fields limited to id, availableCopies and totalCopies is answered from the availability index
     @GetMapping("/available")
-    public ResponseEntity<List<Book>> getAvailableBooks() {
+    public ResponseEntity<List<Book>> getAvailableBooks(@RequestParam(required = false) String fields) {
         try {
-            List<Book> books = bookService.findAvailableBooks();
+            List<Book> books = bookService.findAvailableBooks(fields);
             return ResponseEntity.ok(books);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -1,10 +1,14 @@
 package com.library.librarymanagement.controller;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -14,10 +18,16 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.library.librarymanagement.model.BorrowedBook;
+import com.library.librarymanagement.repository.CursorPage;
+import com.library.librarymanagement.repository.CursorPageRequest;
+import com.library.librarymanagement.service.ExportService;
 import com.library.librarymanagement.service.BorrowedBookService;
 
 import jakarta.servlet.http.HttpServletRequest;
@@ -33,22 +43,65 @@ public class BorrowedBookController {
     @Autowired
     private BorrowedBookService borrowedBookService;
 
+    @Autowired
+    private ExportService exportService;
+
     @GetMapping
-    public ResponseEntity<List<BorrowedBook>> getAllBorrowedBooks() {
+    public ResponseEntity<List<BorrowedBook>> getAllBorrowedBooks(@RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) String sort,
+            @RequestParam(defaultValue = "false") boolean unpaged,
+            @RequestParam(required = false) String fields, WebRequest webRequest) {
         try {
-            List<BorrowedBook> borrowedBooks = borrowedBookService.findAll();
-            return ResponseEntity.ok(borrowedBooks);
+            if (unpaged) {
+                if (webRequest.checkNotModified(ETags.weak(borrowedBookService.fingerprint(), webRequest))) {
+                    return null;
+                }
+                List<BorrowedBook> borrowedBooks = borrowedBookService.findAll(fields);
+                return ResponseEntity.ok(borrowedBooks);
+            }
+            CursorPageRequest pageRequest = new CursorPageRequest(limit, after, sort);
+            if (webRequest.checkNotModified(ETags.weak(borrowedBookService.fingerprint(pageRequest), webRequest))) {
+                return null;
+            }
+            CursorPage<BorrowedBook> page = borrowedBookService.findPage(pageRequest, fields);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                response.header(CursorPage.NEXT_CURSOR_HEADER, page.getNextCursor());
+            }
+            return response.body(page.getItems());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportBorrowedBooks() {
+        StreamingResponseBody body = exportService::exportBorrowedBooks;
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(ExportService.NDJSON))
+                .header("Content-Disposition", "attachment; filename=\"borrowed-books.ndjson\"")
+                .body(body);
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<BorrowedBook> getBorrowedBookById(@PathVariable String id) {
+    public ResponseEntity<BorrowedBook> getBorrowedBookById(@PathVariable String id,
+            @RequestParam(required = false) String fields, WebRequest webRequest) {
         try {
-            Optional<BorrowedBook> borrowedBook = borrowedBookService.findById(id);
+            Optional<Long> version = borrowedBookService.findVersion(id);
+            if (version.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            if (webRequest.checkNotModified(ETags.strong(version.get(), webRequest))) {
+                return null;
+            }
+            Optional<BorrowedBook> borrowedBook = borrowedBookService.findById(id, fields);
             return borrowedBook.map(ResponseEntity::ok)
                     .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -68,21 +121,30 @@ public class BorrowedBookController {
 
     @PutMapping(value = "/{id}", consumes = "application/json", produces = "application/json")
     public ResponseEntity<BorrowedBook> updateBorrowedBook(@PathVariable String id,
-            @Valid @RequestBody BorrowedBook borrowedBookDetails, HttpServletRequest request) {
+            @Valid @RequestBody BorrowedBook borrowedBookDetails, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            HttpServletRequest request) {
         System.out.println("[DEBUG] PUT /api/borrowed-books/" + id + " Content-Type: " + request.getContentType());
         try {
             Optional<BorrowedBook> existingBorrowedBook = borrowedBookService.findById(id);
             if (existingBorrowedBook.isPresent()) {
                 BorrowedBook borrowedBook = existingBorrowedBook.get();
+                if (ETags.missing(ifMatch)) {
+                    return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).build();
+                }
+                if (!ETags.matches(ifMatch, borrowedBook.getVersion())) {
+                    return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+                }
                 borrowedBook.setBorrowDate(borrowedBookDetails.getBorrowDate());
                 borrowedBook.setDueDate(borrowedBookDetails.getDueDate());
                 borrowedBook.setReturnDate(borrowedBookDetails.getReturnDate());
 
                 BorrowedBook updatedBorrowedBook = borrowedBookService.save(borrowedBook);
-                return ResponseEntity.ok(updatedBorrowedBook);
+                return ResponseEntity.ok().eTag(ETags.strong(updatedBorrowedBook.getVersion())).body(updatedBorrowedBook);
             } else {
                 return ResponseEntity.notFound().build();
             }
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
@@ -115,10 +177,13 @@ public class BorrowedBookController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<BorrowedBook>> searchBorrowedBooks(@RequestParam String q) {
+    public ResponseEntity<List<BorrowedBook>> searchBorrowedBooks(@RequestParam String q,
+            @RequestParam(required = false) String fields) {
         try {
-            List<BorrowedBook> borrowedBooks = borrowedBookService.searchBorrowedBooks(q);
+            List<BorrowedBook> borrowedBooks = borrowedBookService.searchBorrowedBooks(q, fields);
             return ResponseEntity.ok(borrowedBooks);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -144,6 +209,12 @@ public class BorrowedBookController {
         }
     }
 
+    // Running count kept by the overdue sweeper, answered from memory
+    @GetMapping("/overdue/count")
+    public ResponseEntity<Map<String, Long>> getOverdueCount() {
+        return ResponseEntity.ok(Map.of("count", borrowedBookService.countOverdueBooks()));
+    }
+
     @GetMapping("/member/{memberId}")
     public ResponseEntity<List<BorrowedBook>> getBorrowedBooksByMember(@PathVariable String memberId) {
         try {
@@ -0,0 +1,29 @@
+package com.library.librarymanagement.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.library.librarymanagement.cache.CacheStats;
+import com.library.librarymanagement.cache.EntityCaches;
+
+@RestController
+@RequestMapping("/api/cache")
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:3000", "https://2ntng.github.io", "https://backend-service-1rrm.onrender.com"}, 
+             allowCredentials = "true",
+             maxAge = 3600)
+public class CacheController {
+
+    @Autowired
+    private EntityCaches entityCaches;
+
+    @GetMapping("/stats")
+    public ResponseEntity<List<CacheStats>> getCacheStats() {
+        return ResponseEntity.ok(entityCaches.stats());
+    }
+}
@@ -0,0 +1,32 @@
+package com.library.librarymanagement.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.library.librarymanagement.service.DashboardService;
+import com.library.librarymanagement.service.DashboardSummary;
+
+@RestController
+@RequestMapping("/api/dashboard")
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:3000", "https://2ntng.github.io", "https://backend-service-1rrm.onrender.com"}, 
+             allowCredentials = "true",
+             maxAge = 3600)
+public class DashboardController {
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @GetMapping
+    public ResponseEntity<DashboardSummary> getDashboard() {
+        try {
+            return ResponseEntity.ok(dashboardService.summary());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
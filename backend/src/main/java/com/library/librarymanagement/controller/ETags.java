@@ -0,0 +1,83 @@
+package com.library.librarymanagement.controller;
+
+import java.util.List;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.context.request.WebRequest;
+
+import com.library.librarymanagement.config.BinaryFormatsConfig;
+
+// Entity tags for the versioned models: a strong tag per document version, a weak one per list. JSON,
+// Smile and CBOR bodies of the same version are different representations, so the binary formats
+// carry a suffix.
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String strong(Long version) {
+        return "\"" + (version == null ? 0L : version) + "\"";
+    }
+
+    static String strong(Long version, WebRequest request) {
+        return "\"" + (version == null ? 0L : version) + format(request) + "\"";
+    }
+
+    static String weak(String fingerprint, WebRequest request) {
+        return "W/\"" + fingerprint + format(request) + "\"";
+    }
+
+    // Updates must say which version they were made against; a PUT without If-Match is answered 428
+    // rather than applied as a blind overwrite
+    static boolean missing(String ifMatch) {
+        return ifMatch == null || ifMatch.isBlank();
+    }
+
+    // If-Match uses the strong comparison, so weak tags never match; a tag for the same version in any
+    // format does
+    static boolean matches(String ifMatch, Long version) {
+        if (missing(ifMatch)) {
+            return false;
+        }
+        String current = strong(version);
+        String prefix = current.substring(0, current.length() - 1) + "+";
+        for (String tag : ifMatch.split(",")) {
+            String candidate = tag.trim();
+            if (candidate.equals("*") || candidate.equals(current) || candidate.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // The format the message converters will pick for this Accept header: JSON unless a binary
+    // format is asked for more specifically
+    private static String format(WebRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null || accept.isBlank()) {
+            return "";
+        }
+        List<MediaType> acceptable;
+        try {
+            acceptable = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return "";
+        }
+        MimeTypeUtils.sortBySpecificity(acceptable);
+        for (MediaType type : acceptable) {
+            if (type.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return "";
+            }
+            if (type.isCompatibleWith(BinaryFormatsConfig.SMILE)) {
+                return "+smile";
+            }
+            if (type.isCompatibleWith(MediaType.APPLICATION_CBOR)) {
+                return "+cbor";
+            }
+        }
+        return "";
+    }
+}
@@ -0,0 +1,47 @@
+package com.library.librarymanagement.controller;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.library.librarymanagement.journal.CirculationJournal;
+import com.library.librarymanagement.service.ExportService;
+
+@RestController
+@RequestMapping("/api/journal")
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:3000", "https://2ntng.github.io", "https://backend-service-1rrm.onrender.com"}, 
+             allowCredentials = "true",
+             maxAge = 3600)
+public class JournalController {
+
+    @Autowired
+    private CirculationJournal circulationJournal;
+
+    @Autowired
+    private ExportService exportService;
+
+    // Circulation events from the given sequence on, as NDJSON in journal order
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> replayJournal(@RequestParam(defaultValue = "1") long from) {
+        if (from < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        StreamingResponseBody body = out -> exportService.exportJournal(from, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(ExportService.NDJSON))
+                .body(body);
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getJournalStats() {
+        return ResponseEntity.ok(circulationJournal.stats());
+    }
+}
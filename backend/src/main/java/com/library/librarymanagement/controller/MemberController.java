@@ -4,7 +4,10 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -14,11 +17,19 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.library.librarymanagement.model.Member;
+import com.library.librarymanagement.repository.CursorPage;
+import com.library.librarymanagement.repository.CursorPageRequest;
+import com.library.librarymanagement.service.ExportService;
 import com.library.librarymanagement.service.MemberService;
+import com.library.librarymanagement.service.BulkIngestService;
+import com.library.librarymanagement.service.BulkResult;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
@@ -33,22 +44,68 @@ public class MemberController {
     @Autowired
     private MemberService memberService;
 
+    @Autowired
+    private BulkIngestService bulkIngestService;
+
+    @Autowired
+    private ExportService exportService;
+
     @GetMapping
-    public ResponseEntity<List<Member>> getAllMembers() {
+    public ResponseEntity<List<Member>> getAllMembers(@RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) String sort,
+            @RequestParam(defaultValue = "false") boolean unpaged,
+            @RequestParam(required = false) String fields, WebRequest webRequest) {
         try {
-            List<Member> members = memberService.findAll();
-            return ResponseEntity.ok(members);
+            if (unpaged) {
+                if (webRequest.checkNotModified(ETags.weak(memberService.fingerprint(), webRequest))) {
+                    return null;
+                }
+                List<Member> members = memberService.findAll(fields);
+                return ResponseEntity.ok(members);
+            }
+            CursorPageRequest pageRequest = new CursorPageRequest(limit, after, sort);
+            if (webRequest.checkNotModified(ETags.weak(memberService.fingerprint(pageRequest), webRequest))) {
+                return null;
+            }
+            CursorPage<Member> page = memberService.findPage(pageRequest, fields);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                response.header(CursorPage.NEXT_CURSOR_HEADER, page.getNextCursor());
+            }
+            return response.body(page.getItems());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportMembers() {
+        StreamingResponseBody body = exportService::exportMembers;
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(ExportService.NDJSON))
+                .header("Content-Disposition", "attachment; filename=\"members.ndjson\"")
+                .body(body);
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<Member> getMemberById(@PathVariable String id) {
+    public ResponseEntity<Member> getMemberById(@PathVariable String id,
+            @RequestParam(required = false) String fields, WebRequest webRequest) {
         try {
-            Optional<Member> member = memberService.findById(id);
+            Optional<Long> version = memberService.findVersion(id);
+            if (version.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            if (webRequest.checkNotModified(ETags.strong(version.get(), webRequest))) {
+                return null;
+            }
+            Optional<Member> member = memberService.findById(id, fields);
             return member.map(ResponseEntity::ok)
                     .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -65,24 +122,44 @@ public class MemberController {
         }
     }
 
+    // Accepts a JSON array or NDJSON; per-item results, partial failures do not abort the load
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkResult> bulkCreateMembers(HttpServletRequest request) {
+        try {
+            BulkResult result = bulkIngestService.ingestMembers(request.getInputStream());
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
     @PutMapping(value = "/{id}", consumes = "application/json", produces = "application/json")
     public ResponseEntity<Member> updateMember(@PathVariable String id, @Valid @RequestBody Member memberDetails,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             HttpServletRequest request) {
         System.out.println("[DEBUG] PUT /api/members/" + id + " Content-Type: " + request.getContentType());
         try {
             Optional<Member> existingMember = memberService.findById(id);
             if (existingMember.isPresent()) {
                 Member member = existingMember.get();
+                if (ETags.missing(ifMatch)) {
+                    return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).build();
+                }
+                if (!ETags.matches(ifMatch, member.getVersion())) {
+                    return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+                }
                 member.setName(memberDetails.getName());
                 member.setEmail(memberDetails.getEmail());
                 member.setPhone(memberDetails.getPhone());
                 member.setAddress(memberDetails.getAddress());
 
                 Member updatedMember = memberService.save(member);
-                return ResponseEntity.ok(updatedMember);
+                return ResponseEntity.ok().eTag(ETags.strong(updatedMember.getVersion())).body(updatedMember);
             } else {
                 return ResponseEntity.notFound().build();
             }
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
@@ -104,10 +181,13 @@ public class MemberController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<Member>> searchMembers(@RequestParam String q) {
+    public ResponseEntity<List<Member>> searchMembers(@RequestParam String q,
+            @RequestParam(required = false) String fields) {
         try {
-            List<Member> members = memberService.searchMembers(q);
+            List<Member> members = memberService.searchMembers(q, fields);
             return ResponseEntity.ok(members);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
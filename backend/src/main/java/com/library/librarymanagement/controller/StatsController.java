@@ -0,0 +1,76 @@
+package com.library.librarymanagement.controller;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.library.librarymanagement.stats.BookLoans;
+import com.library.librarymanagement.stats.CirculationStatsService;
+
+@RestController
+@RequestMapping("/api/stats")
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:3000", "https://2ntng.github.io", "https://backend-service-1rrm.onrender.com"}, 
+             allowCredentials = "true",
+             maxAge = 3600)
+public class StatsController {
+
+    private static final int MAX_TOP_BOOKS = 100;
+
+    @Autowired
+    private CirculationStatsService circulationStatsService;
+
+    @GetMapping("/summary")
+    public ResponseEntity<Map<String, Object>> getSummary() {
+        return ResponseEntity.ok(circulationStatsService.summary());
+    }
+
+    // Loans per borrow date; defaults to the last 30 days
+    @GetMapping("/daily")
+    public ResponseEntity<Map<LocalDate, Long>> getLoansPerDay(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            LocalDate end = to != null ? to : LocalDate.now();
+            LocalDate start = from != null ? from : end.minusDays(29);
+            return ResponseEntity.ok(circulationStatsService.loansPerDay(start, end));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
+    @GetMapping("/categories")
+    public ResponseEntity<Map<String, Long>> getLoansPerCategory() {
+        return ResponseEntity.ok(circulationStatsService.loansPerCategory());
+    }
+
+    @GetMapping("/top-books")
+    public ResponseEntity<List<BookLoans>> getTopBooks(@RequestParam(defaultValue = "10") int limit) {
+        if (limit < 1 || limit > MAX_TOP_BOOKS) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        return ResponseEntity.ok(circulationStatsService.topBooks(limit));
+    }
+
+    @GetMapping("/books/{id}")
+    public ResponseEntity<BookLoans> getBookLoans(@PathVariable String id) {
+        return ResponseEntity.ok(circulationStatsService.loansOf(id));
+    }
+
+    // Recomputes the rollups from the loan history right away instead of waiting for the next run
+    @PostMapping("/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuild() {
+        return ResponseEntity.ok(circulationStatsService.rebuild());
+    }
+}
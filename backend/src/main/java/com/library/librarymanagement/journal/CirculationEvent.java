@@ -0,0 +1,134 @@
+package com.library.librarymanagement.journal;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+// One entry of the circulation journal. Loan events carry the loan, book and member ids with the
+// relevant dates; INVENTORY_CHANGED carries a book's copy counts after a save (0/0 once deleted).
+public class CirculationEvent {
+
+    public enum Type {
+        // date: borrow date
+        BORROWED,
+        // date: return date
+        RETURNED,
+        // date: return date of the deleted loan, null if it was still active
+        DELETED,
+        INVENTORY_CHANGED
+    }
+
+    private long sequence;
+    private Instant timestamp;
+    private Type type;
+    private String loanId;
+    private String bookId;
+    private String memberId;
+    private LocalDate date;
+    private LocalDate dueDate;
+    private Integer availableCopies;
+    private Integer totalCopies;
+
+    public CirculationEvent() {
+    }
+
+    public static CirculationEvent loan(Type type, String loanId, String bookId, String memberId, LocalDate date,
+            LocalDate dueDate) {
+        CirculationEvent event = new CirculationEvent();
+        event.type = type;
+        event.loanId = loanId;
+        event.bookId = bookId;
+        event.memberId = memberId;
+        event.date = date;
+        event.dueDate = dueDate;
+        return event;
+    }
+
+    public static CirculationEvent inventory(String bookId, Integer availableCopies, Integer totalCopies) {
+        CirculationEvent event = new CirculationEvent();
+        event.type = Type.INVENTORY_CHANGED;
+        event.bookId = bookId;
+        event.availableCopies = availableCopies == null ? 0 : availableCopies;
+        event.totalCopies = totalCopies == null ? 0 : totalCopies;
+        return event;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(Instant timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public String getLoanId() {
+        return loanId;
+    }
+
+    public void setLoanId(String loanId) {
+        this.loanId = loanId;
+    }
+
+    public String getBookId() {
+        return bookId;
+    }
+
+    public void setBookId(String bookId) {
+        this.bookId = bookId;
+    }
+
+    public String getMemberId() {
+        return memberId;
+    }
+
+    public void setMemberId(String memberId) {
+        this.memberId = memberId;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public LocalDate getDueDate() {
+        return dueDate;
+    }
+
+    public void setDueDate(LocalDate dueDate) {
+        this.dueDate = dueDate;
+    }
+
+    public Integer getAvailableCopies() {
+        return availableCopies;
+    }
+
+    public void setAvailableCopies(Integer availableCopies) {
+        this.availableCopies = availableCopies;
+    }
+
+    public Integer getTotalCopies() {
+        return totalCopies;
+    }
+
+    public void setTotalCopies(Integer totalCopies) {
+        this.totalCopies = totalCopies;
+    }
+}
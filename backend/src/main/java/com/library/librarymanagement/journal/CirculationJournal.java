@@ -0,0 +1,283 @@
+package com.library.librarymanagement.journal;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Append-only journal of circulation events in memory-mapped segment files. Appends are serialized and
+// copied into the mapping; a single sync thread forces whatever has been appended after a short
+// group-commit window. An append returns without waiting for that flush unless journal.await-flush is
+// set, in which case it returns once the record is on disk and concurrent writers share one flush; a
+// crash can otherwise lose the last window of events. Segments roll at journal.segment-size and
+// are deleted once all their records are older than journal.retention. Replay reads the segments in order.
+// The journal records what happened; MongoDB stays the source of truth, so a failed append is logged
+// and the operation it describes still succeeds.
+@Component
+public class CirculationJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(CirculationJournal.class);
+
+    private static final String PREFIX = "circulation-";
+    private static final String SUFFIX = ".journal";
+
+    @Value("${journal.enabled:true}")
+    private boolean enabled;
+
+    @Value("${journal.dir:data/journal}")
+    private String directory;
+
+    @Value("${journal.segment-size:64MB}")
+    private DataSize segmentSize;
+
+    @Value("${journal.group-commit:5ms}")
+    private Duration groupCommit;
+
+    @Value("${journal.retention:30d}")
+    private Duration retention;
+
+    @Value("${journal.await-flush:false}")
+    private boolean awaitFlush;
+
+    private final Object syncMonitor = new Object();
+    private final List<JournalSegment> segments = new ArrayList<>();
+    private Path path;
+    private JournalSegment active;
+    private long nextSequence = 1;
+    private volatile long appendedSequence;
+    private long durableSequence;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        path = Paths.get(directory);
+        Files.createDirectories(path);
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(path, PREFIX + "*" + SUFFIX)) {
+            stream.forEach(files::add);
+        }
+        files.sort(null);
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            long firstSequence = Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+            if (!segments.isEmpty() && firstSequence != nextSequence) {
+                // The previous segment ends in a torn write, so this one no longer follows it; set aside
+                // so a later roll cannot reuse the file name
+                log.warn("Journal segment {} does not follow sequence {}; renaming it", file, nextSequence - 1);
+                Files.move(file, file.resolveSibling(name + ".corrupt"));
+                continue;
+            }
+            JournalSegment segment = JournalSegment.open(file, firstSequence);
+            segments.add(segment);
+            nextSequence = segment.getLastSequence() + 1;
+        }
+        if (segments.isEmpty()) {
+            segments.add(JournalSegment.create(path, nextSequence, capacity()));
+        }
+        active = segments.get(segments.size() - 1);
+        // Earlier segments were forced when they were sealed; only the one written last can end in a
+        // torn write
+        active.zeroTail();
+        appendedSequence = nextSequence - 1;
+        durableSequence = appendedSequence;
+        applyRetention();
+
+        running = true;
+        Thread sync = new Thread(this::syncLoop, "journal-sync");
+        sync.setDaemon(true);
+        sync.start();
+        log.info("Circulation journal at {}: {} segments, next sequence {}", path.toAbsolutePath(), segments.size(),
+                nextSequence);
+    }
+
+    @PreDestroy
+    public void close() {
+        running = false;
+        synchronized (syncMonitor) {
+            syncMonitor.notifyAll();
+        }
+        synchronized (this) {
+            if (active != null) {
+                active.force();
+            }
+        }
+    }
+
+    // Sequence number of the appended event, or 0 when the journal is off or the append failed
+    public long append(CirculationEvent event) {
+        return appendAll(List.of(event));
+    }
+
+    // Appends the events in order, waiting for one flush covering all of them when journal.await-flush
+    // is set; returns the last sequence number
+    public long appendAll(Collection<CirculationEvent> events) {
+        if (!running || events.isEmpty()) {
+            return 0;
+        }
+        long sequence = 0;
+        try {
+            synchronized (this) {
+                for (CirculationEvent event : events) {
+                    event.setSequence(nextSequence);
+                    event.setTimestamp(Instant.now());
+                    byte[] record = JournalRecords.encode(event);
+                    long timestamp = event.getTimestamp().toEpochMilli();
+                    if (!active.append(record, nextSequence, timestamp)) {
+                        roll();
+                        if (!active.append(record, nextSequence, timestamp)) {
+                            throw new IOException("Journal record of " + record.length
+                                    + " bytes exceeds the segment size");
+                        }
+                    }
+                    sequence = nextSequence++;
+                    appendedSequence = sequence;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Could not journal circulation events", e);
+        }
+        if (sequence > 0) {
+            if (awaitFlush) {
+                awaitDurable(sequence);
+            } else {
+                synchronized (syncMonitor) {
+                    syncMonitor.notifyAll();
+                }
+            }
+        }
+        return sequence;
+    }
+
+    // Streams every retained event from the given sequence on, in order, up to the latest append
+    public long replay(long fromSequence, Consumer<CirculationEvent> consumer) {
+        List<JournalSegment> snapshot = new ArrayList<>();
+        synchronized (this) {
+            // Held so retention cannot unmap a segment while it is read
+            for (JournalSegment segment : segments) {
+                if (segment.acquire()) {
+                    snapshot.add(segment);
+                }
+            }
+        }
+        long replayed = 0;
+        try {
+            for (JournalSegment segment : snapshot) {
+                if (segment.getLastSequence() >= fromSequence) {
+                    replayed += segment.read(fromSequence, consumer);
+                }
+            }
+        } finally {
+            snapshot.forEach(JournalSegment::release);
+        }
+        return replayed;
+    }
+
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", running);
+        stats.put("segments", segments.size());
+        stats.put("firstSequence", segments.isEmpty() ? 0 : segments.get(0).getFirstSequence());
+        stats.put("lastSequence", nextSequence - 1);
+        long bytes = 0;
+        for (JournalSegment segment : segments) {
+            bytes += segment.getPosition();
+        }
+        stats.put("bytes", bytes);
+        return stats;
+    }
+
+    // Called with the lock held; the sealed segment is flushed here so the sync thread only ever
+    // flushes the active one
+    private void roll() throws IOException {
+        active.force();
+        active = JournalSegment.create(path, nextSequence, capacity());
+        segments.add(active);
+        applyRetention();
+    }
+
+    private void applyRetention() {
+        long cutoff = Instant.now().minus(retention).toEpochMilli();
+        Iterator<JournalSegment> iterator = segments.iterator();
+        while (iterator.hasNext()) {
+            JournalSegment segment = iterator.next();
+            if (segment == active || segment.isEmpty() || segment.getLastTimestamp() >= cutoff) {
+                break;
+            }
+            iterator.remove();
+            segment.retire();
+        }
+    }
+
+    private void awaitDurable(long sequence) {
+        synchronized (syncMonitor) {
+            syncMonitor.notifyAll();
+            while (running && durableSequence < sequence) {
+                try {
+                    syncMonitor.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void syncLoop() {
+        while (running) {
+            try {
+                synchronized (syncMonitor) {
+                    while (running && appendedSequence <= durableSequence) {
+                        syncMonitor.wait();
+                    }
+                }
+                // Let concurrent appenders join this flush
+                Thread.sleep(groupCommit.toMillis());
+                long upTo;
+                JournalSegment segment;
+                synchronized (this) {
+                    upTo = appendedSequence;
+                    segment = active;
+                }
+                try {
+                    segment.force();
+                } catch (RuntimeException e) {
+                    // Writers are released regardless; the journal is best effort next to MongoDB
+                    log.error("Journal sync failed", e);
+                }
+                synchronized (syncMonitor) {
+                    durableSequence = upTo;
+                    syncMonitor.notifyAll();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private int capacity() {
+        return (int) Math.min(segmentSize.toBytes(), Integer.MAX_VALUE);
+    }
+}
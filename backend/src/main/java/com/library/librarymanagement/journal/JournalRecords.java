@@ -0,0 +1,142 @@
+package com.library.librarymanagement.journal;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.zip.CRC32C;
+
+import org.bson.types.ObjectId;
+
+// Binary layout of one journal record:
+//   int length (of everything after the checksum), int CRC32C, long sequence, long epoch millis, byte type,
+//   loan/book/member id (tag byte: 0 absent, 1 ObjectId as 12 bytes, 2 short length + UTF-8), int a, int b
+// a/b are the epoch days of date/dueDate for loan events (NO_DATE when absent), and the available/total
+// copies for INVENTORY_CHANGED. A loan event with three ObjectIds is 72 bytes.
+final class JournalRecords {
+
+    // Length and checksum
+    static final int PREFIX = 8;
+
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final byte ABSENT = 0;
+    private static final byte OBJECT_ID = 1;
+    private static final byte STRING = 2;
+
+    private static final CirculationEvent.Type[] TYPES = CirculationEvent.Type.values();
+
+    private JournalRecords() {
+    }
+
+    static byte[] encode(CirculationEvent event) {
+        ByteBuffer body = ByteBuffer.allocate(8 + 8 + 1 + size(event.getLoanId()) + size(event.getBookId())
+                + size(event.getMemberId()) + 4 + 4);
+        body.putLong(event.getSequence());
+        body.putLong(event.getTimestamp().toEpochMilli());
+        body.put((byte) event.getType().ordinal());
+        putId(body, event.getLoanId());
+        putId(body, event.getBookId());
+        putId(body, event.getMemberId());
+        if (event.getType() == CirculationEvent.Type.INVENTORY_CHANGED) {
+            body.putInt(event.getAvailableCopies());
+            body.putInt(event.getTotalCopies());
+        } else {
+            body.putInt(epochDay(event.getDate()));
+            body.putInt(epochDay(event.getDueDate()));
+        }
+
+        ByteBuffer record = ByteBuffer.allocate(PREFIX + body.capacity());
+        record.putInt(body.capacity());
+        record.putInt(checksum(body.array(), 0, body.capacity()));
+        record.put(body.array());
+        return record.array();
+    }
+
+    // Reads the record at the buffer's position and advances past it; null (position unchanged) when
+    // there is no complete, intact record there
+    static CirculationEvent decode(ByteBuffer buffer, int limit) {
+        int start = buffer.position();
+        if (limit - start < PREFIX) {
+            return null;
+        }
+        int length = buffer.getInt(start);
+        if (length <= 0 || length > limit - start - PREFIX) {
+            return null;
+        }
+        int crc = buffer.getInt(start + 4);
+        byte[] body = new byte[length];
+        buffer.get(start + PREFIX, body);
+        if (checksum(body, 0, length) != crc) {
+            return null;
+        }
+
+        ByteBuffer in = ByteBuffer.wrap(body);
+        CirculationEvent event = new CirculationEvent();
+        event.setSequence(in.getLong());
+        event.setTimestamp(Instant.ofEpochMilli(in.getLong()));
+        event.setType(TYPES[in.get()]);
+        event.setLoanId(getId(in));
+        event.setBookId(getId(in));
+        event.setMemberId(getId(in));
+        int a = in.getInt();
+        int b = in.getInt();
+        if (event.getType() == CirculationEvent.Type.INVENTORY_CHANGED) {
+            event.setAvailableCopies(a);
+            event.setTotalCopies(b);
+        } else {
+            event.setDate(a == NO_DATE ? null : LocalDate.ofEpochDay(a));
+            event.setDueDate(b == NO_DATE ? null : LocalDate.ofEpochDay(b));
+        }
+        buffer.position(start + PREFIX + length);
+        return event;
+    }
+
+    private static int size(String id) {
+        if (id == null) {
+            return 1;
+        }
+        if (ObjectId.isValid(id)) {
+            return 1 + 12;
+        }
+        return 1 + 2 + id.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static void putId(ByteBuffer out, String id) {
+        if (id == null) {
+            out.put(ABSENT);
+        } else if (ObjectId.isValid(id)) {
+            out.put(OBJECT_ID);
+            out.put(new ObjectId(id).toByteArray());
+        } else {
+            byte[] bytes = id.getBytes(StandardCharsets.UTF_8);
+            out.put(STRING);
+            out.putShort((short) bytes.length);
+            out.put(bytes);
+        }
+    }
+
+    private static String getId(ByteBuffer in) {
+        byte tag = in.get();
+        if (tag == OBJECT_ID) {
+            byte[] bytes = new byte[12];
+            in.get(bytes);
+            return new ObjectId(bytes).toHexString();
+        }
+        if (tag == STRING) {
+            byte[] bytes = new byte[in.getShort() & 0xFFFF];
+            in.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        return null;
+    }
+
+    private static int epochDay(LocalDate date) {
+        return date == null ? NO_DATE : (int) date.toEpochDay();
+    }
+
+    private static int checksum(byte[] bytes, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,239 @@
+package com.library.librarymanagement.journal;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// One journal file, mapped in full. The file is created at its final size (sparse until written) with an
+// 8-byte header, and records are appended after it; the zeroed tail marks the end. Appends are made by
+// one thread at a time (CirculationJournal's lock), while readers see everything up to the published
+// position. A segment dropped by retention is unmapped and deleted once no replay is reading it.
+final class JournalSegment {
+
+    private static final Logger log = LoggerFactory.getLogger(JournalSegment.class);
+
+    private static final int MAGIC = 0x434A4E31; // "CJN1"
+    private static final int HEADER = 8;
+
+    // Java 17 has no public unmap; Unsafe.invokeCleaner releases the mapping right away instead of
+    // whenever the buffer is collected. Null when unavailable, and the collector unmaps it then.
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.warn("Journal segments cannot be unmapped explicitly; unmapping is left to the garbage collector");
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private final Path path;
+    private final long firstSequence;
+    private MappedByteBuffer buffer;
+    private volatile int position;
+    private int forcedPosition;
+    private long lastSequence;
+    private long lastTimestamp;
+    private int readers;
+    private boolean retired;
+
+    private JournalSegment(Path path, long firstSequence, MappedByteBuffer buffer) {
+        this.path = path;
+        this.firstSequence = firstSequence;
+        this.buffer = buffer;
+    }
+
+    static Path pathFor(Path directory, long firstSequence) {
+        return directory.resolve(String.format("circulation-%020d.journal", firstSequence));
+    }
+
+    static JournalSegment create(Path directory, long firstSequence, int capacity) throws IOException {
+        Path path = pathFor(directory, firstSequence);
+        JournalSegment segment = new JournalSegment(path, firstSequence, map(path, capacity));
+        segment.buffer.putInt(0, MAGIC);
+        segment.position = HEADER;
+        segment.lastSequence = firstSequence - 1;
+        segment.force();
+        return segment;
+    }
+
+    // Maps an existing file and finds its end: the first record that is missing, torn (bad checksum)
+    // or out of sequence
+    static JournalSegment open(Path path, long firstSequence) throws IOException {
+        JournalSegment segment = new JournalSegment(path, firstSequence, map(path, (int) Files.size(path)));
+        if (segment.buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a circulation journal segment: " + path);
+        }
+        ByteBuffer reader = segment.buffer.duplicate();
+        reader.position(HEADER);
+        long expected = firstSequence;
+        CirculationEvent event;
+        while ((event = JournalRecords.decode(reader, reader.capacity())) != null && event.getSequence() == expected) {
+            segment.lastSequence = expected++;
+            segment.lastTimestamp = event.getTimestamp().toEpochMilli();
+            segment.position = reader.position();
+        }
+        if (segment.position == 0) {
+            segment.position = HEADER;
+            segment.lastSequence = firstSequence - 1;
+        }
+        segment.forcedPosition = segment.position;
+        return segment;
+    }
+
+    // Anything after the end of the segment appended to next is left over from a crash mid-write and is
+    // zeroed, since pages reach the disk in any order: an intact later record could otherwise line up
+    // behind the records appended next and be read back on the following recovery as if it belonged
+    // there. Reads the whole mapping, so it is only run on that one segment. Only bytes that are set get
+    // written, so the unused part of a sparse file stays unallocated.
+    void zeroTail() {
+        int first = -1;
+        int last = -1;
+        for (int i = position; i < buffer.capacity(); i++) {
+            if (buffer.get(i) != 0) {
+                buffer.put(i, (byte) 0);
+                if (first < 0) {
+                    first = i;
+                }
+                last = i;
+            }
+        }
+        if (first >= 0) {
+            log.warn("Zeroed {} bytes after the last intact record of journal segment {}", last - first + 1,
+                    path.getFileName());
+            buffer.force(first, last - first + 1);
+        }
+    }
+
+    private static MappedByteBuffer map(Path path, int capacity) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            // The mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        }
+    }
+
+    // False when the record does not fit; the caller rolls to a new segment. Room is kept for a zero
+    // length after the last record, which marks the end.
+    boolean append(byte[] record, long sequence, long timestamp) {
+        int end = position + record.length;
+        if (end + 4 > buffer.capacity()) {
+            return false;
+        }
+        buffer.put(position, record);
+        lastSequence = sequence;
+        lastTimestamp = timestamp;
+        position = end;
+        return true;
+    }
+
+    // Flushes the pages written since the previous call
+    synchronized void force() {
+        int end = position;
+        if (end > forcedPosition) {
+            buffer.force(forcedPosition, end - forcedPosition);
+            forcedPosition = end;
+        }
+    }
+
+    // Sequential read of the records from the given sequence up to the current end
+    long read(long fromSequence, Consumer<CirculationEvent> consumer) {
+        ByteBuffer reader = buffer.duplicate();
+        int end = position;
+        reader.position(HEADER);
+        long read = 0;
+        CirculationEvent event;
+        while ((event = JournalRecords.decode(reader, end)) != null) {
+            if (event.getSequence() >= fromSequence) {
+                consumer.accept(event);
+                read++;
+            }
+        }
+        return read;
+    }
+
+    // A replay holds the segment while reading it; false once retention has dropped it
+    synchronized boolean acquire() {
+        if (retired) {
+            return false;
+        }
+        readers++;
+        return true;
+    }
+
+    synchronized void release() {
+        if (--readers == 0 && retired) {
+            delete();
+        }
+    }
+
+    // Called by retention after removing the segment from the journal; the last reader deletes it
+    // otherwise
+    synchronized void retire() {
+        retired = true;
+        if (readers == 0) {
+            delete();
+        }
+    }
+
+    private void delete() {
+        MappedByteBuffer mapped = buffer;
+        buffer = null;
+        if (INVOKE_CLEANER != null) {
+            try {
+                INVOKE_CLEANER.invoke(UNSAFE, mapped);
+            } catch (ReflectiveOperationException e) {
+                log.warn("Could not unmap journal segment {}", path, e);
+            }
+        }
+        try {
+            Files.deleteIfExists(path);
+            log.info("Deleted journal segment {} (sequences {}-{})", path.getFileName(), firstSequence, lastSequence);
+        } catch (IOException e) {
+            log.warn("Could not delete journal segment {}", path, e);
+        }
+    }
+
+    boolean isEmpty() {
+        return position == HEADER;
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    long getFirstSequence() {
+        return firstSequence;
+    }
+
+    long getLastSequence() {
+        return lastSequence;
+    }
+
+    long getLastTimestamp() {
+        return lastTimestamp;
+    }
+
+    int getPosition() {
+        return position;
+    }
+}
@@ -3,25 +3,33 @@ package com.library.librarymanagement.model;
 import java.util.List;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 
 import jakarta.validation.constraints.NotBlank;
 
+@JsonFilter("authorFields")
 @Document(collection = "authors")
 public class Author {
 
     @Id
     private String id;
 
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
     @NotBlank(message = "Name is required")
     private String name;
 
     private String biography;
     private String nationality;
-    @DBRef
+    @DBRef(lazy = true)
     @JsonIgnoreProperties("author")
     private List<Book> books;
 
@@ -44,6 +52,14 @@ public class Author {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getName() {
         return name;
     }
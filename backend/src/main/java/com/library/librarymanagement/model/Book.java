@@ -3,20 +3,29 @@ package com.library.librarymanagement.model;
 import java.util.List;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
+@JsonFilter("bookFields")
 @Document(collection = "books")
 public class Book {
 
     @Id
     private String id;
 
+    // Assigned by Spring Data; clients send it back as If-Match, never in the body
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
     @NotBlank(message = "Title is required")
     private String title;
 
@@ -29,10 +38,10 @@ public class Book {
     private String isbn;
     private Integer totalCopies;
     private Integer availableCopies;
-    @DBRef
+    @DBRef(lazy = true)
     @JsonIgnoreProperties("books")
     private Author author;
-    @DBRef
+    @DBRef(lazy = true)
     @JsonIgnoreProperties({ "book", "member" })
     private List<BorrowedBook> borrowedBooks;
 
@@ -60,6 +69,14 @@ public class Book {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getTitle() {
         return title;
     }
@@ -3,22 +3,35 @@ package com.library.librarymanagement.model;
 import java.time.LocalDate;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 
 import jakarta.validation.constraints.NotNull;
 
+@JsonFilter("borrowedBookFields")
 @Document(collection = "borrowed_books")
 public class BorrowedBook {
 
+    public static final String BORROWED = "BORROWED";
+    public static final String RETURNED = "RETURNED";
+    // Set by OverdueSweeper once the due date has passed
+    public static final String OVERDUE = "OVERDUE";
+
     @Id
     private String id;
-    @DBRef
+
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+    @DBRef(lazy = true)
     @JsonIgnoreProperties("borrowedBooks")
     private Book book;
-    @DBRef
+    @DBRef(lazy = true)
     @JsonIgnoreProperties("borrowedBooks")
     private Member member;
 
@@ -29,6 +42,12 @@ public class BorrowedBook {
     private LocalDate dueDate;
     private String status; // BORROWED, RETURNED, OVERDUE
 
+    // Snapshot of the referenced book and member, kept in sync by BookService/MemberService.save
+    private String bookTitle;
+    private String bookIsbn;
+    private String memberName;
+    private String memberEmail;
+
     // Constructors
     public BorrowedBook() {
     }
@@ -38,7 +57,15 @@ public class BorrowedBook {
         this.member = member;
         this.borrowDate = borrowDate;
         this.dueDate = dueDate;
-        this.status = "BORROWED";
+        this.status = BORROWED;
+        if (book != null) {
+            this.bookTitle = book.getTitle();
+            this.bookIsbn = book.getIsbn();
+        }
+        if (member != null) {
+            this.memberName = member.getName();
+            this.memberEmail = member.getEmail();
+        }
     }
 
     // Getters and Setters
@@ -50,6 +77,14 @@ public class BorrowedBook {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public Book getBook() {
         return book;
     }
@@ -97,4 +132,36 @@ public class BorrowedBook {
     public void setStatus(String status) {
         this.status = status;
     }
+
+    public String getBookTitle() {
+        return bookTitle;
+    }
+
+    public void setBookTitle(String bookTitle) {
+        this.bookTitle = bookTitle;
+    }
+
+    public String getBookIsbn() {
+        return bookIsbn;
+    }
+
+    public void setBookIsbn(String bookIsbn) {
+        this.bookIsbn = bookIsbn;
+    }
+
+    public String getMemberName() {
+        return memberName;
+    }
+
+    public void setMemberName(String memberName) {
+        this.memberName = memberName;
+    }
+
+    public String getMemberEmail() {
+        return memberEmail;
+    }
+
+    public void setMemberEmail(String memberEmail) {
+        this.memberEmail = memberEmail;
+    }
 }
@@ -3,21 +3,29 @@ package com.library.librarymanagement.model;
 import java.util.List;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 
+@JsonFilter("memberFields")
 @Document(collection = "members")
 public class Member {
 
     @Id
     private String id;
 
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
     @NotBlank(message = "Name is required")
     private String name;
 
@@ -28,7 +36,7 @@ public class Member {
 
     private String phone;
     private String address;
-    @DBRef
+    @DBRef(lazy = true)
     @JsonIgnoreProperties({ "book", "member" })
     private List<BorrowedBook> borrowedBooks;
 
@@ -52,6 +60,14 @@ public class Member {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getName() {
         return name;
     }
@@ -0,0 +1,107 @@
+package com.library.librarymanagement.reactive;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.repository.CursorPage;
+import com.library.librarymanagement.repository.CursorPageRequest;
+import com.library.librarymanagement.repository.FieldSelection;
+import com.library.librarymanagement.repository.KeysetQuery;
+import com.library.librarymanagement.search.SearchIndexService;
+import com.library.librarymanagement.service.BookService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Same contract as BookController's list and search endpoints
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/books")
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:3000", "https://2ntng.github.io", "https://backend-service-1rrm.onrender.com"}, 
+             allowCredentials = "true",
+             maxAge = 3600)
+public class ReactiveBookController {
+
+    @Autowired
+    private ReactiveBookRepository reactiveBookRepository;
+
+    @Autowired
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Autowired
+    private ReactiveEntityVersions reactiveEntityVersions;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private SparseFieldWriter sparseFieldWriter;
+
+    @GetMapping
+    public Mono<ResponseEntity<Flux<?>>> getAllBooks(@RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) String sort,
+            @RequestParam(defaultValue = "false") boolean unpaged,
+            @RequestParam(required = false) String fields, ServerWebExchange exchange) {
+        try {
+            FieldSelection selection = FieldSelection.parse(fields, BookService.FIELDS);
+            // Tagged as BookController tags them: the unpaged list by the collection's write counter, a
+            // page by the ids and versions it contains, both read before any book is loaded
+            if (unpaged) {
+                if (exchange.checkNotModified(ReactiveEntityVersions.weak(reactiveEntityVersions.fingerprint(
+                        Book.class)))) {
+                    return Mono.empty();
+                }
+                // Streamed from the aggregation cursor as the client reads it
+                Flux<Book> books = reactiveBookRepository.findWithRelationships(new Criteria(), null, null, selection);
+                return Mono.just(ResponseEntity.ok(sparseFieldWriter.write(books, Book.class, fields)));
+            }
+            CursorPageRequest pageRequest = new CursorPageRequest(limit, after, sort);
+            // The next cursor header depends on the last item, so a page is collected before writing
+            KeysetQuery<Book> keyset = new KeysetQuery<>(reactiveMongoTemplate.getConverter(), Book.class,
+                    new Criteria(), pageRequest, BookService.SORTABLE_FIELDS);
+            return reactiveEntityVersions.fingerprint(Book.class, new Criteria(), pageRequest,
+                            BookService.SORTABLE_FIELDS)
+                    .filter(fingerprint -> !exchange.checkNotModified(ReactiveEntityVersions.weak(fingerprint)))
+                    .flatMap(fingerprint -> reactiveBookRepository.findWithRelationships(keyset.getCriteria(),
+                                    keyset.getSort(), keyset.getFetchLimit(), selection, keyset.getSortProperty())
+                            .collectList())
+                    .map(keyset::toPage)
+                    .map(page -> {
+                        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                        if (page.getNextCursor() != null) {
+                            response.header(CursorPage.NEXT_CURSOR_HEADER, page.getNextCursor());
+                        }
+                        return response.body(sparseFieldWriter.write(Flux.fromIterable(page.getItems()), Book.class,
+                                fields));
+                    });
+        } catch (IllegalArgumentException e) {
+            return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).build());
+        }
+    }
+
+    @GetMapping("/search")
+    public Mono<ResponseEntity<Flux<?>>> searchBooks(@RequestParam String q,
+            @RequestParam(required = false) String fields) {
+        try {
+            FieldSelection selection = FieldSelection.parse(fields, BookService.FIELDS);
+            // Matching ids come from this instance's copy of the in-memory index, the books from one $in
+            Flux<Book> books = reactiveBookRepository.findByIdInWithRelationships(searchIndexService.searchBooks(q),
+                    selection);
+            return Mono.just(ResponseEntity.ok(sparseFieldWriter.write(books, Book.class, fields)));
+        } catch (IllegalArgumentException e) {
+            return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).build());
+        }
+    }
+}
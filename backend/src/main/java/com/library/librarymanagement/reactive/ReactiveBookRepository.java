@@ -0,0 +1,10 @@
+package com.library.librarymanagement.reactive;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.library.librarymanagement.model.Book;
+
+@Repository
+public interface ReactiveBookRepository extends ReactiveMongoRepository<Book, String>, ReactiveBookRepositoryCustom {
+}
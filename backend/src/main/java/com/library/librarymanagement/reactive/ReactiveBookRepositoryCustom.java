@@ -0,0 +1,19 @@
+package com.library.librarymanagement.reactive;
+
+import java.util.Collection;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.repository.FieldSelection;
+
+import reactor.core.publisher.Flux;
+
+public interface ReactiveBookRepositoryCustom {
+
+    Flux<Book> findWithRelationships(Criteria criteria, Sort sort, Integer limit, FieldSelection fields,
+            String... extraFields);
+
+    Flux<Book> findByIdInWithRelationships(Collection<String> ids, FieldSelection fields);
+}
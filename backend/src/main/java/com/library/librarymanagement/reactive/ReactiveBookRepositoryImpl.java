@@ -0,0 +1,46 @@
+package com.library.librarymanagement.reactive;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.repository.DbRefs;
+import com.library.librarymanagement.repository.FieldSelection;
+import com.library.librarymanagement.repository.RelationshipPipelines;
+
+import reactor.core.publisher.Flux;
+
+public class ReactiveBookRepositoryImpl implements ReactiveBookRepositoryCustom {
+
+    @Autowired
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Override
+    public Flux<Book> findWithRelationships(Criteria criteria, Sort sort, Integer limit, FieldSelection fields,
+            String... extraFields) {
+        // Author and borrow history are resolved by $lookup (see RelationshipPipelines), which turns
+        // empty borrow histories into null
+        boolean withBorrowedBooks = fields.includes("borrowedBooks");
+        return reactiveMongoTemplate.aggregate(
+                RelationshipPipelines.books(criteria, sort, limit, fields, extraFields), Book.class)
+                .map(book -> {
+                    if (withBorrowedBooks && book.getBorrowedBooks() == null) {
+                        book.setBorrowedBooks(new ArrayList<>());
+                    }
+                    return book;
+                });
+    }
+
+    @Override
+    public Flux<Book> findByIdInWithRelationships(Collection<String> ids, FieldSelection fields) {
+        if (ids.isEmpty()) {
+            return Flux.empty();
+        }
+        return findWithRelationships(Criteria.where("_id").in(DbRefs.objectIds(ids)), null, null, fields);
+    }
+}
@@ -0,0 +1,117 @@
+package com.library.librarymanagement.reactive;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.library.librarymanagement.model.BorrowedBook;
+import com.library.librarymanagement.repository.CursorPage;
+import com.library.librarymanagement.repository.CursorPageRequest;
+import com.library.librarymanagement.repository.FieldSelection;
+import com.library.librarymanagement.repository.KeysetQuery;
+import com.library.librarymanagement.search.SearchIndexService;
+import com.library.librarymanagement.service.BorrowedBookService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Same contract as BorrowedBookController's list, active, overdue and search endpoints
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/borrowed-books")
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:3000", "https://2ntng.github.io", "https://backend-service-1rrm.onrender.com"}, 
+             allowCredentials = "true",
+             maxAge = 3600)
+public class ReactiveBorrowedBookController {
+
+    @Autowired
+    private ReactiveBorrowedBookRepository reactiveBorrowedBookRepository;
+
+    @Autowired
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Autowired
+    private ReactiveEntityVersions reactiveEntityVersions;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private SparseFieldWriter sparseFieldWriter;
+
+    @GetMapping
+    public Mono<ResponseEntity<Flux<?>>> getAllBorrowedBooks(@RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) String sort,
+            @RequestParam(defaultValue = "false") boolean unpaged,
+            @RequestParam(required = false) String fields, ServerWebExchange exchange) {
+        try {
+            FieldSelection selection = FieldSelection.parse(fields, BorrowedBookService.FIELDS);
+            if (unpaged) {
+                if (exchange.checkNotModified(ReactiveEntityVersions.weak(reactiveEntityVersions.fingerprint(
+                        BorrowedBook.class)))) {
+                    return Mono.empty();
+                }
+                Flux<BorrowedBook> borrowedBooks = reactiveBorrowedBookRepository.findWithRelationships(
+                        new Criteria(), null, null, selection);
+                return Mono.just(ResponseEntity.ok(sparseFieldWriter.write(borrowedBooks, BorrowedBook.class,
+                        fields)));
+            }
+            CursorPageRequest pageRequest = new CursorPageRequest(limit, after, sort);
+            KeysetQuery<BorrowedBook> keyset = new KeysetQuery<>(reactiveMongoTemplate.getConverter(),
+                    BorrowedBook.class, new Criteria(), pageRequest, BorrowedBookService.SORTABLE_FIELDS);
+            return reactiveEntityVersions.fingerprint(BorrowedBook.class, new Criteria(), pageRequest,
+                            BorrowedBookService.SORTABLE_FIELDS)
+                    .filter(fingerprint -> !exchange.checkNotModified(ReactiveEntityVersions.weak(fingerprint)))
+                    .flatMap(fingerprint -> reactiveBorrowedBookRepository.findWithRelationships(
+                                    keyset.getCriteria(), keyset.getSort(), keyset.getFetchLimit(), selection)
+                            .collectList())
+                    .map(keyset::toPage)
+                    .map(page -> {
+                        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                        if (page.getNextCursor() != null) {
+                            response.header(CursorPage.NEXT_CURSOR_HEADER, page.getNextCursor());
+                        }
+                        return response.body(sparseFieldWriter.write(Flux.fromIterable(page.getItems()),
+                                BorrowedBook.class, fields));
+                    });
+        } catch (IllegalArgumentException e) {
+            return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).build());
+        }
+    }
+
+    @GetMapping("/search")
+    public Mono<ResponseEntity<Flux<?>>> searchBorrowedBooks(@RequestParam String q,
+            @RequestParam(required = false) String fields) {
+        try {
+            FieldSelection selection = FieldSelection.parse(fields, BorrowedBookService.FIELDS);
+            // Book titles and member names are matched in memory, the loans referencing them (or borrowed on
+            // the date q names) fetched by one aggregation on the DBRef ids
+            Flux<BorrowedBook> borrowedBooks = reactiveBorrowedBookRepository
+                    .findByBookIdInOrMemberIdInOrBorrowDateWithRelationships(searchIndexService.searchBookTitles(q),
+                            searchIndexService.searchMemberNames(q), SearchIndexService.borrowDateOf(q), selection);
+            return Mono.just(ResponseEntity.ok(sparseFieldWriter.write(borrowedBooks, BorrowedBook.class, fields)));
+        } catch (IllegalArgumentException e) {
+            return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).build());
+        }
+    }
+
+    @GetMapping("/active")
+    public Flux<BorrowedBook> getActiveBorrowings() {
+        return reactiveBorrowedBookRepository.findActiveWithRelationships();
+    }
+
+    @GetMapping("/overdue")
+    public Flux<BorrowedBook> getOverdueBooks() {
+        return reactiveBorrowedBookRepository.findOverdueWithRelationships();
+    }
+}
@@ -0,0 +1,11 @@
+package com.library.librarymanagement.reactive;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.library.librarymanagement.model.BorrowedBook;
+
+@Repository
+public interface ReactiveBorrowedBookRepository extends ReactiveMongoRepository<BorrowedBook, String>,
+        ReactiveBorrowedBookRepositoryCustom {
+}
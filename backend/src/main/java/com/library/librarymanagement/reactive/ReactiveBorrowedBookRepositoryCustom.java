@@ -0,0 +1,24 @@
+package com.library.librarymanagement.reactive;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import com.library.librarymanagement.model.BorrowedBook;
+import com.library.librarymanagement.repository.FieldSelection;
+
+import reactor.core.publisher.Flux;
+
+public interface ReactiveBorrowedBookRepositoryCustom {
+
+    Flux<BorrowedBook> findActiveWithRelationships();
+
+    Flux<BorrowedBook> findOverdueWithRelationships();
+
+    Flux<BorrowedBook> findWithRelationships(Criteria criteria, Sort sort, Integer limit, FieldSelection fields);
+
+    Flux<BorrowedBook> findByBookIdInOrMemberIdInOrBorrowDateWithRelationships(Collection<String> bookIds,
+            Collection<String> memberIds, LocalDate borrowDate, FieldSelection fields);
+}
@@ -0,0 +1,61 @@
+package com.library.librarymanagement.reactive;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import com.library.librarymanagement.model.BorrowedBook;
+import com.library.librarymanagement.repository.DbRefs;
+import com.library.librarymanagement.repository.FieldSelection;
+import com.library.librarymanagement.repository.RelationshipPipelines;
+
+import reactor.core.publisher.Flux;
+
+public class ReactiveBorrowedBookRepositoryImpl implements ReactiveBorrowedBookRepositoryCustom {
+
+    @Autowired
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Override
+    public Flux<BorrowedBook> findActiveWithRelationships() {
+        return aggregate(Criteria.where("returnDate").is(null), FieldSelection.ALL);
+    }
+
+    @Override
+    public Flux<BorrowedBook> findOverdueWithRelationships() {
+        return aggregate(Criteria.where("status").is(BorrowedBook.OVERDUE).and("returnDate").is(null),
+                FieldSelection.ALL);
+    }
+
+    @Override
+    public Flux<BorrowedBook> findWithRelationships(Criteria criteria, Sort sort, Integer limit,
+            FieldSelection fields) {
+        // Book and member are resolved by $lookup (see RelationshipPipelines)
+        return reactiveMongoTemplate.aggregate(RelationshipPipelines.borrowedBooks(criteria, sort, limit, fields),
+                BorrowedBook.class);
+    }
+
+    @Override
+    public Flux<BorrowedBook> findByBookIdInOrMemberIdInOrBorrowDateWithRelationships(Collection<String> bookIds,
+            Collection<String> memberIds, LocalDate borrowDate, FieldSelection fields) {
+        if (bookIds.isEmpty() && memberIds.isEmpty() && borrowDate == null) {
+            return Flux.empty();
+        }
+        List<Criteria> any = new ArrayList<>(List.of(Criteria.where("book.$id").in(DbRefs.objectIds(bookIds)),
+                Criteria.where("member.$id").in(DbRefs.objectIds(memberIds))));
+        if (borrowDate != null) {
+            any.add(Criteria.where("borrowDate").is(borrowDate));
+        }
+        return findWithRelationships(new Criteria().orOperator(any), null, null, fields);
+    }
+
+    private Flux<BorrowedBook> aggregate(Criteria criteria, FieldSelection fields) {
+        return findWithRelationships(criteria, null, null, fields);
+    }
+}
@@ -0,0 +1,53 @@
+package com.library.librarymanagement.reactive;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.StringUtils;
+import org.springframework.web.reactive.config.CorsRegistry;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+import com.library.librarymanagement.repository.CursorPage;
+
+// Same CORS policy as CorsConfig, for the WebFlux variant
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCorsConfig implements WebFluxConfigurer {
+
+    @Value("${cors.allowed-origins:http://localhost:5173,http://localhost:3000,https://2ntng.github.io,https://backend-service-1rrm.onrender.com}")
+    private String allowedOrigins;
+
+    @Value("${cors.allowed-methods:GET,POST,PUT,DELETE,OPTIONS,HEAD}")
+    private String allowedMethods;
+
+    @Value("${cors.allowed-headers:*}")
+    private String allowedHeaders;
+
+    @Value("${cors.exposed-headers:*}")
+    private String exposedHeaders;
+
+    @Value("${cors.allow-credentials:true}")
+    private boolean allowCredentials;
+
+    @Value("${cors.max-age:3600}")
+    private long maxAge;
+
+    @Override
+    public void addCorsMappings(CorsRegistry registry) {
+        String[] origins = allowedOrigins.split(",");
+        for (int i = 0; i < origins.length; i++) {
+            origins[i] = origins[i].trim();
+        }
+
+        registry.addMapping("/api/**")
+                .allowedOrigins(origins)
+                .allowedMethods(allowedMethods.split(","))
+                .allowedHeaders(allowedHeaders.equals("*") ? new String[]{"*"} : allowedHeaders.split(","))
+                .exposedHeaders(exposedHeaders.equals("*") ? new String[]{CursorPage.NEXT_CURSOR_HEADER, HttpHeaders.ETAG}
+                        : StringUtils.addStringToArray(StringUtils.addStringToArray(exposedHeaders.split(","),
+                                CursorPage.NEXT_CURSOR_HEADER), HttpHeaders.ETAG))
+                .allowCredentials(allowCredentials)
+                .maxAge(maxAge);
+    }
+}
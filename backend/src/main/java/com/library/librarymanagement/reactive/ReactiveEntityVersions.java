@@ -0,0 +1,51 @@
+package com.library.librarymanagement.reactive;
+
+import java.util.Set;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import com.library.librarymanagement.repository.CollectionVersions;
+import com.library.librarymanagement.repository.CursorPageRequest;
+import com.library.librarymanagement.repository.EntityVersions;
+import com.library.librarymanagement.repository.KeysetQuery;
+
+import reactor.core.publisher.Mono;
+
+// List tags as EntityVersions builds them for the servlet controllers: a page by the ids and versions it
+// contains, so both variants tag the same page alike, and the whole collection by its write counter
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveEntityVersions {
+
+    @Autowired
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Autowired
+    private CollectionVersions collectionVersions;
+
+    public String fingerprint(Class<?> type) {
+        return collectionVersions.tag(reactiveMongoTemplate.getCollectionName(type));
+    }
+
+    public <T> Mono<String> fingerprint(Class<T> type, Criteria filter, CursorPageRequest request,
+            Set<String> sortableFields) {
+        KeysetQuery<T> keyset = new KeysetQuery<>(reactiveMongoTemplate.getConverter(), type, filter, request,
+                sortableFields);
+        Query query = new Query(keyset.getCriteria()).with(keyset.getSort()).limit(keyset.getFetchLimit());
+        query.fields().include("version");
+        return reactiveMongoTemplate.query(type).as(Document.class).matching(query).all()
+                .collectList()
+                .map(EntityVersions::fingerprint);
+    }
+
+    // Only JSON is served here, so unlike ETags there is no format suffix
+    static String weak(String fingerprint) {
+        return "W/\"" + fingerprint + "\"";
+    }
+}
@@ -0,0 +1,42 @@
+package com.library.librarymanagement.reactive;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
+
+import com.library.librarymanagement.cache.EntityCaches;
+import com.library.librarymanagement.config.JacksonConfig;
+import com.library.librarymanagement.repository.BookRepository;
+import com.library.librarymanagement.repository.CollectionVersions;
+import com.library.librarymanagement.search.SearchIndexService;
+
+// Reactive variant of the high fan-in read endpoints: WebFlux on Netty over the reactive Mongo driver,
+// with the same paths and JSON as the servlet controllers so a proxy can route those GETs here.
+// Writes, index management and seeding stay with LibraryManagementApplication. Search is served from
+// this instance's own SearchIndexService, which the blocking driver loads at startup and
+// SearchIndexFollower keeps current. The servlet application scans this package too, so every bean
+// here is conditional on running as a reactive web application.
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@SpringBootApplication
+@EnableMongoRepositories(basePackageClasses = BookRepository.class)
+@Import({ JacksonConfig.class, CollectionVersions.class, EntityCaches.class, SearchIndexService.class })
+public class ReactiveLibraryApplication {
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(ReactiveLibraryApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .run(args);
+    }
+
+    // Tomcat is on the classpath for the servlet application and would otherwise be preferred; Netty
+    // serves every connection from a few event loop threads
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
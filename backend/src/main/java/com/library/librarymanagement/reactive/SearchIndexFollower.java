@@ -0,0 +1,232 @@
+package com.library.librarymanagement.reactive;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import org.bson.BsonDocument;
+import org.bson.BsonTimestamp;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Component;
+
+import com.library.librarymanagement.model.Author;
+import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.model.Member;
+import com.library.librarymanagement.repository.CollectionVersions;
+import com.library.librarymanagement.search.SearchIndexService;
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import com.mongodb.reactivestreams.client.ChangeStreamPublisher;
+
+import jakarta.annotation.PreDestroy;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+// The writes all happen in the servlet instances, so this instance's search index and list tags follow
+// them from a change stream over the four collections, as ChangeStreamSubscriber does there. Against a
+// standalone server, or with changestreams.enabled=false, the index is rebuilt and every list tag moved
+// at reactive.refresh-interval instead.
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class SearchIndexFollower {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchIndexFollower.class);
+
+    private static final List<String> COLLECTIONS = List.of("books", "authors", "members", "borrowed_books");
+
+    // Resume point no longer in the oplog, or the stream cannot be resumed
+    private static final Set<Integer> HISTORY_LOST = Set.of(286, 280);
+
+    private static final Duration RETRY = Duration.ofSeconds(5);
+
+    @Autowired
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private CollectionVersions collectionVersions;
+
+    @Value("${changestreams.enabled:true}")
+    private boolean changeStreams;
+
+    @Value("${reactive.refresh-interval:PT30S}")
+    private Duration refreshInterval;
+
+    // Where a stream opened without a resume token starts; taken before the index is loaded
+    private volatile BsonTimestamp startAt;
+
+    private volatile BsonDocument resumeToken;
+
+    private Disposable subscription;
+
+    // Runs before SearchIndexService builds the index, so the stream starts no later than the load
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void start() {
+        Document hello = changeStreams ? reactiveMongoTemplate.executeCommand(new Document("isMaster", 1)).block()
+                : null;
+        if (hello == null || !(hello.containsKey("setName") || "isdbgrid".equals(hello.getString("msg")))) {
+            log.info("No change stream to follow; rebuilding the search index every {}", refreshInterval);
+            subscription = Flux.interval(refreshInterval, refreshInterval, Schedulers.boundedElastic())
+                    .subscribe(tick -> refresh());
+            return;
+        }
+        startAt = operationTime(hello);
+        subscription = Flux.defer(this::open)
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(this::apply)
+                // An invalidated stream completes and cannot be resumed past; start a new one
+                .doOnComplete(() -> {
+                    resumeToken = null;
+                    startAt = null;
+                })
+                .repeat()
+                .retryWhen(Retry.fixedDelay(Long.MAX_VALUE, RETRY).doBeforeRetry(signal -> {
+                    if (signal.failure() instanceof MongoCommandException command
+                            && HISTORY_LOST.contains(command.getErrorCode())) {
+                        log.warn("Change stream history lost, reloading the search index", command);
+                        resumeToken = null;
+                        startAt = null;
+                    } else {
+                        log.warn("Change stream interrupted ({}), resuming in {}", signal.failure().getMessage(), RETRY);
+                    }
+                }))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    private Flux<ChangeStreamDocument<Document>> open() {
+        if (resumeToken != null || startAt != null) {
+            return watch();
+        }
+        // History was lost: start from now, then reload what the stream can no longer replay
+        return reactiveMongoTemplate.executeCommand(new Document("isMaster", 1))
+                .flatMapMany(hello -> {
+                    startAt = operationTime(hello);
+                    Mono.fromRunnable(this::refresh).subscribeOn(Schedulers.boundedElastic()).subscribe();
+                    return watch();
+                });
+    }
+
+    private Flux<ChangeStreamDocument<Document>> watch() {
+        return reactiveMongoTemplate.getMongoDatabase().flatMapMany(database -> {
+            ChangeStreamPublisher<Document> stream = database
+                    .watch(List.of(Aggregates.match(Filters.in("ns.coll", COLLECTIONS))))
+                    .fullDocument(FullDocument.UPDATE_LOOKUP);
+            if (resumeToken != null) {
+                stream = stream.resumeAfter(resumeToken);
+            } else if (startAt != null) {
+                stream = stream.startAtOperationTime(startAt);
+            }
+            return stream;
+        });
+    }
+
+    private void apply(ChangeStreamDocument<Document> event) {
+        try {
+            if (event.getNamespace() == null || event.getDocumentKey() == null) {
+                // drop, rename, invalidate
+                refresh();
+                return;
+            }
+            String collection = event.getNamespace().getCollectionName();
+            collectionVersions.changed(collection);
+            String id = idOf(event.getDocumentKey().get("_id"));
+            Document document = event.getFullDocument();
+            switch (collection) {
+                case "books":
+                    if (document == null) {
+                        searchIndexService.removeBook(id);
+                    } else {
+                        searchIndexService.indexBook(reactiveMongoTemplate.getConverter().read(Book.class, document));
+                    }
+                    break;
+                case "authors":
+                    if (document == null) {
+                        searchIndexService.removeAuthor(id);
+                    } else {
+                        Author author = reactiveMongoTemplate.getConverter().read(Author.class, document);
+                        // Books are indexed with their author's name; only a rename needs them re-indexed
+                        if (renamed(event)) {
+                            searchIndexService.indexAuthorWithBooks(author);
+                        } else {
+                            searchIndexService.indexAuthor(author);
+                        }
+                    }
+                    break;
+                case "members":
+                    if (document == null) {
+                        searchIndexService.removeMember(id);
+                    } else {
+                        searchIndexService.indexMember(reactiveMongoTemplate.getConverter().read(Member.class, document));
+                    }
+                    break;
+                default:
+                    break;
+            }
+        } catch (RuntimeException e) {
+            // Skipped; the next reload catches up
+            log.error("Could not apply change stream event", e);
+        } finally {
+            if (event.getResumeToken() != null) {
+                resumeToken = event.getResumeToken();
+            }
+        }
+    }
+
+    private static boolean renamed(ChangeStreamDocument<Document> event) {
+        if (event.getOperationType() != OperationType.UPDATE || event.getUpdateDescription() == null) {
+            return true;
+        }
+        BsonDocument updated = event.getUpdateDescription().getUpdatedFields();
+        return updated != null && updated.containsKey("name");
+    }
+
+    private void refresh() {
+        try {
+            searchIndexService.rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Could not rebuild the search index", e);
+        }
+        collectionVersions.changedAll();
+    }
+
+    private static BsonTimestamp operationTime(Document hello) {
+        return hello.get("operationTime") instanceof BsonTimestamp time ? time : null;
+    }
+
+    private static String idOf(BsonValue id) {
+        if (id == null) {
+            return null;
+        }
+        return id.isObjectId() ? id.asObjectId().getValue().toHexString()
+                : id.isString() ? id.asString().getValue() : id.toString();
+    }
+}
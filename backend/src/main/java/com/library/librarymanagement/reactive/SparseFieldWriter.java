@@ -0,0 +1,44 @@
+package com.library.librarymanagement.reactive;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.library.librarymanagement.config.SparseFieldsAdvice;
+
+import reactor.core.publisher.Flux;
+
+// ?fields= for the WebFlux variant. The Jackson encoder writes a Flux through one writer without
+// per-request filters, so with a selection each item is rendered to a tree with the filters applied.
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class SparseFieldWriter {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public <T> Flux<?> write(Flux<T> items, Class<T> type, String fields) {
+        if (fields == null || fields.isBlank()) {
+            return items;
+        }
+        FilterProvider filters = SparseFieldsAdvice.filtersFor(type, fields);
+        if (filters == null) {
+            return items;
+        }
+        ObjectWriter writer = objectMapper.writer(filters);
+        return items.map(item -> {
+            try (TokenBuffer buffer = new TokenBuffer(objectMapper, false)) {
+                writer.writeValue(buffer, item);
+                return objectMapper.readTree(buffer.asParser());
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to write " + type.getSimpleName(), e);
+            }
+        });
+    }
+}
@@ -9,16 +9,14 @@ import org.springframework.stereotype.Repository;
 import com.library.librarymanagement.model.Book;
 
 @Repository
-public interface BookRepository extends MongoRepository<Book, String> {
+public interface BookRepository extends MongoRepository<Book, String>, BookRepositoryCustom {
 
     List<Book> findByTitleContainingIgnoreCase(String title);
 
     List<Book> findByCategoryContainingIgnoreCase(String category);
 
+    @Query("{ 'author.$id': { '$oid': ?0 } }")
     List<Book> findByAuthorId(String authorId);
 
     List<Book> findByAvailableCopiesGreaterThan(Integer copies);
-
-    @Query("{ $or: [ { 'title': { $regex: ?0, $options: 'i' } }, { 'category': { $regex: ?0, $options: 'i' } }, { 'author.name': { $regex: ?0, $options: 'i' } } ] }")
-    List<Book> findByKeyword(String keyword);
 }
@@ -0,0 +1,14 @@
+package com.library.librarymanagement.repository;
+
+import java.util.stream.Stream;
+
+import com.library.librarymanagement.model.Book;
+
+public interface BookRepositoryCustom {
+
+    Stream<Book> streamAllWithAuthor();
+
+    boolean decrementAvailableCopies(String bookId);
+
+    boolean incrementAvailableCopies(String bookId);
+}
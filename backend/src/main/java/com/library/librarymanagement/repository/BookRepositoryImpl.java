@@ -0,0 +1,57 @@
+package com.library.librarymanagement.repository;
+
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.library.librarymanagement.model.Book;
+
+public class BookRepositoryImpl implements BookRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public Stream<Book> streamAllWithAuthor() {
+        // Author is joined server side and the borrowedBooks back reference is dropped, so iterating
+        // the cursor never triggers lazy DBRef resolution
+        AggregationOperation lookupAuthor = context -> new Document("$lookup", new Document("from", "authors")
+                .append("localField", "author.$id")
+                .append("foreignField", "_id")
+                .append("as", "author"));
+        AggregationOperation unwindAuthor = context -> new Document("$unwind", new Document("path", "$author")
+                .append("preserveNullAndEmptyArrays", true));
+        AggregationOperation dropBackReferences = context -> new Document("$project", new Document()
+                .append("borrowedBooks", 0)
+                .append("author.books", 0));
+
+        return mongoTemplate.aggregateStream(
+                Aggregation.newAggregation(Book.class, lookupAuthor, unwindAuthor, dropBackReferences), Book.class);
+    }
+
+    // Single conditional $inc: matches only while a copy is left, so concurrent borrowers can never
+    // take the count below zero
+    @Override
+    public boolean decrementAvailableCopies(String bookId) {
+        Query query = new Query(Criteria.where("id").is(bookId).and("availableCopies").gt(0));
+        return mongoTemplate.updateFirst(query, new Update().inc("availableCopies", -1), Book.class)
+                .getModifiedCount() == 1;
+    }
+
+    // Single conditional $inc: matches only while availableCopies < totalCopies
+    @Override
+    public boolean incrementAvailableCopies(String bookId) {
+        Query query = new Query(Criteria.where("id").is(bookId)
+                .andOperator(Criteria.expr(ComparisonOperators.valueOf("availableCopies").lessThan("totalCopies"))));
+        return mongoTemplate.updateFirst(query, new Update().inc("availableCopies", 1), Book.class)
+                .getModifiedCount() == 1;
+    }
+}
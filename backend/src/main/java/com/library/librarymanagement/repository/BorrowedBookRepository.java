@@ -1,8 +1,10 @@
 package com.library.librarymanagement.repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
+import org.bson.types.ObjectId;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -10,19 +12,21 @@ import org.springframework.stereotype.Repository;
 import com.library.librarymanagement.model.BorrowedBook;
 
 @Repository
-public interface BorrowedBookRepository extends MongoRepository<BorrowedBook, String> {
+public interface BorrowedBookRepository extends MongoRepository<BorrowedBook, String>, BorrowedBookRepositoryCustom {
 
+    @Query("{ 'member.$id': { '$oid': ?0 } }")
     List<BorrowedBook> findByMemberId(String memberId);
 
+    @Query("{ 'book.$id': { '$oid': ?0 } }")
     List<BorrowedBook> findByBookId(String bookId);
 
+    @Query("{ 'book.$id': { $in: ?0 } }")
+    List<BorrowedBook> findByBookIdIn(Collection<ObjectId> bookIds);
+
     List<BorrowedBook> findByReturnDateIsNull();
 
     List<BorrowedBook> findByDueDateBeforeAndReturnDateIsNull(LocalDate date);
 
-    @Query("{ $or: [ { 'book.title': { $regex: ?0, $options: 'i' } }, { 'member.name': { $regex: ?0, $options: 'i' } } ] }")
-    List<BorrowedBook> findByBookTitleContainingIgnoreCaseOrMemberNameContainingIgnoreCaseOrBorrowDate(String keyword);
-
     @Query("{ 'borrowDate': { $gte: ?0, $lte: ?1 } }")
     List<BorrowedBook> findByBorrowDateBetween(LocalDate startDate, LocalDate endDate);
 }
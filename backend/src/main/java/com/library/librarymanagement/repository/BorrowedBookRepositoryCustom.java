@@ -0,0 +1,48 @@
+package com.library.librarymanagement.repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import com.library.librarymanagement.model.BorrowedBook;
+
+public interface BorrowedBookRepositoryCustom {
+
+    List<BorrowedBook> findAllWithRelationships();
+
+    List<BorrowedBook> findAllWithRelationships(FieldSelection fields);
+
+    List<BorrowedBook> findActiveWithRelationships();
+
+    List<BorrowedBook> findOverdueWithRelationships();
+
+    List<BorrowedBook> findByMemberIdWithRelationships(String memberId);
+
+    List<BorrowedBook> findByBookIdWithRelationships(String bookId);
+
+    List<BorrowedBook> findByBookIdInOrMemberIdInOrBorrowDateWithRelationships(Collection<String> bookIds,
+            Collection<String> memberIds, LocalDate borrowDate, FieldSelection fields);
+
+    List<BorrowedBook> findPageWithRelationships(Criteria criteria, Sort sort, int limit, FieldSelection fields);
+
+    Stream<BorrowedBook> streamAllWithRelationships();
+
+    long updateBookSnapshot(String bookId, String title, String isbn);
+
+    long updateMemberSnapshot(String memberId, String name, String email);
+
+    long backfillSnapshots();
+
+    MarkedLoans markOverdue(LocalDate dueFrom, LocalDate dueBefore);
+
+    MarkedLoans markReturned();
+
+    Optional<BorrowedBook> returnIfActive(String id, LocalDate returnDate);
+
+    long countOverdue();
+}
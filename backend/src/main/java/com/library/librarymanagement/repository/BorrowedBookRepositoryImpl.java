@@ -0,0 +1,250 @@
+package com.library.librarymanagement.repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.model.BorrowedBook;
+import com.library.librarymanagement.model.Member;
+
+public class BorrowedBookRepositoryImpl implements BorrowedBookRepositoryCustom {
+
+    private static final int BACKFILL_BATCH_SIZE = 1000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public List<BorrowedBook> findAllWithRelationships() {
+        return aggregate(new Criteria());
+    }
+
+    @Override
+    public List<BorrowedBook> findAllWithRelationships(FieldSelection fields) {
+        return aggregate(new Criteria(), null, null, fields);
+    }
+
+    @Override
+    public List<BorrowedBook> findActiveWithRelationships() {
+        return aggregate(Criteria.where("returnDate").is(null));
+    }
+
+    @Override
+    public List<BorrowedBook> findOverdueWithRelationships() {
+        return aggregate(overdue());
+    }
+
+    @Override
+    public List<BorrowedBook> findByMemberIdWithRelationships(String memberId) {
+        if (!ObjectId.isValid(memberId)) {
+            return new ArrayList<>();
+        }
+        return aggregate(Criteria.where("member.$id").is(new ObjectId(memberId)));
+    }
+
+    @Override
+    public List<BorrowedBook> findByBookIdWithRelationships(String bookId) {
+        if (!ObjectId.isValid(bookId)) {
+            return new ArrayList<>();
+        }
+        return aggregate(Criteria.where("book.$id").is(new ObjectId(bookId)));
+    }
+
+    @Override
+    public List<BorrowedBook> findByBookIdInOrMemberIdInOrBorrowDateWithRelationships(Collection<String> bookIds,
+            Collection<String> memberIds, LocalDate borrowDate, FieldSelection fields) {
+        if (bookIds.isEmpty() && memberIds.isEmpty() && borrowDate == null) {
+            return new ArrayList<>();
+        }
+        return aggregate(bookMemberOrBorrowDate(bookIds, memberIds, borrowDate), null, null, fields);
+    }
+
+    @Override
+    public List<BorrowedBook> findPageWithRelationships(Criteria criteria, Sort sort, int limit,
+            FieldSelection fields) {
+        return aggregate(criteria, sort, limit, fields);
+    }
+
+    @Override
+    public Stream<BorrowedBook> streamAllWithRelationships() {
+        // Iterates the aggregation cursor batch by batch instead of materializing the result
+        return mongoTemplate.aggregateStream(
+                RelationshipPipelines.borrowedBooks(new Criteria(), null, null, FieldSelection.ALL), BorrowedBook.class);
+    }
+
+    // Rewrites the snapshot on every loan of the book; loans already in sync are not touched
+    @Override
+    public long updateBookSnapshot(String bookId, String title, String isbn) {
+        return updateSnapshot("book.$id", bookId, "bookTitle", title, "bookIsbn", isbn);
+    }
+
+    @Override
+    public long updateMemberSnapshot(String memberId, String name, String email) {
+        return updateSnapshot("member.$id", memberId, "memberName", name, "memberEmail", email);
+    }
+
+    // Fills the snapshot of loans written before it existed, from the same $lookup pipeline the
+    // lists use, in unordered bulk batches
+    @Override
+    public long backfillSnapshots() {
+        long updated = 0;
+        Criteria missing = new Criteria().orOperator(
+                Criteria.where("bookTitle").exists(false),
+                Criteria.where("memberName").exists(false));
+        try (Stream<BorrowedBook> loans = mongoTemplate.aggregateStream(
+                RelationshipPipelines.borrowedBooks(missing, null, null, FieldSelection.ALL), BorrowedBook.class)) {
+            BulkOperations bulk = null;
+            int batched = 0;
+            Iterator<BorrowedBook> iterator = loans.iterator();
+            while (iterator.hasNext()) {
+                BorrowedBook loan = iterator.next();
+                Update update = new Update();
+                if (loan.getBook() != null) {
+                    update.set("bookTitle", loan.getBook().getTitle()).set("bookIsbn", loan.getBook().getIsbn());
+                }
+                if (loan.getMember() != null) {
+                    update.set("memberName", loan.getMember().getName())
+                            .set("memberEmail", loan.getMember().getEmail());
+                }
+                if (update.getUpdateObject().isEmpty()) {
+                    continue;
+                }
+                if (bulk == null) {
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, BorrowedBook.class);
+                }
+                bulk.updateOne(new Query(Criteria.where("id").is(loan.getId())), update);
+                if (++batched == BACKFILL_BATCH_SIZE) {
+                    updated += bulk.execute().getModifiedCount();
+                    bulk = null;
+                    batched = 0;
+                }
+            }
+            if (bulk != null) {
+                updated += bulk.execute().getModifiedCount();
+            }
+        }
+        return updated;
+    }
+
+    // Active loans whose due date falls in [dueFrom, dueBefore) and that are not flagged yet, in one
+    // updateMulti on the active_due_date index; a null dueFrom catches up on everything before dueBefore
+    @Override
+    public MarkedLoans markOverdue(LocalDate dueFrom, LocalDate dueBefore) {
+        Criteria dueDate = Criteria.where("dueDate").lt(dueBefore);
+        if (dueFrom != null) {
+            dueDate.gte(dueFrom);
+        }
+        return mark(new Criteria().andOperator(
+                Criteria.where("returnDate").is(null),
+                dueDate,
+                Criteria.where("status").ne(BorrowedBook.OVERDUE)), BorrowedBook.OVERDUE);
+    }
+
+    // Loans returned before returnBook set the status still read BORROWED (or OVERDUE)
+    @Override
+    public MarkedLoans markReturned() {
+        return mark(Criteria.where("status").in(BorrowedBook.BORROWED, BorrowedBook.OVERDUE, null)
+                .and("returnDate").ne(null), BorrowedBook.RETURNED);
+    }
+
+    // Flips an active loan to RETURNED in one findAndModify on {_id, returnDate: null}; of concurrent
+    // returns of the same loan exactly one matches. Empty when the loan is missing or already returned,
+    // otherwise the loan as it was before the update.
+    @Override
+    public Optional<BorrowedBook> returnIfActive(String id, LocalDate returnDate) {
+        Query query = new Query(Criteria.where("id").is(id).and("returnDate").is(null));
+        Update update = new Update().set("returnDate", returnDate).set("status", BorrowedBook.RETURNED);
+        return Optional.ofNullable(mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(false), BorrowedBook.class));
+    }
+
+    // Reads the matching loans' references first, then updates only those loans, so the books and
+    // members reported are exactly the ones whose listed loans changed
+    private MarkedLoans mark(Criteria criteria, String status) {
+        Query query = new Query(criteria);
+        query.fields().include("book").include("member");
+        List<String> loanIds = new ArrayList<>();
+        Set<String> bookIds = new HashSet<>();
+        Set<String> memberIds = new HashSet<>();
+        try (Stream<BorrowedBook> loans = mongoTemplate.stream(query, BorrowedBook.class)) {
+            loans.forEach(loan -> {
+                loanIds.add(loan.getId());
+                addIfPresent(bookIds, DbRefs.idOf(loan.getBook(), Book::getId));
+                addIfPresent(memberIds, DbRefs.idOf(loan.getMember(), Member::getId));
+            });
+        }
+        if (loanIds.isEmpty()) {
+            return new MarkedLoans(0, bookIds, memberIds);
+        }
+        Query update = new Query(new Criteria().andOperator(criteria, Criteria.where("id").in(loanIds)));
+        long modified = mongoTemplate.updateMulti(update, new Update().set("status", status), BorrowedBook.class)
+                .getModifiedCount();
+        return new MarkedLoans(modified, bookIds, memberIds);
+    }
+
+    private static void addIfPresent(Set<String> ids, String id) {
+        if (id != null) {
+            ids.add(id);
+        }
+    }
+
+    @Override
+    public long countOverdue() {
+        return mongoTemplate.count(new Query(overdue()), BorrowedBook.class);
+    }
+
+    private static Criteria overdue() {
+        return Criteria.where("status").is(BorrowedBook.OVERDUE).and("returnDate").is(null);
+    }
+
+    private long updateSnapshot(String refField, String id, String firstField, String firstValue,
+            String secondField, String secondValue) {
+        if (!ObjectId.isValid(id)) {
+            return 0;
+        }
+        Query query = new Query(new Criteria().andOperator(
+                Criteria.where(refField).is(new ObjectId(id)),
+                new Criteria().orOperator(
+                        Criteria.where(firstField).ne(firstValue),
+                        Criteria.where(secondField).ne(secondValue))));
+        Update update = new Update().set(firstField, firstValue).set(secondField, secondValue);
+        return mongoTemplate.updateMulti(query, update, BorrowedBook.class).getModifiedCount();
+    }
+
+    private static Criteria bookMemberOrBorrowDate(Collection<String> bookIds, Collection<String> memberIds,
+            LocalDate borrowDate) {
+        List<Criteria> any = new ArrayList<>(List.of(Criteria.where("book.$id").in(DbRefs.objectIds(bookIds)),
+                Criteria.where("member.$id").in(DbRefs.objectIds(memberIds))));
+        if (borrowDate != null) {
+            any.add(Criteria.where("borrowDate").is(borrowDate));
+        }
+        return new Criteria().orOperator(any);
+    }
+
+    private List<BorrowedBook> aggregate(Criteria criteria) {
+        return aggregate(criteria, null, null, FieldSelection.ALL);
+    }
+
+    private List<BorrowedBook> aggregate(Criteria criteria, Sort sort, Integer limit, FieldSelection fields) {
+        // Book and member are resolved by $lookup (see RelationshipPipelines)
+        return mongoTemplate.aggregate(RelationshipPipelines.borrowedBooks(criteria, sort, limit, fields),
+                BorrowedBook.class).getMappedResults();
+    }
+}
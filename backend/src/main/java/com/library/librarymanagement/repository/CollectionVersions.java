@@ -0,0 +1,95 @@
+package com.library.librarymanagement.repository;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+
+// A per-collection write counter, so an unpaged list is tagged without reading the collection. Every
+// write command this instance's client completes moves the counter of its collection, whichever code
+// path issued it; ChangeStreamSubscriber moves it for writes made elsewhere. The counters start over
+// with each instance, so tags carry an instance epoch and never repeat across restarts or instances.
+@Component
+public class CollectionVersions implements CommandListener, MongoClientSettingsBuilderCustomizer {
+
+    private static final Set<String> WRITE_COMMANDS = Set.of("insert", "update", "delete", "findAndModify");
+
+    private final String epoch = UUID.randomUUID().toString().substring(0, 8);
+    private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+    private final Map<Integer, String> collectionsByRequestId = new ConcurrentHashMap<>();
+
+    @Override
+    public void customize(MongoClientSettings.Builder builder) {
+        builder.addCommandListener(this);
+    }
+
+    public String tag(String collection) {
+        return epoch + "-" + counter(collection).get();
+    }
+
+    public void changed(String collection) {
+        counter(collection).incrementAndGet();
+    }
+
+    // Drops, renames and invalidated change streams: any collection may have changed
+    public void changedAll() {
+        counters.values().forEach(AtomicLong::incrementAndGet);
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (WRITE_COMMANDS.contains(event.getCommandName())) {
+            BsonValue collection = event.getCommand().get(event.getCommandName());
+            if (collection != null && collection.isString()) {
+                collectionsByRequestId.put(event.getRequestId(), collection.asString().getValue());
+            }
+        }
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        String collection = collectionsByRequestId.remove(event.getRequestId());
+        if (collection != null && wrote(event.getCommandName(), event.getResponse())) {
+            changed(collection);
+        }
+    }
+
+    // A failed command may still have written part of a batch
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        String collection = collectionsByRequestId.remove(event.getRequestId());
+        if (collection != null) {
+            changed(collection);
+        }
+    }
+
+    private AtomicLong counter(String collection) {
+        return counters.computeIfAbsent(collection, name -> new AtomicLong());
+    }
+
+    // Conditional updates that matched nothing, such as a borrow with no copy left, leave tags alone.
+    // Upserts report n without nModified.
+    private static boolean wrote(String command, BsonDocument response) {
+        if ("findAndModify".equals(command)) {
+            BsonDocument lastError = response.getDocument("lastErrorObject", null);
+            return lastError == null || !lastError.containsKey("n") || lastError.getNumber("n").longValue() > 0;
+        }
+        if ("update".equals(command) && response.containsKey("nModified")
+                && !response.containsKey("upserted")) {
+            return response.getNumber("nModified").longValue() > 0;
+        }
+        return !response.containsKey("n") || response.getNumber("n").longValue() > 0;
+    }
+}
@@ -0,0 +1,25 @@
+package com.library.librarymanagement.repository;
+
+import java.util.List;
+
+public class CursorPage<T> {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private final List<T> items;
+    private final String nextCursor;
+
+    public CursorPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    // Null when this is the last page
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
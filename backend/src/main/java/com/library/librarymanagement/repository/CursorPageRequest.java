@@ -0,0 +1,32 @@
+package com.library.librarymanagement.repository;
+
+public class CursorPageRequest {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 500;
+
+    private final int limit;
+    private final String after;
+    private final String sort;
+
+    public CursorPageRequest(Integer limit, String after, String sort) {
+        if (limit != null && (limit < 1 || limit > MAX_LIMIT)) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        this.limit = limit != null ? limit : DEFAULT_LIMIT;
+        this.after = after != null && !after.isBlank() ? after : null;
+        this.sort = sort != null && !sort.isBlank() ? sort.trim() : null;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public String getAfter() {
+        return after;
+    }
+
+    public String getSort() {
+        return sort;
+    }
+}
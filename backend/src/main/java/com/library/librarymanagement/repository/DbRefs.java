@@ -0,0 +1,40 @@
+package com.library.librarymanagement.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.convert.LazyLoadingProxy;
+
+import com.mongodb.DBRef;
+
+public final class DbRefs {
+
+    private DbRefs() {
+    }
+
+    // Reads the referenced id without resolving a lazy DBRef proxy
+    public static <T> String idOf(T entity, Function<T, String> idGetter) {
+        if (entity == null) {
+            return null;
+        }
+        if (entity instanceof LazyLoadingProxy proxy) {
+            DBRef dbRef = proxy.toDBRef();
+            return dbRef != null && dbRef.getId() != null ? dbRef.getId().toString() : null;
+        }
+        return idGetter.apply(entity);
+    }
+
+    // DBRef ids are stored as ObjectIds, so raw $in queries on '<field>.$id' need them converted
+    public static List<ObjectId> objectIds(Collection<String> ids) {
+        List<ObjectId> objectIds = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            if (ObjectId.isValid(id)) {
+                objectIds.add(new ObjectId(id));
+            }
+        }
+        return objectIds;
+    }
+}
@@ -0,0 +1,104 @@
+package com.library.librarymanagement.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+// Reads and bumps @Version values without loading whole documents. ETags are built from these, so a
+// conditional GET can be answered before any relationship is resolved.
+@Component
+public class EntityVersions {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private CollectionVersions collectionVersions;
+
+    // Empty when the document does not exist; documents written before versioning count as 0
+    public Optional<Long> versionOf(Class<?> type, String id) {
+        Query query = new Query(Criteria.where("id").is(id));
+        query.fields().include("version");
+        return mongoTemplate.query(type).as(Document.class).matching(query).one().map(EntityVersions::version);
+    }
+
+    // The whole collection is tagged by its write counter: a revalidation reads nothing
+    public String fingerprint(Class<?> type) {
+        return collectionVersions.tag(mongoTemplate.getCollectionName(type));
+    }
+
+    // Digest of the ids and versions of one keyset page; the same seek, sort and limit as the page
+    // itself, but only _id and version are read
+    public <T> String fingerprint(Class<T> type, Criteria filter, CursorPageRequest request,
+            Set<String> sortableFields) {
+        KeysetQuery<T> keyset = new KeysetQuery<>(mongoTemplate.getConverter(), type, filter, request, sortableFields);
+        Query query = new Query(keyset.getCriteria()).with(keyset.getSort()).limit(keyset.getFetchLimit());
+        return fingerprint(type, query);
+    }
+
+    // Marks a document as changed when something it lists, such as its loans, changes
+    public void touch(Class<?> type, String id) {
+        mongoTemplate.updateFirst(new Query(Criteria.where("id").is(id)), new Update().inc("version", 1), type);
+    }
+
+    public void touchAll(Class<?> type, Criteria criteria) {
+        mongoTemplate.updateMulti(new Query(criteria), new Update().inc("version", 1), type);
+    }
+
+    // Documents written before versioning have no version, and Spring Data would treat them as new on
+    // save; they start at 0
+    public long backfill(Class<?> type) {
+        return mongoTemplate.updateMulti(new Query(Criteria.where("version").exists(false)),
+                new Update().set("version", 0L), type).getModifiedCount();
+    }
+
+    // The same digest for documents read with _id and version only, in page order; the reactive
+    // controllers tag their pages with it
+    public static String fingerprint(Iterable<Document> documents) {
+        MessageDigest digest = sha256();
+        documents.forEach(document -> update(digest, document));
+        return hex(digest);
+    }
+
+    private String fingerprint(Class<?> type, Query query) {
+        query.fields().include("version");
+        MessageDigest digest = sha256();
+        try (Stream<Document> documents = mongoTemplate.query(type).as(Document.class).matching(query).stream()) {
+            documents.forEach(document -> update(digest, document));
+        }
+        return hex(digest);
+    }
+
+    private static void update(MessageDigest digest, Document document) {
+        digest.update((document.get("_id") + ":" + version(document) + ",").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String hex(MessageDigest digest) {
+        return HexFormat.of().formatHex(digest.digest(), 0, 16);
+    }
+
+    private static long version(Document document) {
+        Object version = document.get("version");
+        return version instanceof Number number ? number.longValue() : 0L;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
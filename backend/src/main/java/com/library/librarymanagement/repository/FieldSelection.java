@@ -0,0 +1,65 @@
+package com.library.librarymanagement.repository;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.springframework.data.mongodb.core.query.Query;
+
+// Parsed ?fields= parameter: the top-level properties a caller wants back. The id is always included.
+public class FieldSelection {
+
+    public static final FieldSelection ALL = new FieldSelection(null);
+
+    private final Set<String> fields;
+
+    private FieldSelection(Set<String> fields) {
+        this.fields = fields;
+    }
+
+    public static FieldSelection parse(String fields, Set<String> allowed) {
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+        Set<String> selected = new LinkedHashSet<>();
+        selected.add("id");
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!allowed.contains(name)) {
+                throw new IllegalArgumentException("Unknown field '" + name + "', allowed: " + allowed);
+            }
+            selected.add(name);
+        }
+        return new FieldSelection(selected);
+    }
+
+    public boolean isAll() {
+        return fields == null;
+    }
+
+    public boolean includes(String field) {
+        return fields == null || fields.contains(field);
+    }
+
+    public Set<String> getFields() {
+        return fields == null ? Collections.emptySet() : Collections.unmodifiableSet(fields);
+    }
+
+    // Pushes the selection down as a projection; extra fields are ones the caller needs internally,
+    // such as the sort field a cursor is built from
+    public Query applyTo(Query query, String... extraFields) {
+        if (fields == null) {
+            return query;
+        }
+        for (String field : fields) {
+            query.fields().include(field);
+        }
+        for (String field : extraFields) {
+            query.fields().include(field);
+        }
+        return query;
+    }
+}
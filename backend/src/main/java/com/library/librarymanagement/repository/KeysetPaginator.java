@@ -0,0 +1,46 @@
+package com.library.librarymanagement.repository;
+
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+// Keyset (seek) pagination over a sort field with _id as the tie breaker. The cursor encodes the sort
+// value and id of the last item of a page, so each page is a range scan instead of a skip.
+@Component
+public class KeysetPaginator {
+
+    @FunctionalInterface
+    public interface PageQuery<T> {
+        List<T> fetch(Criteria criteria, Sort sort, int limit);
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    public <T> CursorPage<T> find(Class<T> type, Criteria filter, CursorPageRequest request,
+            Set<String> sortableFields) {
+        return find(type, filter, request, sortableFields, FieldSelection.ALL);
+    }
+
+    // The sort property stays in the projection even when not selected, since the cursor is built from it
+    public <T> CursorPage<T> find(Class<T> type, Criteria filter, CursorPageRequest request,
+            Set<String> sortableFields, FieldSelection fields) {
+        KeysetQuery<T> keyset = new KeysetQuery<>(mongoTemplate.getConverter(), type, filter, request, sortableFields);
+        Query query = fields.applyTo(new Query(keyset.getCriteria()), keyset.getSortProperty())
+                .with(keyset.getSort())
+                .limit(keyset.getFetchLimit());
+        return keyset.toPage(mongoTemplate.find(query, type));
+    }
+
+    public <T> CursorPage<T> find(Class<T> type, Criteria filter, CursorPageRequest request,
+            Set<String> sortableFields, PageQuery<T> query) {
+        KeysetQuery<T> keyset = new KeysetQuery<>(mongoTemplate.getConverter(), type, filter, request, sortableFields);
+        return keyset.toPage(query.fetch(keyset.getCriteria(), keyset.getSort(), keyset.getFetchLimit()));
+    }
+}
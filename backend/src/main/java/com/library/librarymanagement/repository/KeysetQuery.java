@@ -0,0 +1,140 @@
+package com.library.librarymanagement.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.PersistentPropertyAccessor;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+// One keyset page: the range criteria, sort and limit to fetch with, and the cursor of the next page
+// built from what was fetched. Independent of how the page is fetched, so the blocking
+// KeysetPaginator and the reactive controllers share the cursor format.
+public class KeysetQuery<T> {
+
+    private final MongoConverter converter;
+    private final MongoPersistentEntity<?> entity;
+    private final CursorPageRequest request;
+    private final String sortSpec;
+    private final MongoPersistentProperty sortProperty;
+    private final Criteria criteria;
+    private final Sort sort;
+
+    public KeysetQuery(MongoConverter converter, Class<T> type, Criteria filter, CursorPageRequest request,
+            Set<String> sortableFields) {
+        this.converter = converter;
+        this.entity = converter.getMappingContext().getRequiredPersistentEntity(type);
+        this.request = request;
+
+        sortSpec = request.getSort() != null ? request.getSort() : "id";
+        boolean descending = sortSpec.startsWith("-");
+        String propertyName = descending ? sortSpec.substring(1) : sortSpec;
+        if (!sortableFields.contains(propertyName)) {
+            throw new IllegalArgumentException("Cannot sort by '" + propertyName + "', allowed: " + sortableFields);
+        }
+        sortProperty = entity.getRequiredPersistentProperty(propertyName);
+        String field = sortProperty.getFieldName();
+        Sort.Direction direction = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+
+        sort = sortProperty.isIdProperty()
+                ? Sort.by(direction, "_id")
+                : Sort.by(direction, field).and(Sort.by(direction, "_id"));
+
+        if (request.getAfter() != null) {
+            Document cursor = decode(request.getAfter(), sortSpec);
+            criteria = new Criteria().andOperator(filter,
+                    seek(field, sortProperty.isIdProperty(), descending, cursor.get("v"), cursor.get("id")));
+        } else {
+            criteria = filter;
+        }
+    }
+
+    public Criteria getCriteria() {
+        return criteria;
+    }
+
+    public Sort getSort() {
+        return sort;
+    }
+
+    // One more than the page size, to tell whether another page follows
+    public int getFetchLimit() {
+        return request.getLimit() + 1;
+    }
+
+    // The sort property has to stay in any projection, since the cursor is built from it
+    public String getSortProperty() {
+        return sortProperty.getName();
+    }
+
+    public CursorPage<T> toPage(List<T> fetched) {
+        if (fetched.size() <= request.getLimit()) {
+            return new CursorPage<>(fetched, null);
+        }
+
+        List<T> items = new ArrayList<>(fetched.subList(0, request.getLimit()));
+        T last = items.get(items.size() - 1);
+        PersistentPropertyAccessor<T> accessor = entity.getPropertyAccessor(last);
+        Object id = accessor.getProperty(entity.getRequiredIdProperty());
+        Object value = sortProperty.isIdProperty() ? null : accessor.getProperty(sortProperty);
+        return new CursorPage<>(items, encode(sortSpec, converter.convertToMongoType(value), toMongoId(id)));
+    }
+
+    // Everything strictly after (value, id) in sort order. Nulls sort first ascending and last descending.
+    private static Criteria seek(String field, boolean idSort, boolean descending, Object value, Object id) {
+        if (idSort) {
+            return descending ? Criteria.where("_id").lt(id) : Criteria.where("_id").gt(id);
+        }
+        if (!descending) {
+            if (value == null) {
+                return new Criteria().orOperator(
+                        Criteria.where(field).is(null).and("_id").gt(id),
+                        Criteria.where(field).ne(null));
+            }
+            return new Criteria().orOperator(
+                    Criteria.where(field).gt(value),
+                    Criteria.where(field).is(value).and("_id").gt(id));
+        }
+        if (value == null) {
+            return Criteria.where(field).is(null).and("_id").lt(id);
+        }
+        return new Criteria().orOperator(
+                Criteria.where(field).lt(value),
+                Criteria.where(field).is(value).and("_id").lt(id),
+                Criteria.where(field).is(null));
+    }
+
+    private static Object toMongoId(Object id) {
+        if (id instanceof String stringId && ObjectId.isValid(stringId)) {
+            return new ObjectId(stringId);
+        }
+        return id;
+    }
+
+    private static String encode(String sortSpec, Object value, Object id) {
+        Document cursor = new Document("s", sortSpec).append("v", value).append("id", id);
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(cursor.toJson().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Document decode(String after, String sortSpec) {
+        Document cursor;
+        try {
+            cursor = Document.parse(new String(Base64.getUrlDecoder().decode(after), StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (!sortSpec.equals(cursor.getString("s")) || !cursor.containsKey("id")) {
+            throw new IllegalArgumentException("Cursor does not match sort '" + sortSpec + "'");
+        }
+        return cursor;
+    }
+}
@@ -0,0 +1,29 @@
+package com.library.librarymanagement.repository;
+
+import java.util.Set;
+
+// Outcome of a status sweep: how many loans changed, and the books and members that list them
+public class MarkedLoans {
+
+    private final long modified;
+    private final Set<String> bookIds;
+    private final Set<String> memberIds;
+
+    public MarkedLoans(long modified, Set<String> bookIds, Set<String> memberIds) {
+        this.modified = modified;
+        this.bookIds = bookIds;
+        this.memberIds = memberIds;
+    }
+
+    public long getModified() {
+        return modified;
+    }
+
+    public Set<String> getBookIds() {
+        return bookIds;
+    }
+
+    public Set<String> getMemberIds() {
+        return memberIds;
+    }
+}
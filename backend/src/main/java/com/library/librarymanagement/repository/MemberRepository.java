@@ -2,6 +2,7 @@ package com.library.librarymanagement.repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
@@ -16,9 +17,9 @@ public interface MemberRepository extends MongoRepository<Member, String> {
 
     List<Member> findByNameContainingIgnoreCase(String name);
 
-    @Query("{ $or: [ { 'name': { $regex: ?0, $options: 'i' } }, { 'email': { $regex: ?1, $options: 'i' } }, { 'phone': { $regex: ?2 } } ] }")
-    List<Member> findByNameContainingIgnoreCaseOrEmailContainingIgnoreCaseOrPhoneContaining(
-            String name, String email, String phone);
+    // Cursor-backed export; borrowedBooks is a back reference and is left out
+    @Query(value = "{}", fields = "{ 'borrowedBooks': 0 }")
+    Stream<Member> streamAllBy();
 
     @Query("{ 'id' : ?0 }")
     Optional<Member> findByIdWithBorrowedBooks(String id);
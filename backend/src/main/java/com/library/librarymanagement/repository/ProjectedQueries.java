@@ -0,0 +1,37 @@
+package com.library.librarymanagement.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+// findAll/findById with a field selection pushed down as a Mongo projection
+@Component
+public class ProjectedQueries {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    public <T> List<T> findAll(Class<T> type, FieldSelection fields) {
+        return mongoTemplate.find(fields.applyTo(new Query()), type);
+    }
+
+    public <T> List<T> findAllById(Class<T> type, Iterable<String> ids, FieldSelection fields) {
+        return mongoTemplate.find(fields.applyTo(new Query(Criteria.where("id").in(toList(ids)))), type);
+    }
+
+    public <T> Optional<T> findById(Class<T> type, String id, FieldSelection fields) {
+        return Optional.ofNullable(mongoTemplate.findOne(fields.applyTo(new Query(Criteria.where("id").is(id))), type));
+    }
+
+    private static List<String> toList(Iterable<String> ids) {
+        List<String> list = new ArrayList<>();
+        ids.forEach(list::add);
+        return list;
+    }
+}
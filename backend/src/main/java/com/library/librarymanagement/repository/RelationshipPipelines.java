@@ -0,0 +1,144 @@
+package com.library.librarymanagement.repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.model.BorrowedBook;
+
+// Aggregations that resolve @DBRef relationships server side with $lookup, so a list is a single round
+// trip. The pre-resolved documents are mapped straight onto the @DBRef fields and never trigger DBRef
+// resolution, which the reactive driver does not support at all. Fields left out of the selection are
+// projected away, and their joins skipped.
+public final class RelationshipPipelines {
+
+    private static final List<String> BOOK_FIELDS = List.of("title", "category", "publishingYear", "isbn",
+            "totalCopies", "availableCopies", "version");
+
+    private static final List<String> BORROWED_BOOK_FIELDS = List.of("borrowDate", "returnDate", "dueDate",
+            "status", "bookTitle", "bookIsbn", "memberName", "memberEmail", "version");
+
+    private RelationshipPipelines() {
+    }
+
+    // Books with their author and borrow history; the loans' own book and member references are dropped,
+    // as the book serialization ignores them anyway
+    public static TypedAggregation<Book> books(Criteria criteria, Sort sort, Integer limit, FieldSelection fields,
+            String... extraFields) {
+        List<AggregationOperation> operations = matchSortLimit(criteria, sort, limit);
+
+        Document projection = new Document("_id", 1);
+        for (String field : BOOK_FIELDS) {
+            if (fields.includes(field) || List.of(extraFields).contains(field)) {
+                projection.append(field, 1);
+            }
+        }
+        if (fields.includes("author")) {
+            operations.add(lookup("authors", "author.$id", "_id", "author"));
+            operations.add(unwind("$author"));
+            projection
+                    .append("author._id", 1)
+                    .append("author.version", 1)
+                    .append("author.name", 1)
+                    .append("author.biography", 1)
+                    .append("author.nationality", 1);
+        }
+        boolean withBorrowedBooks = fields.includes("borrowedBooks");
+        if (withBorrowedBooks) {
+            operations.add(lookup("borrowed_books", "_id", "book.$id", "borrowedBooks"));
+            projection.append("borrowedBooks", 1);
+        }
+        operations.add(context -> new Document("$project", projection));
+        if (withBorrowedBooks) {
+            operations.add(context -> new Document("$project", new Document()
+                    .append("borrowedBooks.book", 0)
+                    .append("borrowedBooks.member", 0)));
+            // An empty array on a @DBRef list still goes through DBRef resolution when mapped, so books
+            // without loans get null instead (see ReactiveBookRepositoryImpl)
+            operations.add(context -> new Document("$addFields", new Document("borrowedBooks",
+                    new Document("$cond", Arrays.asList(
+                            new Document("$eq", List.of(new Document("$size", "$borrowedBooks"), 0)),
+                            null,
+                            "$borrowedBooks")))));
+        }
+
+        return Aggregation.newAggregation(Book.class, operations);
+    }
+
+    // Loans with their book (and its author) and member
+    public static TypedAggregation<BorrowedBook> borrowedBooks(Criteria criteria, Sort sort, Integer limit,
+            FieldSelection fields) {
+        List<AggregationOperation> operations = matchSortLimit(criteria, sort, limit);
+
+        Document projection = new Document("_id", 1);
+        for (String field : BORROWED_BOOK_FIELDS) {
+            if (fields.includes(field)) {
+                projection.append(field, 1);
+            }
+        }
+        if (fields.includes("book")) {
+            operations.add(lookup("books", "book.$id", "_id", "book"));
+            operations.add(unwind("$book"));
+            operations.add(lookup("authors", "book.author.$id", "_id", "author"));
+            operations.add(unwind("$author"));
+            projection
+                    .append("book._id", 1)
+                    .append("book.version", 1)
+                    .append("book.title", 1)
+                    .append("book.isbn", 1)
+                    .append("book.category", 1)
+                    .append("book.availableCopies", 1)
+                    .append("book.totalCopies", 1)
+                    .append("book.author._id", "$author._id")
+                    .append("book.author.version", "$author.version")
+                    .append("book.author.name", "$author.name");
+        }
+        if (fields.includes("member")) {
+            operations.add(lookup("members", "member.$id", "_id", "member"));
+            operations.add(unwind("$member"));
+            projection
+                    .append("member._id", 1)
+                    .append("member.version", 1)
+                    .append("member.name", 1)
+                    .append("member.email", 1)
+                    .append("member.phone", 1);
+        }
+        operations.add(context -> new Document("$project", projection));
+
+        return Aggregation.newAggregation(BorrowedBook.class, operations);
+    }
+
+    // Sort and limit before the joins so only the requested page is looked up
+    private static List<AggregationOperation> matchSortLimit(Criteria criteria, Sort sort, Integer limit) {
+        List<AggregationOperation> operations = new ArrayList<>();
+        operations.add(Aggregation.match(criteria));
+        if (sort != null && sort.isSorted()) {
+            operations.add(Aggregation.sort(sort));
+        }
+        if (limit != null) {
+            operations.add(Aggregation.limit(limit));
+        }
+        return operations;
+    }
+
+    private static AggregationOperation lookup(String from, String localField, String foreignField, String as) {
+        return context -> new Document("$lookup", new Document("from", from)
+                .append("localField", localField)
+                .append("foreignField", foreignField)
+                .append("as", as));
+    }
+
+    // Keeps documents whose referenced document no longer exists, as populateRelationships did
+    private static AggregationOperation unwind(String path) {
+        return context -> new Document("$unwind", new Document("path", path)
+                .append("preserveNullAndEmptyArrays", true));
+    }
+}
@@ -0,0 +1,107 @@
+package com.library.librarymanagement.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+// Thread-safe in-memory inverted index. Postings are keyed by "field\0term" in a sorted map, so a
+// prefix lookup is a range scan over the term dictionary. Writes are serialized, reads are lock free.
+public class InvertedIndex {
+
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final char FIELD_SEPARATOR = '\0';
+
+    private final NavigableMap<String, Set<String>> postings = new ConcurrentSkipListMap<>();
+    private final Map<String, List<String>> keysByDocument = new ConcurrentHashMap<>();
+
+    public synchronized void index(String id, Map<String, String> fields) {
+        remove(id);
+        List<String> keys = new ArrayList<>();
+        fields.forEach((field, text) -> {
+            for (String term : new HashSet<>(tokenize(text))) {
+                String key = field + FIELD_SEPARATOR + term;
+                postings.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(id);
+                keys.add(key);
+            }
+        });
+        keysByDocument.put(id, keys);
+    }
+
+    public synchronized void remove(String id) {
+        List<String> keys = keysByDocument.remove(id);
+        if (keys == null) {
+            return;
+        }
+        for (String key : keys) {
+            Set<String> ids = postings.get(key);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    postings.remove(key);
+                }
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        postings.clear();
+        keysByDocument.clear();
+    }
+
+    // Every query token must prefix-match a term in at least one of the given fields. A query
+    // without tokens (blank or punctuation only) matches nothing rather than dumping every document.
+    public Set<String> search(String query, String... fields) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        Set<String> result = null;
+        for (String token : new HashSet<>(tokens)) {
+            Set<String> matches = new HashSet<>();
+            for (String field : fields) {
+                String from = field + FIELD_SEPARATOR + token;
+                for (Set<String> ids : postings.subMap(from, true, from + Character.MAX_VALUE, true).values()) {
+                    matches.addAll(ids);
+                }
+            }
+            if (result == null) {
+                result = matches;
+            } else {
+                result.retainAll(matches);
+            }
+            if (result.isEmpty()) {
+                return Collections.emptySet();
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return keysByDocument.size();
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return tokens;
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase();
+        for (String token : NON_ALPHANUMERIC.split(normalized)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,161 @@
+package com.library.librarymanagement.search;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.convert.LazyLoadingProxy;
+import org.springframework.stereotype.Service;
+
+import com.library.librarymanagement.cache.EntityCaches;
+import com.library.librarymanagement.model.Author;
+import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.model.Member;
+import com.library.librarymanagement.repository.AuthorRepository;
+import com.library.librarymanagement.repository.BookRepository;
+import com.library.librarymanagement.repository.DbRefs;
+import com.library.librarymanagement.repository.MemberRepository;
+
+// Keyword search over books, authors and members, served from memory instead of unanchored $regex
+// scans. Built once the application is ready (after DataInitializer) and kept current by the
+// services on every save and delete.
+@Service
+public class SearchIndexService {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchIndexService.class);
+
+    private final InvertedIndex books = new InvertedIndex();
+    private final InvertedIndex authors = new InvertedIndex();
+    private final InvertedIndex members = new InvertedIndex();
+
+    @Autowired
+    private EntityCaches entityCaches;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        books.clear();
+        authors.clear();
+        members.clear();
+
+        try (Stream<Book> stream = bookRepository.streamAllWithAuthor()) {
+            stream.forEach(book -> indexBook(book, book.getAuthor() != null ? book.getAuthor().getName() : null));
+        }
+        authorRepository.findAll().forEach(this::indexAuthor);
+        try (Stream<Member> stream = memberRepository.streamAllBy()) {
+            stream.forEach(this::indexMember);
+        }
+
+        log.info("Search index built in {} ms: {} books, {} authors, {} members",
+                System.currentTimeMillis() - start, books.size(), authors.size(), members.size());
+    }
+
+    // Request bodies only carry the author id, so the name is looked up when it is missing
+    public void indexBook(Book book) {
+        String authorId = DbRefs.idOf(book.getAuthor(), Author::getId);
+        String authorName = null;
+        if (authorId != null) {
+            authorName = book.getAuthor() instanceof LazyLoadingProxy || book.getAuthor().getName() == null
+                    ? entityCaches.authors().get(authorId, authorRepository::findById).map(Author::getName).orElse(null)
+                    : book.getAuthor().getName();
+        }
+        indexBook(book, authorName);
+    }
+
+    public void indexBook(Book book, String authorName) {
+        Map<String, String> fields = new HashMap<>();
+        fields.put("title", book.getTitle());
+        fields.put("category", book.getCategory());
+        fields.put("author", authorName);
+        books.index(book.getId(), fields);
+    }
+
+    public void removeBook(String id) {
+        books.remove(id);
+    }
+
+    public void indexAuthor(Author author) {
+        Map<String, String> fields = new HashMap<>();
+        fields.put("name", author.getName());
+        fields.put("nationality", author.getNationality());
+        authors.index(author.getId(), fields);
+    }
+
+    // Books carry their author's name, so a renamed author re-indexes its books too
+    public void indexAuthorWithBooks(Author author) {
+        indexAuthor(author);
+        for (Book book : bookRepository.findByAuthorId(author.getId())) {
+            indexBook(book, author.getName());
+        }
+    }
+
+    public void removeAuthor(String id) {
+        authors.remove(id);
+    }
+
+    public void indexMember(Member member) {
+        Map<String, String> fields = new HashMap<>();
+        fields.put("name", member.getName());
+        fields.put("email", member.getEmail());
+        fields.put("phone", phoneText(member.getPhone()));
+        members.index(member.getId(), fields);
+    }
+
+    public void removeMember(String id) {
+        members.remove(id);
+    }
+
+    public Set<String> searchBooks(String query) {
+        return books.search(query, "title", "category", "author");
+    }
+
+    public Set<String> searchBookTitles(String query) {
+        return books.search(query, "title");
+    }
+
+    public Set<String> searchAuthors(String query) {
+        return authors.search(query, "name", "nationality");
+    }
+
+    public Set<String> searchMembers(String query) {
+        return members.search(query, "name", "email", "phone");
+    }
+
+    public Set<String> searchMemberNames(String query) {
+        return members.search(query, "name");
+    }
+
+    // Loan searches also match the borrow date exactly when the query is an ISO date (2024-03-01)
+    public static LocalDate borrowDateOf(String query) {
+        try {
+            return query == null ? null : LocalDate.parse(query.trim());
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    // Also index the bare digits, so "5550101" finds "+1-555-0101"
+    private static String phoneText(String phone) {
+        if (phone == null) {
+            return null;
+        }
+        return phone + " " + phone.replaceAll("\\D", "");
+    }
+}
@@ -1,59 +1,130 @@
 package com.library.librarymanagement.service;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.stereotype.Service;
 
+import com.library.librarymanagement.cache.EntityCaches;
 import com.library.librarymanagement.model.Author;
 import com.library.librarymanagement.model.Book;
 import com.library.librarymanagement.repository.AuthorRepository;
 import com.library.librarymanagement.repository.BookRepository;
+import com.library.librarymanagement.repository.CursorPage;
+import com.library.librarymanagement.repository.CursorPageRequest;
+import com.library.librarymanagement.repository.EntityVersions;
+import com.library.librarymanagement.repository.FieldSelection;
+import com.library.librarymanagement.repository.KeysetPaginator;
+import com.library.librarymanagement.repository.ProjectedQueries;
+import com.library.librarymanagement.search.SearchIndexService;
 
 @Service
 public class AuthorService {
 
+    private static final Set<String> SORTABLE_FIELDS = Set.of("id", "name", "nationality");
+
+    private static final Set<String> FIELDS = Set.of("id", "name", "biography", "nationality", "books",
+            "version");
+
     @Autowired
     private AuthorRepository authorRepository;
 
     @Autowired
     private BookRepository bookRepository;
 
+    @Autowired
+    private KeysetPaginator keysetPaginator;
+
+    @Autowired
+    private ProjectedQueries projectedQueries;
+
+    @Autowired
+    private EntityCaches entityCaches;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private EntityVersions entityVersions;
+
     public List<Author> findAll() {
-        List<Author> authors = authorRepository.findAll();
+        return findAll(null);
+    }
+
+    public List<Author> findAll(String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, FIELDS);
+        List<Author> authors = projectedQueries.findAll(Author.class, selection);
         // Populate books for each author
-        for (Author author : authors) {
-            populateBooks(author);
-        }
+        populateBooks(authors, selection);
         return authors;
     }
 
+    public CursorPage<Author> findPage(CursorPageRequest request, String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, FIELDS);
+        CursorPage<Author> page = keysetPaginator.find(Author.class, new Criteria(), request, SORTABLE_FIELDS,
+                selection);
+        // Populate books for each author on the page
+        populateBooks(page.getItems(), selection);
+        return page;
+    }
+
     public Optional<Author> findById(String id) {
-        Optional<Author> authorOpt = authorRepository.findById(id);
+        return findById(id, null);
+    }
+
+    public Optional<Author> findById(String id, String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, FIELDS);
+        Optional<Author> authorOpt = projectedQueries.findById(Author.class, id, selection);
         if (authorOpt.isPresent()) {
             Author author = authorOpt.get();
-            populateBooks(author);
+            populateBooks(List.of(author), selection);
             return Optional.of(author);
         }
         return Optional.empty();
     }
 
+    public Optional<Long> findVersion(String id) {
+        return entityVersions.versionOf(Author.class, id);
+    }
+
+    public String fingerprint() {
+        return entityVersions.fingerprint(Author.class);
+    }
+
+    public String fingerprint(CursorPageRequest request) {
+        return entityVersions.fingerprint(Author.class, new Criteria(), request, SORTABLE_FIELDS);
+    }
+
     public Author save(Author author) {
-        return authorRepository.save(author);
+        boolean existing = author.getVersion() != null;
+        Author saved = authorRepository.save(author);
+        entityCaches.authors().invalidate(saved.getId());
+        if (existing && ObjectId.isValid(saved.getId())) {
+            // Books embed their author, so their versions move with it
+            entityVersions.touchAll(Book.class, Criteria.where("author.$id").is(new ObjectId(saved.getId())));
+        }
+        searchIndexService.indexAuthorWithBooks(saved);
+        return saved;
     }
 
     public void deleteById(String id) {
         authorRepository.deleteById(id);
+        entityCaches.authors().invalidate(id);
+        searchIndexService.removeAuthor(id);
     }
 
-    public List<Author> searchAuthors(String keyword) {
-        List<Author> authors = authorRepository.findByNameContainingIgnoreCaseOrNationalityContainingIgnoreCase(keyword,
-                keyword);
+    public List<Author> searchAuthors(String keyword, String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, FIELDS);
+        // Matching ids come from the in-memory index, the documents from one $in query
+        List<Author> authors = projectedQueries.findAllById(Author.class, searchIndexService.searchAuthors(keyword),
+                selection);
         // Populate books for each author
-        for (Author author : authors) {
-            populateBooks(author);
-        }
+        populateBooks(authors, selection);
         return authors;
     }
 
@@ -67,6 +138,16 @@ public class AuthorService {
         return Optional.empty();
     }
 
+    // Books are only resolved when selected
+    private void populateBooks(List<Author> authors, FieldSelection fields) {
+        if (!fields.includes("books")) {
+            return;
+        }
+        for (Author author : authors) {
+            populateBooks(author);
+        }
+    }
+
     private void populateBooks(Author author) {
         if (author != null && author.getId() != null) {
             // Find books by author using existing repository method
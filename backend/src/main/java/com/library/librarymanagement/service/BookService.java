@@ -1,21 +1,51 @@
 package com.library.librarymanagement.service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.stereotype.Service;
 
+import com.library.librarymanagement.availability.AvailabilityIndex;
+import com.library.librarymanagement.availability.AvailabilityService;
+import com.library.librarymanagement.cache.EntityCaches;
+import com.library.librarymanagement.journal.CirculationEvent;
+import com.library.librarymanagement.journal.CirculationJournal;
 import com.library.librarymanagement.model.Author;
 import com.library.librarymanagement.model.Book;
 import com.library.librarymanagement.model.BorrowedBook;
 import com.library.librarymanagement.repository.AuthorRepository;
 import com.library.librarymanagement.repository.BookRepository;
 import com.library.librarymanagement.repository.BorrowedBookRepository;
+import com.library.librarymanagement.repository.CursorPage;
+import com.library.librarymanagement.repository.CursorPageRequest;
+import com.library.librarymanagement.repository.DbRefs;
+import com.library.librarymanagement.repository.EntityVersions;
+import com.library.librarymanagement.repository.FieldSelection;
+import com.library.librarymanagement.repository.KeysetPaginator;
+import com.library.librarymanagement.repository.ProjectedQueries;
+import com.library.librarymanagement.search.SearchIndexService;
 
 @Service
 public class BookService {
 
+    public static final Set<String> SORTABLE_FIELDS = Set.of("id", "title", "category", "publishingYear",
+            "availableCopies");
+
+    public static final Set<String> FIELDS = Set.of("id", "title", "category", "publishingYear", "isbn",
+            "totalCopies", "availableCopies", "author", "borrowedBooks", "version");
+
+    // Selections the availability index can answer on its own
+    private static final Set<String> COPY_FIELDS = Set.of("id", "availableCopies", "totalCopies");
+
     @Autowired
     private BookRepository bookRepository;
 
@@ -25,96 +55,265 @@ public class BookService {
     @Autowired
     private BorrowedBookRepository borrowedBookRepository;
 
+    @Autowired
+    private KeysetPaginator keysetPaginator;
+
+    @Autowired
+    private ProjectedQueries projectedQueries;
+
+    @Autowired
+    private EntityCaches entityCaches;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private EntityVersions entityVersions;
+
+    @Autowired
+    private ConcurrentLookups concurrentLookups;
+
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @Autowired
+    private CirculationJournal circulationJournal;
+
     public List<Book> findAll() {
-        List<Book> books = bookRepository.findAll();
-        // Populate author and borrowed books for each book
-        for (Book book : books) {
-            populateRelationships(book);
-        }
+        return findAll(null);
+    }
+
+    public List<Book> findAll(String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, FIELDS);
+        List<Book> books = projectedQueries.findAll(Book.class, selection);
+        // Populate author and borrowed books for all books in one batch
+        populateRelationships(books, selection);
         return books;
     }
 
+    public CursorPage<Book> findPage(CursorPageRequest request, String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, FIELDS);
+        CursorPage<Book> page = keysetPaginator.find(Book.class, new Criteria(), request, SORTABLE_FIELDS,
+                selection);
+        populateRelationships(page.getItems(), selection);
+        return page;
+    }
+
     public Optional<Book> findById(String id) {
-        Optional<Book> bookOpt = bookRepository.findById(id);
+        return findById(id, null);
+    }
+
+    public Optional<Book> findById(String id, String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, FIELDS);
+        Optional<Book> bookOpt = projectedQueries.findById(Book.class, id, selection);
         if (bookOpt.isPresent()) {
             Book book = bookOpt.get();
-            populateRelationships(book);
+            populateRelationships(List.of(book), selection);
             return Optional.of(book);
         }
         return Optional.empty();
     }
 
+    public Optional<Long> findVersion(String id) {
+        return entityVersions.versionOf(Book.class, id);
+    }
+
+    public String fingerprint() {
+        return entityVersions.fingerprint(Book.class);
+    }
+
+    public String fingerprint(CursorPageRequest request) {
+        return entityVersions.fingerprint(Book.class, new Criteria(), request, SORTABLE_FIELDS);
+    }
+
     public Book save(Book book) {
         if (book.getAvailableCopies() == null) {
             book.setAvailableCopies(book.getTotalCopies());
         }
-        return bookRepository.save(book);
+        Book saved = bookRepository.save(book);
+        entityCaches.books().invalidate(saved.getId());
+        // Keep the title/ISBN snapshot on this book's loans in sync
+        borrowedBookRepository.updateBookSnapshot(saved.getId(), saved.getTitle(), saved.getIsbn());
+        searchIndexService.indexBook(saved);
+        availabilityService.put(saved);
+        circulationJournal.append(
+                CirculationEvent.inventory(saved.getId(), saved.getAvailableCopies(), saved.getTotalCopies()));
+        // The author lists its books, so its version moves with them
+        touchAuthor(DbRefs.idOf(saved.getAuthor(), Author::getId));
+        touchLoans(saved.getId());
+        return saved;
     }
 
     public void deleteById(String id) {
+        String authorId = bookRepository.findById(id).map(book -> DbRefs.idOf(book.getAuthor(), Author::getId))
+                .orElse(null);
         bookRepository.deleteById(id);
+        entityCaches.books().invalidate(id);
+        searchIndexService.removeBook(id);
+        availabilityService.remove(id);
+        circulationJournal.append(CirculationEvent.inventory(id, 0, 0));
+        touchAuthor(authorId);
     }
 
-    public List<Book> searchBooks(String keyword) {
-        List<Book> books = bookRepository.findByKeyword(keyword);
-        // Populate relationships for each book
-        for (Book book : books) {
-            populateRelationships(book);
-        }
+    public List<Book> searchBooks(String keyword, String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, FIELDS);
+        // Matching ids come from the in-memory index, the documents from one $in query
+        List<Book> books = projectedQueries.findAllById(Book.class, searchIndexService.searchBooks(keyword),
+                selection);
+        // Populate author and borrowed books for all books in one batch
+        populateRelationships(books, selection);
         return books;
     }
 
-    public List<Book> findAvailableBooks() {
-        List<Book> books = bookRepository.findByAvailableCopiesGreaterThan(0);
-        // Populate relationships for each book
-        for (Book book : books) {
-            populateRelationships(book);
+    public List<Book> findAvailableBooks(String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, FIELDS);
+        if (!selection.isAll() && COPY_FIELDS.containsAll(selection.getFields()) && availabilityService.isReady()) {
+            // Ids and copy counts only: answered from memory
+            List<Book> books = new ArrayList<>();
+            for (AvailabilityIndex.Copies copies : availabilityService.availableBooks()) {
+                Book book = new Book();
+                book.setId(copies.getId());
+                book.setAvailableCopies(copies.getAvailable());
+                book.setTotalCopies(copies.getTotal());
+                books.add(book);
+            }
+            return books;
         }
+        List<Book> books = bookRepository.findByAvailableCopiesGreaterThan(0);
+        // Populate author and borrowed books for all books in one batch
+        populateRelationships(books, selection);
         return books;
     }
 
     public List<Book> findByAuthorId(String authorId) {
         List<Book> books = bookRepository.findByAuthorId(authorId);
-        // Populate relationships for each book
-        for (Book book : books) {
-            populateRelationships(book);
-        }
+        // Populate author and borrowed books for all books in one batch
+        populateRelationships(books);
         return books;
     }
 
     public void decreaseAvailableCopies(String bookId) {
-        Book book = bookRepository.findById(bookId)
-                .orElseThrow(() -> new RuntimeException("Book not found with id: " + bookId));
-
-        if (book.getAvailableCopies() > 0) {
-            book.setAvailableCopies(book.getAvailableCopies() - 1);
-            bookRepository.save(book);
-        } else {
-            throw new RuntimeException("No available copies for this book");
+        // The conditional $inc alone decides: the availability index may lag a restock made through
+        // another instance, so it is only updated here, never consulted
+        if (bookRepository.decrementAvailableCopies(bookId)) {
+            entityCaches.books().invalidate(bookId);
+            availabilityService.decrement(bookId);
+            touchLoans(bookId);
+            return;
+        }
+        // Only a failed update needs a read, to tell a missing book from an exhausted one
+        if (!bookRepository.existsById(bookId)) {
+            throw new RuntimeException("Book not found with id: " + bookId);
         }
+        throw new RuntimeException("No available copies for this book");
     }
 
     public void increaseAvailableCopies(String bookId) {
-        Book book = bookRepository.findById(bookId)
-                .orElseThrow(() -> new RuntimeException("Book not found with id: " + bookId));
+        if (!increaseAvailableCopiesIfPresent(bookId)) {
+            throw new RuntimeException("Book not found with id: " + bookId);
+        }
+    }
+
+    // As increaseAvailableCopies, but a deleted book is reported instead of thrown: a loan may outlive
+    // its book and must still be returnable
+    public boolean increaseAvailableCopiesIfPresent(String bookId) {
+        if (bookId == null) {
+            return false;
+        }
+        if (bookRepository.incrementAvailableCopies(bookId)) {
+            entityCaches.books().invalidate(bookId);
+            availabilityService.increment(bookId);
+            touchLoans(bookId);
+            return true;
+        }
+        // All copies already on the shelf is a no-op; only a missing book is an error
+        return bookRepository.existsById(bookId);
+    }
+
+    // Bumps the version of a book whose loans changed without a copy count update, such as a returned
+    // loan being deleted
+    public void touch(String bookId) {
+        if (bookId == null) {
+            return;
+        }
+        entityVersions.touch(Book.class, bookId);
+        entityCaches.books().invalidate(bookId);
+        touchLoans(bookId);
+    }
+
+    public void touchAll(Collection<String> bookIds) {
+        if (bookIds.isEmpty()) {
+            return;
+        }
+        entityVersions.touchAll(Book.class, Criteria.where("id").in(bookIds));
+        bookIds.forEach(entityCaches.books()::invalidate);
+        entityVersions.touchAll(BorrowedBook.class, Criteria.where("book.$id").in(DbRefs.objectIds(bookIds)));
+    }
+
+    // Loans render the book they reference, copy counts and version included, so a loan's version has
+    // to move whenever its book's does
+    private void touchLoans(String bookId) {
+        if (bookId != null && ObjectId.isValid(bookId)) {
+            entityVersions.touchAll(BorrowedBook.class, Criteria.where("book.$id").is(new ObjectId(bookId)));
+        }
+    }
 
-        if (book.getAvailableCopies() < book.getTotalCopies()) {
-            book.setAvailableCopies(book.getAvailableCopies() + 1);
-            bookRepository.save(book);
+    private void touchAuthor(String authorId) {
+        if (authorId != null) {
+            entityVersions.touch(Author.class, authorId);
+            entityCaches.authors().invalidate(authorId);
         }
     }
 
-    private void populateRelationships(Book book) {
-        if (book != null) {
-            // Populate author using repository
-            if (book.getAuthor() != null && book.getAuthor().getId() != null) {
-                Optional<Author> authorOpt = authorRepository.findById(book.getAuthor().getId());
-                authorOpt.ifPresent(book::setAuthor);
+    private void populateRelationships(List<Book> books) {
+        populateRelationships(books, FieldSelection.ALL);
+    }
+
+    // Relationships left out of the field selection are not resolved at all
+    private void populateRelationships(List<Book> books, FieldSelection fields) {
+        if (books.isEmpty()) {
+            return;
+        }
+        boolean withAuthor = fields.includes("author");
+        boolean withBorrowedBooks = fields.includes("borrowedBooks");
+
+        Set<String> authorIds = new HashSet<>();
+        List<String> bookIds = new ArrayList<>();
+        for (Book book : books) {
+            String authorId = DbRefs.idOf(book.getAuthor(), Author::getId);
+            if (withAuthor && authorId != null) {
+                authorIds.add(authorId);
+            }
+            if (withBorrowedBooks && book.getId() != null) {
+                bookIds.add(book.getId());
+            }
+        }
+
+        // The author and borrow-history lookups are independent, so they may run concurrently
+        Map<String, Author> authorsById = new HashMap<>();
+        Map<String, List<BorrowedBook>> borrowedBooksByBookId = new HashMap<>();
+        concurrentLookups.run(() -> {
+            // Resolve authors from the cache, loading the missing ones with a single $in query
+            authorsById.putAll(entityCaches.authors().getAll(authorIds, authorRepository::findAllById,
+                    Author::getId));
+        }, () -> {
+            // Resolve borrowed books with a single $in query and group them by book
+            if (!bookIds.isEmpty()) {
+                for (BorrowedBook borrowedBook : borrowedBookRepository.findByBookIdIn(DbRefs.objectIds(bookIds))) {
+                    String bookId = DbRefs.idOf(borrowedBook.getBook(), Book::getId);
+                    borrowedBooksByBookId.computeIfAbsent(bookId, key -> new ArrayList<>()).add(borrowedBook);
+                }
             }
+        });
 
-            // Populate borrowed books using repository
-            List<BorrowedBook> borrowedBooks = borrowedBookRepository.findByBookId(book.getId());
-            book.setBorrowedBooks(borrowedBooks);
+        for (Book book : books) {
+            String authorId = DbRefs.idOf(book.getAuthor(), Author::getId);
+            if (withAuthor && authorId != null) {
+                book.setAuthor(authorsById.get(authorId));
+            }
+            if (withBorrowedBooks) {
+                book.setBorrowedBooks(borrowedBooksByBookId.getOrDefault(book.getId(), new ArrayList<>()));
+            }
         }
     }
 }
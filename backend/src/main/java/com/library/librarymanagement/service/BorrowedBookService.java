@@ -1,148 +1,294 @@
 package com.library.librarymanagement.service;
 
 import java.time.LocalDate;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.stereotype.Service;
 
+import com.library.librarymanagement.cache.EntityCaches;
+import com.library.librarymanagement.journal.CirculationEvent;
+import com.library.librarymanagement.journal.CirculationJournal;
 import com.library.librarymanagement.model.Book;
 import com.library.librarymanagement.model.BorrowedBook;
 import com.library.librarymanagement.model.Member;
 import com.library.librarymanagement.repository.BookRepository;
 import com.library.librarymanagement.repository.BorrowedBookRepository;
+import com.library.librarymanagement.repository.CursorPage;
+import com.library.librarymanagement.repository.CursorPageRequest;
+import com.library.librarymanagement.repository.DbRefs;
+import com.library.librarymanagement.repository.EntityVersions;
+import com.library.librarymanagement.repository.FieldSelection;
+import com.library.librarymanagement.repository.KeysetPaginator;
 import com.library.librarymanagement.repository.MemberRepository;
+import com.library.librarymanagement.search.SearchIndexService;
+import com.library.librarymanagement.stats.CirculationStatsService;
 
 @Service
 public class BorrowedBookService {
 
+    private static final Logger log = LoggerFactory.getLogger(BorrowedBookService.class);
+
+    public static final Set<String> SORTABLE_FIELDS = Set.of("id", "borrowDate", "dueDate", "returnDate",
+            "status", "bookTitle", "memberName");
+
+    public static final Set<String> FIELDS = Set.of("id", "book", "member", "borrowDate", "returnDate",
+            "dueDate", "status", "bookTitle", "bookIsbn", "memberName", "memberEmail", "version");
+
     @Autowired
     private BorrowedBookRepository borrowedBookRepository;
 
     @Autowired
     private BookService bookService;
 
+    @Autowired
+    private MemberService memberService;
+
     @Autowired
     private BookRepository bookRepository;
 
     @Autowired
     private MemberRepository memberRepository;
 
+    @Autowired
+    private KeysetPaginator keysetPaginator;
+
+    @Autowired
+    private EntityCaches entityCaches;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private ConcurrentLookups concurrentLookups;
+
+    @Autowired
+    private EntityVersions entityVersions;
+
+    @Autowired
+    private OverdueSweeper overdueSweeper;
+
+    @Autowired
+    private CirculationJournal circulationJournal;
+
+    @Autowired
+    private CirculationStatsService circulationStatsService;
+
     public List<BorrowedBook> findAll() {
-        List<BorrowedBook> borrowedBooks = borrowedBookRepository.findAll();
-        // Populate book and member for each borrowed book
-        for (BorrowedBook borrowedBook : borrowedBooks) {
-            populateRelationships(borrowedBook);
-        }
-        return borrowedBooks;
+        return findAll(null);
+    }
+
+    public List<BorrowedBook> findAll(String fields) {
+        // Book and member are resolved by the aggregation pipeline, when selected
+        return borrowedBookRepository.findAllWithRelationships(FieldSelection.parse(fields, FIELDS));
+    }
+
+    public CursorPage<BorrowedBook> findPage(CursorPageRequest request, String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, FIELDS);
+        // Book and member are resolved by the aggregation pipeline, when selected
+        return keysetPaginator.find(BorrowedBook.class, new Criteria(), request, SORTABLE_FIELDS,
+                (criteria, sort, limit) -> borrowedBookRepository.findPageWithRelationships(criteria, sort, limit,
+                        selection));
     }
 
     public Optional<BorrowedBook> findById(String id) {
+        return findById(id, null);
+    }
+
+    public Optional<BorrowedBook> findById(String id, String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, FIELDS);
         Optional<BorrowedBook> borrowedBookOpt = borrowedBookRepository.findById(id);
         if (borrowedBookOpt.isPresent()) {
             BorrowedBook borrowedBook = borrowedBookOpt.get();
-            populateRelationships(borrowedBook);
+            populateRelationships(borrowedBook, selection);
             return Optional.of(borrowedBook);
         }
         return Optional.empty();
     }
 
+    public Optional<Long> findVersion(String id) {
+        return entityVersions.versionOf(BorrowedBook.class, id);
+    }
+
+    public String fingerprint() {
+        return entityVersions.fingerprint(BorrowedBook.class);
+    }
+
+    public String fingerprint(CursorPageRequest request) {
+        return entityVersions.fingerprint(BorrowedBook.class, new Criteria(), request, SORTABLE_FIELDS);
+    }
+
     public BorrowedBook save(BorrowedBook borrowedBook) {
-        return borrowedBookRepository.save(borrowedBook);
+        // The loan may have been moved to another book or member; both sides list it
+        Optional<BorrowedBook> previous = borrowedBook.getId() == null ? Optional.empty()
+                : borrowedBookRepository.findById(borrowedBook.getId());
+        // An edited due or return date may move the loan in or out of OVERDUE. The status it had is the
+        // stored one; the edit's own may be missing or stale.
+        borrowedBook.setStatus(overdueSweeper.statusOf(borrowedBook));
+        BorrowedBook saved = borrowedBookRepository.save(borrowedBook);
+        overdueSweeper.statusChanged(previous.map(BorrowedBook::getStatus).orElse(null), saved.getStatus());
+        Set<String> bookIds = new HashSet<>();
+        Set<String> memberIds = new HashSet<>();
+        for (BorrowedBook loan : previous.map(loan -> List.of(loan, saved)).orElse(List.of(saved))) {
+            bookIds.add(DbRefs.idOf(loan.getBook(), Book::getId));
+            memberIds.add(DbRefs.idOf(loan.getMember(), Member::getId));
+        }
+        bookIds.remove(null);
+        memberIds.remove(null);
+        bookService.touchAll(bookIds);
+        memberService.touchAll(memberIds);
+        // Touching the book and member moved this loan's version past the one just saved
+        refreshVersion(saved);
+        return saved;
     }
 
     public BorrowedBook borrowBook(BorrowedBook borrowedBook) {
         // Decrease available copies when borrowing
-        bookService.decreaseAvailableCopies(borrowedBook.getBook().getId());
-        return borrowedBookRepository.save(borrowedBook);
+        String bookId = borrowedBook.getBook().getId();
+        bookService.decreaseAvailableCopies(bookId);
+        // Snapshot the book and member so loan rows render without a join
+        Optional<Book> bookOpt = entityCaches.books().get(bookId, bookRepository::findById);
+        bookOpt.ifPresent(book -> {
+            borrowedBook.setBookTitle(book.getTitle());
+            borrowedBook.setBookIsbn(book.getIsbn());
+        });
+        String memberId = DbRefs.idOf(borrowedBook.getMember(), Member::getId);
+        entityCaches.members().get(memberId, memberRepository::findById).ifPresent(member -> {
+            borrowedBook.setMemberName(member.getName());
+            borrowedBook.setMemberEmail(member.getEmail());
+        });
+        borrowedBook.setStatus(overdueSweeper.statusOf(borrowedBook));
+        // The book's version moved with its copy count; the member lists its loans too. Touched before
+        // the insert, so the new loan starts at the version it is returned with.
+        memberService.touch(memberId);
+        BorrowedBook saved = borrowedBookRepository.save(borrowedBook);
+        overdueSweeper.statusChanged(null, saved.getStatus());
+        circulationJournal.append(CirculationEvent.loan(CirculationEvent.Type.BORROWED, saved.getId(), bookId,
+                memberId, saved.getBorrowDate(), saved.getDueDate()));
+        circulationStatsService.borrowed(saved.getId(), bookId, saved.getBookTitle(),
+                bookOpt.map(Book::getCategory).orElse(null), saved.getBorrowDate());
+        return saved;
     }
 
     public Optional<BorrowedBook> returnBook(String borrowedBookId) {
-        Optional<BorrowedBook> borrowedBookOpt = borrowedBookRepository.findById(borrowedBookId);
-        if (borrowedBookOpt.isPresent()) {
-            BorrowedBook borrowedBook = borrowedBookOpt.get();
-            if (borrowedBook.getReturnDate() == null) {
-                borrowedBook.setReturnDate(LocalDate.now());
-                // Increase available copies when returning
-                bookService.increaseAvailableCopies(borrowedBook.getBook().getId());
-                return Optional.of(borrowedBookRepository.save(borrowedBook));
-            }
+        // The loan is flipped first, conditionally; only the caller whose update matched puts the copy
+        // back, so a double-clicked or concurrent return cannot increment the count twice
+        LocalDate returnDate = LocalDate.now();
+        Optional<BorrowedBook> borrowedBookOpt = borrowedBookRepository.returnIfActive(borrowedBookId, returnDate);
+        if (borrowedBookOpt.isEmpty()) {
+            return Optional.empty();
         }
-        return Optional.empty();
+        BorrowedBook returned = borrowedBookOpt.get();
+        String previousStatus = returned.getStatus();
+        returned.setReturnDate(returnDate);
+        returned.setStatus(BorrowedBook.RETURNED);
+        String bookId = DbRefs.idOf(returned.getBook(), Book::getId);
+        // Increase available copies when returning; this also moves the loan's version. The loan is
+        // already returned at this point, so a book deleted since only skips the copy.
+        if (!bookService.increaseAvailableCopiesIfPresent(bookId)) {
+            log.warn("Loan {} returned for book {}, which no longer exists", returned.getId(), bookId);
+        }
+        overdueSweeper.statusChanged(previousStatus, returned.getStatus());
+        String memberId = DbRefs.idOf(returned.getMember(), Member::getId);
+        circulationJournal.append(CirculationEvent.loan(CirculationEvent.Type.RETURNED, returned.getId(),
+                bookId, memberId, returned.getReturnDate(), returned.getDueDate()));
+        circulationStatsService.returned(returned.getId(), returned.getBorrowDate(), returned.getReturnDate());
+        memberService.touch(memberId);
+        refreshVersion(returned);
+        return Optional.of(returned);
     }
 
     public void deleteById(String id) {
         Optional<BorrowedBook> borrowedBookOpt = borrowedBookRepository.findById(id);
+        String memberId = null;
+        String status = null;
+        CirculationEvent deleted = null;
         if (borrowedBookOpt.isPresent()) {
             BorrowedBook borrowedBook = borrowedBookOpt.get();
+            String bookId = DbRefs.idOf(borrowedBook.getBook(), Book::getId);
             // If book was not returned, increase available copies
             if (borrowedBook.getReturnDate() == null) {
-                bookService.increaseAvailableCopies(borrowedBook.getBook().getId());
+                bookService.increaseAvailableCopies(bookId);
+            } else {
+                bookService.touch(bookId);
             }
+            memberId = DbRefs.idOf(borrowedBook.getMember(), Member::getId);
+            status = borrowedBook.getStatus();
+            deleted = CirculationEvent.loan(CirculationEvent.Type.DELETED, id, bookId, memberId,
+                    borrowedBook.getReturnDate(), borrowedBook.getDueDate());
         }
         borrowedBookRepository.deleteById(id);
+        overdueSweeper.statusChanged(status, null);
+        if (deleted != null) {
+            circulationJournal.append(deleted);
+        }
+        borrowedBookOpt.ifPresent(loan -> circulationStatsService.deleted(id,
+                DbRefs.idOf(loan.getBook(), Book::getId), loan.getBorrowDate(), loan.getReturnDate()));
+        memberService.touch(memberId);
     }
 
-    public List<BorrowedBook> searchBorrowedBooks(String keyword) {
-        List<BorrowedBook> borrowedBooks = borrowedBookRepository
-                .findByBookTitleContainingIgnoreCaseOrMemberNameContainingIgnoreCaseOrBorrowDate(keyword);
-        // Populate relationships for each borrowed book
-        for (BorrowedBook borrowedBook : borrowedBooks) {
-            populateRelationships(borrowedBook);
-        }
-        return borrowedBooks;
+    // The version the loan's ETag is built from after its book and member were touched
+    private void refreshVersion(BorrowedBook loan) {
+        entityVersions.versionOf(BorrowedBook.class, loan.getId()).ifPresent(loan::setVersion);
+    }
+
+    public List<BorrowedBook> searchBorrowedBooks(String keyword, String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, FIELDS);
+        // Book titles and member names are matched in memory; the loans referencing them, and those
+        // borrowed on the date the keyword names, are then fetched with book and member resolved by one
+        // aggregation on the indexed DBRef ids and borrow date
+        return borrowedBookRepository.findByBookIdInOrMemberIdInOrBorrowDateWithRelationships(
+                searchIndexService.searchBookTitles(keyword), searchIndexService.searchMemberNames(keyword),
+                SearchIndexService.borrowDateOf(keyword), selection);
     }
 
     public List<BorrowedBook> findActiveBorrowings() {
-        List<BorrowedBook> borrowedBooks = borrowedBookRepository.findByReturnDateIsNull();
-        // Populate relationships for each borrowed book
-        for (BorrowedBook borrowedBook : borrowedBooks) {
-            populateRelationships(borrowedBook);
-        }
-        return borrowedBooks;
+        // Book and member are resolved by the aggregation pipeline
+        return borrowedBookRepository.findActiveWithRelationships();
     }
 
     public List<BorrowedBook> findOverdueBooks() {
-        List<BorrowedBook> borrowedBooks = borrowedBookRepository
-                .findByDueDateBeforeAndReturnDateIsNull(LocalDate.now());
-        // Populate relationships for each borrowed book
-        for (BorrowedBook borrowedBook : borrowedBooks) {
-            populateRelationships(borrowedBook);
-        }
-        return borrowedBooks;
+        // Loans flagged by OverdueSweeper; book and member are resolved by the aggregation pipeline
+        return borrowedBookRepository.findOverdueWithRelationships();
+    }
+
+    public long countOverdueBooks() {
+        return overdueSweeper.overdueLoans();
     }
 
     public List<BorrowedBook> findByMemberId(String memberId) {
-        List<BorrowedBook> borrowedBooks = borrowedBookRepository.findByMemberId(memberId);
-        // Populate relationships for each borrowed book
-        for (BorrowedBook borrowedBook : borrowedBooks) {
-            populateRelationships(borrowedBook);
-        }
-        return borrowedBooks;
+        // Book and member are resolved by the aggregation pipeline
+        return borrowedBookRepository.findByMemberIdWithRelationships(memberId);
     }
 
     public List<BorrowedBook> findByBookId(String bookId) {
-        List<BorrowedBook> borrowedBooks = borrowedBookRepository.findByBookId(bookId);
-        // Populate relationships for each borrowed book
-        for (BorrowedBook borrowedBook : borrowedBooks) {
-            populateRelationships(borrowedBook);
-        }
-        return borrowedBooks;
+        // Book and member are resolved by the aggregation pipeline
+        return borrowedBookRepository.findByBookIdWithRelationships(bookId);
     }
 
-    private void populateRelationships(BorrowedBook borrowedBook) {
+    private void populateRelationships(BorrowedBook borrowedBook, FieldSelection fields) {
         if (borrowedBook != null) {
-            // Use existing repository methods to find and populate relationships
-            if (borrowedBook.getBook() != null && borrowedBook.getBook().getId() != null) {
-                Optional<Book> bookOpt = bookRepository.findById(borrowedBook.getBook().getId());
-                bookOpt.ifPresent(borrowedBook::setBook);
-            }
-
-            if (borrowedBook.getMember() != null && borrowedBook.getMember().getId() != null) {
-                Optional<Member> memberOpt = memberRepository.findById(borrowedBook.getMember().getId());
-                memberOpt.ifPresent(borrowedBook::setMember);
-            }
+            // Resolve book and member through the read-through caches, when selected; the two
+            // lookups are independent, so they may run concurrently
+            String bookId = DbRefs.idOf(borrowedBook.getBook(), Book::getId);
+            String memberId = DbRefs.idOf(borrowedBook.getMember(), Member::getId);
+            concurrentLookups.run(() -> {
+                if (bookId != null && fields.includes("book")) {
+                    Optional<Book> bookOpt = entityCaches.books().get(bookId, bookRepository::findById);
+                    bookOpt.ifPresent(borrowedBook::setBook);
+                }
+            }, () -> {
+                if (memberId != null && fields.includes("member")) {
+                    Optional<Member> memberOpt = entityCaches.members().get(memberId, memberRepository::findById);
+                    memberOpt.ifPresent(borrowedBook::setMember);
+                }
+            });
         }
     }
 }
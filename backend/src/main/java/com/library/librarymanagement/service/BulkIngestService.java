@@ -0,0 +1,236 @@
+package com.library.librarymanagement.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mapping.PersistentPropertyAccessor;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.librarymanagement.availability.AvailabilityService;
+import com.library.librarymanagement.cache.EntityCaches;
+import com.library.librarymanagement.journal.CirculationEvent;
+import com.library.librarymanagement.journal.CirculationJournal;
+import com.library.librarymanagement.model.Author;
+import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.model.Member;
+import com.library.librarymanagement.repository.DbRefs;
+import com.library.librarymanagement.repository.EntityVersions;
+import com.library.librarymanagement.search.SearchIndexService;
+import com.mongodb.bulk.BulkWriteError;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+// Bulk ingest for catalogue loads. The body is a JSON array or NDJSON and is read item by item;
+// valid items are written in unordered insertMany batches, so one bad item never aborts the rest.
+@Service
+public class BulkIngestService {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @Autowired
+    private CirculationJournal circulationJournal;
+
+    @Autowired
+    private EntityVersions entityVersions;
+
+    @Autowired
+    private EntityCaches entityCaches;
+
+    @Value("${bulk.batch-size:1000}")
+    private int batchSize;
+
+    public BulkResult ingestBooks(InputStream in) throws IOException {
+        // Journaled in one append at the end, so the upload waits for a single flush
+        List<CirculationEvent> inventory = new ArrayList<>();
+        Set<String> authorIds = new HashSet<>();
+        BulkResult result = ingest(Book.class, in, book -> {
+            // Same default as BookService.save
+            if (book.getAvailableCopies() == null) {
+                book.setAvailableCopies(book.getTotalCopies());
+            }
+        }, book -> {
+            searchIndexService.indexBook(book);
+            availabilityService.put(book);
+            inventory.add(CirculationEvent.inventory(book.getId(), book.getAvailableCopies(), book.getTotalCopies()));
+            String authorId = DbRefs.idOf(book.getAuthor(), Author::getId);
+            if (authorId != null) {
+                authorIds.add(authorId);
+            }
+        });
+        circulationJournal.appendAll(inventory);
+        // Each author lists its books; one version bump per author, as BookService.save does per book
+        if (!authorIds.isEmpty()) {
+            entityVersions.touchAll(Author.class, Criteria.where("id").in(authorIds));
+            authorIds.forEach(entityCaches.authors()::invalidate);
+        }
+        return result;
+    }
+
+    public BulkResult ingestAuthors(InputStream in) throws IOException {
+        return ingest(Author.class, in, author -> {
+        }, searchIndexService::indexAuthor);
+    }
+
+    public BulkResult ingestMembers(InputStream in) throws IOException {
+        return ingest(Member.class, in, member -> {
+        }, searchIndexService::indexMember);
+    }
+
+    private <T> BulkResult ingest(Class<T> type, InputStream in, Consumer<T> prepare, Consumer<T> inserted)
+            throws IOException {
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext()
+                .getRequiredPersistentEntity(type);
+        // Results are collected by index, since failed items are reported as soon as they are seen
+        TreeMap<Integer, Outcome> outcomes = new TreeMap<>();
+        List<T> batch = new ArrayList<>(batchSize);
+        List<Integer> batchIndexes = new ArrayList<>(batchSize);
+
+        int index = 0;
+        try (MappingIterator<T> items = objectMapper.readerFor(type).readValues(in)) {
+            while (true) {
+                T item;
+                try {
+                    if (!items.hasNextValue()) {
+                        break;
+                    }
+                    item = items.nextValue();
+                } catch (JsonParseException e) {
+                    // Malformed JSON cannot be resynchronised, so the rest of the body is dropped
+                    outcomes.put(index, Outcome.failed("Malformed JSON: " + e.getOriginalMessage()));
+                    break;
+                } catch (IOException | RuntimeException e) {
+                    outcomes.put(index++, Outcome.failed("Invalid item: " + e.getMessage()));
+                    continue;
+                }
+
+                Set<ConstraintViolation<T>> violations = validator.validate(item);
+                if (!violations.isEmpty()) {
+                    List<String> errors = new ArrayList<>();
+                    for (ConstraintViolation<T> violation : violations) {
+                        errors.add(violation.getPropertyPath() + ": " + violation.getMessage());
+                    }
+                    outcomes.put(index++, Outcome.failed(errors));
+                    continue;
+                }
+
+                prepare.accept(item);
+                assignIdAndVersion(entity, item);
+                batch.add(item);
+                batchIndexes.add(index++);
+                if (batch.size() == batchSize) {
+                    write(type, entity, batch, batchIndexes, outcomes, inserted);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(type, entity, batch, batchIndexes, outcomes, inserted);
+        }
+
+        BulkResult result = new BulkResult();
+        outcomes.forEach((position, outcome) -> {
+            if (outcome.errors == null) {
+                result.created(position, outcome.id);
+            } else {
+                result.failed(position, outcome.errors);
+            }
+        });
+        return result;
+    }
+
+    private <T> void write(Class<T> type, MongoPersistentEntity<?> entity, List<T> batch, List<Integer> indexes,
+            TreeMap<Integer, Outcome> outcomes, Consumer<T> inserted) {
+        TreeMap<Integer, String> writeErrors = new TreeMap<>();
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type).insert(batch).execute();
+        } catch (BulkOperationException e) {
+            // Unordered: every item without a write error was inserted
+            for (BulkWriteError error : e.getErrors()) {
+                writeErrors.put(error.getIndex(), error.getMessage());
+            }
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            T item = batch.get(i);
+            String error = writeErrors.get(i);
+            if (error != null) {
+                outcomes.put(indexes.get(i), Outcome.failed(error));
+            } else {
+                outcomes.put(indexes.get(i), Outcome.created(idOf(entity, item)));
+                inserted.accept(item);
+            }
+        }
+        batch.clear();
+        indexes.clear();
+    }
+
+    // Ids are assigned up front, so each inserted item can be reported with its id. Bulk inserts skip
+    // the @Version initialization a save does, so the version starts at 0 here too.
+    private static <T> void assignIdAndVersion(MongoPersistentEntity<?> entity, T item) {
+        PersistentPropertyAccessor<T> accessor = entity.getPropertyAccessor(item);
+        if (accessor.getProperty(entity.getRequiredIdProperty()) == null) {
+            accessor.setProperty(entity.getRequiredIdProperty(), new ObjectId().toHexString());
+        }
+        if (entity.hasVersionProperty() && accessor.getProperty(entity.getRequiredVersionProperty()) == null) {
+            accessor.setProperty(entity.getRequiredVersionProperty(), 0L);
+        }
+    }
+
+    private static <T> String idOf(MongoPersistentEntity<?> entity, T item) {
+        Object id = entity.getPropertyAccessor(item).getProperty(entity.getRequiredIdProperty());
+        return id != null ? id.toString() : null;
+    }
+
+    private static class Outcome {
+
+        private final String id;
+        private final List<String> errors;
+
+        private Outcome(String id, List<String> errors) {
+            this.id = id;
+            this.errors = errors;
+        }
+
+        static Outcome created(String id) {
+            return new Outcome(id, null);
+        }
+
+        static Outcome failed(String error) {
+            return new Outcome(null, List.of(error));
+        }
+
+        static Outcome failed(List<String> errors) {
+            return new Outcome(null, errors);
+        }
+    }
+}
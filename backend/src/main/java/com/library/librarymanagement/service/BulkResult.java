@@ -0,0 +1,69 @@
+package com.library.librarymanagement.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Outcome of a bulk ingest: one entry per received item, in input order
+public class BulkResult {
+
+    private final List<ItemResult> results = new ArrayList<>();
+    private int inserted;
+    private int failed;
+
+    void created(int index, String id) {
+        results.add(new ItemResult(index, id, "CREATED", List.of()));
+        inserted++;
+    }
+
+    void failed(int index, List<String> errors) {
+        results.add(new ItemResult(index, null, "FAILED", errors));
+        failed++;
+    }
+
+    public int getReceived() {
+        return results.size();
+    }
+
+    public int getInserted() {
+        return inserted;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public List<ItemResult> getResults() {
+        return results;
+    }
+
+    public static class ItemResult {
+
+        private final int index;
+        private final String id;
+        private final String status;
+        private final List<String> errors;
+
+        ItemResult(int index, String id, String status, List<String> errors) {
+            this.index = index;
+            this.id = id;
+            this.status = status;
+            this.errors = errors;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public List<String> getErrors() {
+            return errors;
+        }
+    }
+}
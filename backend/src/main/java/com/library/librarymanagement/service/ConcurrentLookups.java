@@ -0,0 +1,55 @@
+package com.library.librarymanagement.service;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import com.library.librarymanagement.config.MongoQueryTally;
+
+import jakarta.annotation.PostConstruct;
+
+// Runs independent relationship lookups side by side on virtual threads when
+// spring.threads.virtual.enabled is set (JDK 21+); otherwise they simply run one after the other
+// on the calling thread, as a pooled platform thread would only move the blocking elsewhere.
+@Component
+public class ConcurrentLookups {
+
+    @Autowired
+    private Environment environment;
+
+    private SimpleAsyncTaskExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            executor = new SimpleAsyncTaskExecutor("lookup-");
+            executor.setVirtualThreads(true);
+        }
+    }
+
+    public void run(Runnable first, Runnable second) {
+        if (executor == null) {
+            first.run();
+            second.run();
+            return;
+        }
+        Future<?> forked = executor.submit(MongoQueryTally.propagate(first));
+        second.run();
+        try {
+            forked.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a lookup", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+}
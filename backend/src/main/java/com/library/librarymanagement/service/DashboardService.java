@@ -0,0 +1,110 @@
+package com.library.librarymanagement.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.stereotype.Service;
+
+import com.library.librarymanagement.availability.AvailabilityIndex;
+import com.library.librarymanagement.availability.AvailabilityService;
+import com.library.librarymanagement.model.Author;
+import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.model.BorrowedBook;
+import com.library.librarymanagement.model.Member;
+
+// Backs GET /api/dashboard. The loan figures and the most recent active loans come from one $facet
+// aggregation over borrowed_books; the book, author and member totals from collection metadata and
+// the copies on the shelf from the availability index. The result is shared for dashboard.cache-ttl,
+// so a burst of dashboard loads runs the aggregation once.
+@Service
+public class DashboardService {
+
+    private static final int RECENT_LOANS = 5;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @Value("${dashboard.cache-ttl:PT5S}")
+    private Duration cacheTtl;
+
+    private volatile DashboardSummary cached;
+
+    private volatile long cachedUntil;
+
+    public DashboardSummary summary() {
+        DashboardSummary summary = cached;
+        if (summary != null && System.currentTimeMillis() < cachedUntil) {
+            return summary;
+        }
+        synchronized (this) {
+            // Concurrent callers wait for the one computing instead of each running the aggregation
+            if (cached != null && System.currentTimeMillis() < cachedUntil) {
+                return cached;
+            }
+            summary = compute();
+            cached = summary;
+            cachedUntil = System.currentTimeMillis() + cacheTtl.toMillis();
+            return summary;
+        }
+    }
+
+    private DashboardSummary compute() {
+        // A missing returnDate counts as null, as in the find queries
+        Document returnDate = new Document("$ifNull", Arrays.asList("$returnDate", null));
+        Document active = new Document("$eq", Arrays.asList(returnDate, null));
+        Document overdue = new Document("$and", List.of(active,
+                new Document("$eq", List.of("$status", BorrowedBook.OVERDUE))));
+        Document counts = new Document("$group", new Document("_id", null)
+                .append("loans", new Document("$sum", 1))
+                .append("active", new Document("$sum", new Document("$cond", List.of(active, 1, 0))))
+                .append("overdue", new Document("$sum", new Document("$cond", List.of(overdue, 1, 0)))));
+        List<Document> recent = List.of(
+                new Document("$match", new Document("returnDate", null)),
+                new Document("$sort", new Document("borrowDate", -1).append("_id", -1)),
+                new Document("$limit", RECENT_LOANS),
+                // The snapshot fields carry the titles and names; the references would be resolved one by one
+                new Document("$project", new Document("book", 0).append("member", 0)));
+        AggregationOperation facet = context -> new Document("$facet", new Document("counts", List.of(counts))
+                .append("recent", recent));
+
+        Document result = mongoTemplate.aggregate(Aggregation.newAggregation(facet),
+                mongoTemplate.getCollectionName(BorrowedBook.class), Document.class).getUniqueMappedResult();
+        Document totals = new Document();
+        List<BorrowedBook> recentLoans = new ArrayList<>();
+        if (result != null) {
+            List<Document> countResults = result.getList("counts", Document.class);
+            if (!countResults.isEmpty()) {
+                totals = countResults.get(0);
+            }
+            for (Document loan : result.getList("recent", Document.class)) {
+                recentLoans.add(mongoTemplate.getConverter().read(BorrowedBook.class, loan));
+            }
+        }
+        long loans = count(totals, "loans");
+        long activeLoans = count(totals, "active");
+        long availableCopies = availabilityService.availableCopies();
+        return new DashboardSummary(
+                mongoTemplate.estimatedCount(Book.class),
+                mongoTemplate.estimatedCount(Author.class),
+                mongoTemplate.estimatedCount(Member.class),
+                loans, activeLoans, count(totals, "overdue"), loans - activeLoans,
+                availableCopies == AvailabilityIndex.UNKNOWN ? null : availableCopies,
+                recentLoans);
+    }
+
+    private static long count(Document totals, String field) {
+        Object value = totals.get(field);
+        return value instanceof Number number ? number.longValue() : 0;
+    }
+}
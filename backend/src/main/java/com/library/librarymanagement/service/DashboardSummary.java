@@ -0,0 +1,77 @@
+package com.library.librarymanagement.service;
+
+import java.time.Instant;
+import java.util.List;
+
+import com.library.librarymanagement.model.BorrowedBook;
+
+// Everything the dashboard shows, in one response
+public class DashboardSummary {
+
+    private final long books;
+    private final long authors;
+    private final long members;
+    private final long loans;
+    private final long activeLoans;
+    private final long overdueLoans;
+    private final long returnedLoans;
+    private final Long availableCopies;
+    private final List<BorrowedBook> recentLoans;
+    private final Instant computedAt;
+
+    DashboardSummary(long books, long authors, long members, long loans, long activeLoans, long overdueLoans,
+            long returnedLoans, Long availableCopies, List<BorrowedBook> recentLoans) {
+        this.books = books;
+        this.authors = authors;
+        this.members = members;
+        this.loans = loans;
+        this.activeLoans = activeLoans;
+        this.overdueLoans = overdueLoans;
+        this.returnedLoans = returnedLoans;
+        this.availableCopies = availableCopies;
+        this.recentLoans = recentLoans;
+        this.computedAt = Instant.now();
+    }
+
+    public long getBooks() {
+        return books;
+    }
+
+    public long getAuthors() {
+        return authors;
+    }
+
+    public long getMembers() {
+        return members;
+    }
+
+    public long getLoans() {
+        return loans;
+    }
+
+    public long getActiveLoans() {
+        return activeLoans;
+    }
+
+    public long getOverdueLoans() {
+        return overdueLoans;
+    }
+
+    public long getReturnedLoans() {
+        return returnedLoans;
+    }
+
+    // Null until the availability index has loaded
+    public Long getAvailableCopies() {
+        return availableCopies;
+    }
+
+    // The five most recently borrowed active loans, with the book and member snapshots
+    public List<BorrowedBook> getRecentLoans() {
+        return recentLoans;
+    }
+
+    public Instant getComputedAt() {
+        return computedAt;
+    }
+}
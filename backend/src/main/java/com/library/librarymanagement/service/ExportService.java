@@ -0,0 +1,106 @@
+package com.library.librarymanagement.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.library.librarymanagement.journal.CirculationJournal;
+import com.library.librarymanagement.repository.BookRepository;
+import com.library.librarymanagement.repository.BorrowedBookRepository;
+import com.library.librarymanagement.repository.MemberRepository;
+
+@Service
+public class ExportService {
+
+    public static final String NDJSON = "application/x-ndjson";
+
+    private static final int FLUSH_EVERY = 1000;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private BorrowedBookRepository borrowedBookRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CirculationJournal circulationJournal;
+
+    public void exportBooks(OutputStream out) throws IOException {
+        writeNdjson(bookRepository.streamAllWithAuthor(), out);
+    }
+
+    public void exportMembers(OutputStream out) throws IOException {
+        writeNdjson(memberRepository.streamAllBy(), out);
+    }
+
+    public void exportBorrowedBooks(OutputStream out) throws IOException {
+        writeNdjson(borrowedBookRepository.streamAllWithRelationships(), out);
+    }
+
+    // Replays the journal from the given sequence, one event per line
+    public void exportJournal(long fromSequence, OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(new SerializedString("\n"));
+
+            ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            long written;
+            try {
+                written = circulationJournal.replay(fromSequence, event -> {
+                    try {
+                        writer.writeValue(generator, event);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            if (written > 0) {
+                generator.writeRaw('\n');
+            }
+            generator.flush();
+        }
+    }
+
+    // Writes one JSON document per line straight from the Mongo cursor, so memory stays bounded
+    // by the cursor batch size rather than the collection size
+    private void writeNdjson(Stream<?> documents, OutputStream out) throws IOException {
+        try (Stream<?> stream = documents;
+                JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(new SerializedString("\n"));
+
+            // Flushing is done in chunks below rather than after every document
+            ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            long written = 0;
+            Iterator<?> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                writer.writeValue(generator, iterator.next());
+                if (++written % FLUSH_EVERY == 0) {
+                    generator.flush();
+                }
+            }
+            if (written > 0) {
+                generator.writeRaw('\n');
+            }
+            generator.flush();
+        }
+    }
+}
@@ -1,60 +1,156 @@
 package com.library.librarymanagement.service;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.stereotype.Service;
 
+import com.library.librarymanagement.cache.EntityCaches;
 import com.library.librarymanagement.model.BorrowedBook;
 import com.library.librarymanagement.model.Member;
 import com.library.librarymanagement.repository.BorrowedBookRepository;
+import com.library.librarymanagement.repository.CursorPage;
+import com.library.librarymanagement.repository.CursorPageRequest;
+import com.library.librarymanagement.repository.DbRefs;
+import com.library.librarymanagement.repository.EntityVersions;
+import com.library.librarymanagement.repository.FieldSelection;
+import com.library.librarymanagement.repository.KeysetPaginator;
+import com.library.librarymanagement.repository.ProjectedQueries;
 import com.library.librarymanagement.repository.MemberRepository;
+import com.library.librarymanagement.search.SearchIndexService;
 
 @Service
 public class MemberService {
 
+    private static final Set<String> SORTABLE_FIELDS = Set.of("id", "name", "email");
+
+    private static final Set<String> FIELDS = Set.of("id", "name", "email", "phone", "address", "borrowedBooks",
+            "version");
+
     @Autowired
     private MemberRepository memberRepository;
 
     @Autowired
     private BorrowedBookRepository borrowedBookRepository;
 
+    @Autowired
+    private KeysetPaginator keysetPaginator;
+
+    @Autowired
+    private ProjectedQueries projectedQueries;
+
+    @Autowired
+    private EntityCaches entityCaches;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private EntityVersions entityVersions;
+
     public List<Member> findAll() {
-        List<Member> members = memberRepository.findAll();
+        return findAll(null);
+    }
+
+    public List<Member> findAll(String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, FIELDS);
+        List<Member> members = projectedQueries.findAll(Member.class, selection);
         // Populate borrowed books for each member
-        for (Member member : members) {
-            populateBorrowedBooks(member);
-        }
+        populateBorrowedBooks(members, selection);
         return members;
     }
 
+    public CursorPage<Member> findPage(CursorPageRequest request, String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, FIELDS);
+        CursorPage<Member> page = keysetPaginator.find(Member.class, new Criteria(), request, SORTABLE_FIELDS,
+                selection);
+        // Populate borrowed books for each member on the page
+        populateBorrowedBooks(page.getItems(), selection);
+        return page;
+    }
+
     public Optional<Member> findById(String id) {
-        Optional<Member> memberOpt = memberRepository.findById(id);
+        return findById(id, null);
+    }
+
+    public Optional<Member> findById(String id, String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, FIELDS);
+        Optional<Member> memberOpt = projectedQueries.findById(Member.class, id, selection);
         if (memberOpt.isPresent()) {
             Member member = memberOpt.get();
-            populateBorrowedBooks(member);
+            populateBorrowedBooks(List.of(member), selection);
             return Optional.of(member);
         }
         return Optional.empty();
     }
 
+    public Optional<Long> findVersion(String id) {
+        return entityVersions.versionOf(Member.class, id);
+    }
+
+    public String fingerprint() {
+        return entityVersions.fingerprint(Member.class);
+    }
+
+    public String fingerprint(CursorPageRequest request) {
+        return entityVersions.fingerprint(Member.class, new Criteria(), request, SORTABLE_FIELDS);
+    }
+
     public Member save(Member member) {
-        return memberRepository.save(member);
+        Member saved = memberRepository.save(member);
+        entityCaches.members().invalidate(saved.getId());
+        // Keep the name/email snapshot on this member's loans in sync
+        borrowedBookRepository.updateMemberSnapshot(saved.getId(), saved.getName(), saved.getEmail());
+        touchLoans(saved.getId());
+        searchIndexService.indexMember(saved);
+        return saved;
     }
 
     public void deleteById(String id) {
         memberRepository.deleteById(id);
+        entityCaches.members().invalidate(id);
+        searchIndexService.removeMember(id);
     }
 
-    public List<Member> searchMembers(String keyword) {
-        List<Member> members = memberRepository
-                .findByNameContainingIgnoreCaseOrEmailContainingIgnoreCaseOrPhoneContaining(
-                        keyword, keyword, keyword);
-        // Populate borrowed books for each member
-        for (Member member : members) {
-            populateBorrowedBooks(member);
+    // Bumps the version of a member whose loans changed
+    public void touch(String memberId) {
+        if (memberId == null) {
+            return;
+        }
+        entityVersions.touch(Member.class, memberId);
+        entityCaches.members().invalidate(memberId);
+        touchLoans(memberId);
+    }
+
+    public void touchAll(Collection<String> memberIds) {
+        if (memberIds.isEmpty()) {
+            return;
         }
+        entityVersions.touchAll(Member.class, Criteria.where("id").in(memberIds));
+        memberIds.forEach(entityCaches.members()::invalidate);
+        entityVersions.touchAll(BorrowedBook.class, Criteria.where("member.$id").in(DbRefs.objectIds(memberIds)));
+    }
+
+    // Each loan renders its member with the member's version
+    private void touchLoans(String memberId) {
+        if (ObjectId.isValid(memberId)) {
+            entityVersions.touchAll(BorrowedBook.class, Criteria.where("member.$id").is(new ObjectId(memberId)));
+        }
+    }
+
+    public List<Member> searchMembers(String keyword, String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, FIELDS);
+        // Matching ids come from the in-memory index, the documents from one $in query
+        List<Member> members = projectedQueries.findAllById(Member.class, searchIndexService.searchMembers(keyword),
+                selection);
+        // Populate borrowed books for each member
+        populateBorrowedBooks(members, selection);
         return members;
     }
 
@@ -78,6 +174,16 @@ public class MemberService {
         return Optional.empty();
     }
 
+    // Borrowed books are only resolved when selected
+    private void populateBorrowedBooks(List<Member> members, FieldSelection fields) {
+        if (!fields.includes("borrowedBooks")) {
+            return;
+        }
+        for (Member member : members) {
+            populateBorrowedBooks(member);
+        }
+    }
+
     private void populateBorrowedBooks(Member member) {
         if (member != null && member.getId() != null) {
             List<BorrowedBook> borrowedBooks = borrowedBookRepository.findByMemberId(member.getId());
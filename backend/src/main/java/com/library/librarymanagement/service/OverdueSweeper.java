@@ -0,0 +1,140 @@
+package com.library.librarymanagement.service;
+
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.library.librarymanagement.model.BorrowedBook;
+import com.library.librarymanagement.repository.BorrowedBookRepository;
+import com.library.librarymanagement.repository.MarkedLoans;
+
+// Flags active loans OVERDUE once their due date has passed. The first sweep after startup catches up
+// on every due date before today; later ones only cover the days since the previous sweep, so the
+// update is a narrow range on the active_due_date index and runs at most once a day. Loans created or
+// edited with a past due date are flagged by BorrowedBookService as they are saved.
+@Component
+public class OverdueSweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(OverdueSweeper.class);
+
+    @Autowired
+    private BorrowedBookRepository borrowedBookRepository;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private MemberService memberService;
+
+    @Value("${loans.overdue-sweep.enabled:true}")
+    private boolean enabled;
+
+    // Kept in step by BorrowedBookService between sweeps and recounted by each sweep, which also picks
+    // up changes made through other instances
+    private final AtomicLong overdueLoans = new AtomicLong();
+
+    private volatile boolean ready;
+
+    private volatile boolean recountPending;
+
+    // Exclusive upper bound of the due dates covered so far; null until the catch-up sweep succeeds
+    private LocalDate sweptBefore;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void catchUp() {
+        if (!enabled) {
+            return;
+        }
+        // Seeding runs before this event, so the catch-up sees the sample and synthetic loans too
+        ready = true;
+        sweep();
+    }
+
+    @Scheduled(fixedDelayString = "${loans.overdue-sweep.interval:PT1M}",
+            initialDelayString = "${loans.overdue-sweep.interval:PT1M}")
+    public void scheduledSweep() {
+        if (ready) {
+            sweep();
+        }
+    }
+
+    synchronized void sweep() {
+        LocalDate today = LocalDate.now();
+        if (today.equals(sweptBefore)) {
+            if (recountPending) {
+                recount();
+            }
+            return;
+        }
+        try {
+            if (sweptBefore == null) {
+                MarkedLoans returned = touch(borrowedBookRepository.markReturned());
+                if (returned.getModified() > 0) {
+                    log.info("Marked {} returned loans RETURNED", returned.getModified());
+                }
+            }
+            long flagged = touch(borrowedBookRepository.markOverdue(sweptBefore, today)).getModified();
+            recount();
+            if (flagged > 0) {
+                log.info("Flagged {} loans due before {} as OVERDUE, {} overdue in total", flagged, today,
+                        overdueLoans.get());
+            }
+            sweptBefore = today;
+        } catch (RuntimeException e) {
+            log.error("Overdue sweep failed", e);
+        }
+    }
+
+    // Books and members list their loans with the status, so their versions move with a sweep
+    private MarkedLoans touch(MarkedLoans marked) {
+        bookService.touchAll(marked.getBookIds());
+        memberService.touchAll(marked.getMemberIds());
+        return marked;
+    }
+
+    // Loan statuses changed elsewhere (see ChangeStreamSubscriber); recounted on the next scheduled run
+    // rather than once per change
+    public void recountSoon() {
+        recountPending = true;
+    }
+
+    private void recount() {
+        recountPending = false;
+        overdueLoans.set(borrowedBookRepository.countOverdue());
+    }
+
+    public long overdueLoans() {
+        return overdueLoans.get();
+    }
+
+    // The status a loan should carry today, as the sweeper would set it
+    public String statusOf(BorrowedBook loan) {
+        if (loan.getReturnDate() != null) {
+            return BorrowedBook.RETURNED;
+        }
+        if (loan.getDueDate() != null && loan.getDueDate().isBefore(LocalDate.now())) {
+            return BorrowedBook.OVERDUE;
+        }
+        return BorrowedBook.BORROWED;
+    }
+
+    public void statusChanged(String previous, String current) {
+        if (Objects.equals(previous, current)) {
+            return;
+        }
+        if (BorrowedBook.OVERDUE.equals(previous)) {
+            overdueLoans.decrementAndGet();
+        } else if (BorrowedBook.OVERDUE.equals(current)) {
+            overdueLoans.incrementAndGet();
+        }
+    }
+}
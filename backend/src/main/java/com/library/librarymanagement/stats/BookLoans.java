@@ -0,0 +1,32 @@
+package com.library.librarymanagement.stats;
+
+public class BookLoans {
+
+    private final String bookId;
+    private final String title;
+    private final String category;
+    private final long loans;
+
+    public BookLoans(String bookId, String title, String category, long loans) {
+        this.bookId = bookId;
+        this.title = title;
+        this.category = category;
+        this.loans = loans;
+    }
+
+    public String getBookId() {
+        return bookId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public long getLoans() {
+        return loans;
+    }
+}
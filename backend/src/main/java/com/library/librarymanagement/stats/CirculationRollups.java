@@ -0,0 +1,145 @@
+package com.library.librarymanagement.stats;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+// Loan counts per borrow date, per category and per book, with the books also kept ranked by count so the
+// top N is a walk of the first N entries, and the totals behind the average loan duration. Not thread
+// safe; CirculationStatsService guards it.
+final class CirculationRollups {
+
+    static final String UNCATEGORIZED = "Uncategorized";
+
+    private static final Comparator<BookLoans> RANKING = Comparator.comparingLong(BookLoans::getLoans).reversed()
+            .thenComparing(BookLoans::getBookId);
+
+    private final TreeMap<LocalDate, Long> loansPerDay = new TreeMap<>();
+    private final Map<String, Long> loansPerCategory = new HashMap<>();
+    private final Map<String, BookLoans> loansPerBook = new HashMap<>();
+    private final TreeSet<BookLoans> ranking = new TreeSet<>(RANKING);
+    private long totalLoans;
+    private long returnedLoans;
+    private long returnedLoanDays;
+    // Loans a rebuild read one by one, as borrowed and as returned; a change to one of them that the
+    // read already saw is not counted again
+    private final Set<String> countedLoans = new HashSet<>();
+    private final Set<String> countedReturns = new HashSet<>();
+
+    // A negative count takes loans back out (a deleted loan); title and category fall back to what is
+    // already known about the book
+    void addLoans(String bookId, String title, String category, LocalDate borrowDate, long count) {
+        BookLoans previous = bookId == null ? null : loansPerBook.get(bookId);
+        if (previous != null) {
+            ranking.remove(previous);
+            title = title != null ? title : previous.getTitle();
+            category = category != null ? category : previous.getCategory();
+        }
+        if (bookId != null) {
+            long loans = (previous == null ? 0 : previous.getLoans()) + count;
+            if (loans > 0) {
+                BookLoans current = new BookLoans(bookId, title, category, loans);
+                loansPerBook.put(bookId, current);
+                ranking.add(current);
+            } else {
+                loansPerBook.remove(bookId);
+            }
+        }
+        if (borrowDate != null) {
+            add(loansPerDay, borrowDate, count);
+        }
+        add(loansPerCategory, category == null ? UNCATEGORIZED : category, count);
+        totalLoans += count;
+    }
+
+    // Day counts of a rebuild, whose per-book pass leaves the dates out
+    void putDay(LocalDate borrowDate, long count) {
+        loansPerDay.put(borrowDate, count);
+    }
+
+    void addReturns(long count, long loanDays) {
+        returnedLoans += count;
+        returnedLoanDays += loanDays;
+    }
+
+    void countedLoan(String loanId) {
+        countedLoans.add(loanId);
+    }
+
+    void countedReturn(String loanId) {
+        countedReturns.add(loanId);
+    }
+
+    boolean isLoanCounted(String loanId) {
+        return loanId != null && countedLoans.contains(loanId);
+    }
+
+    boolean isReturnCounted(String loanId) {
+        return loanId != null && countedReturns.contains(loanId);
+    }
+
+    long getTotalLoans() {
+        return totalLoans;
+    }
+
+    long getReturnedLoans() {
+        return returnedLoans;
+    }
+
+    long getReturnedLoanDays() {
+        return returnedLoanDays;
+    }
+
+    int getBookCount() {
+        return loansPerBook.size();
+    }
+
+    NavigableMap<LocalDate, Long> getLoansPerDay() {
+        return loansPerDay;
+    }
+
+    BookLoans getBook(String bookId) {
+        return loansPerBook.get(bookId);
+    }
+
+    String categoryOf(String bookId) {
+        BookLoans book = loansPerBook.get(bookId);
+        return book == null ? null : book.getCategory();
+    }
+
+    List<BookLoans> top(int limit) {
+        List<BookLoans> top = new ArrayList<>(Math.min(limit, ranking.size()));
+        Iterator<BookLoans> iterator = ranking.iterator();
+        while (top.size() < limit && iterator.hasNext()) {
+            top.add(iterator.next());
+        }
+        return top;
+    }
+
+    Map<String, Long> categoriesByLoans() {
+        Map<String, Long> sorted = new LinkedHashMap<>();
+        loansPerCategory.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .forEach(entry -> sorted.put(entry.getKey(), entry.getValue()));
+        return sorted;
+    }
+
+    private static <K> void add(Map<K, Long> counts, K key, long count) {
+        long value = counts.getOrDefault(key, 0L) + count;
+        if (value > 0) {
+            counts.put(key, value);
+        } else {
+            counts.remove(key);
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package com.library.librarymanagement.stats;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.model.BorrowedBook;
+import com.mongodb.DBRef;
+
+// Circulation analytics served from in-memory rollups. BorrowedBookService applies each borrow, return
+// and deletion as it happens; the rollups are rebuilt from the loan history once the application is
+// ready (after seeding) and on an interval, which also folds in edited loans and writes made through
+// other instances.
+//
+// A rebuild aggregates the loans created before a read point, a minute before it starts, and returns
+// dated before the day before; last it reads the newer loans and returns one by one and remembers their
+// ids. Changes applied meanwhile are replayed onto the rebuilt rollups before the swap, and a borrow or
+// return of a loan that read already counted is skipped, there and after the swap. Whether the
+// aggregation still saw a loan deleted while it ran is unknown, so the rebuild is run again.
+@Service
+public class CirculationStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(CirculationStatsService.class);
+
+    private static final double MILLIS_PER_DAY = 24 * 60 * 60 * 1000;
+
+    public static final int MAX_DAYS = 366;
+
+    private static final Duration READ_POINT_MARGIN = Duration.ofMinutes(1);
+
+    private static final int REBUILD_ATTEMPTS = 3;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private CirculationRollups rollups = new CirculationRollups();
+
+    // Changes applied since the running rebuild started reading, null when none runs
+    private List<Consumer<CirculationRollups>> pending;
+
+    private ObjectId readPoint;
+
+    // An older loan was deleted while the running rebuild read the history
+    private boolean deletedDuringRead;
+
+    private volatile Instant rebuiltAt;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${stats.rebuild-interval:PT1H}",
+            initialDelayString = "${stats.rebuild-interval:PT1H}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    public synchronized Map<String, Object> rebuild() {
+        long start = System.currentTimeMillis();
+        for (int attempt = 1; ; attempt++) {
+            ObjectId point = new ObjectId(Date.from(Instant.now().minus(READ_POINT_MARGIN)));
+            lock.writeLock().lock();
+            try {
+                pending = new ArrayList<>();
+                readPoint = point;
+                deletedDuringRead = false;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            try {
+                CirculationRollups rebuilt = fromHistory(point, LocalDate.now().minusDays(1));
+                lock.writeLock().lock();
+                try {
+                    if (deletedDuringRead) {
+                        if (attempt < REBUILD_ATTEMPTS) {
+                            log.debug("A loan was deleted during the circulation stats rebuild, reading again");
+                            continue;
+                        }
+                        log.warn("Loans kept being deleted during the circulation stats rebuild; one may be "
+                                + "counted out twice until the next rebuild");
+                    }
+                    pending.forEach(change -> change.accept(rebuilt));
+                    rollups = rebuilt;
+                } finally {
+                    pending = null;
+                    readPoint = null;
+                    lock.writeLock().unlock();
+                }
+                rebuiltAt = Instant.now();
+                log.info("Circulation stats rebuilt in {} ms: {} loans of {} books",
+                        System.currentTimeMillis() - start, rebuilt.getTotalLoans(), rebuilt.getBookCount());
+            } catch (RuntimeException e) {
+                lock.writeLock().lock();
+                try {
+                    pending = null;
+                    readPoint = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                log.error("Circulation stats rebuild failed", e);
+            }
+            return summary();
+        }
+    }
+
+    public void borrowed(String loanId, String bookId, String title, String category, LocalDate borrowDate) {
+        apply(target -> {
+            if (!target.isLoanCounted(loanId)) {
+                target.addLoans(bookId, title, category, borrowDate, 1);
+            }
+        }, null);
+    }
+
+    public void returned(String loanId, LocalDate borrowDate, LocalDate returnDate) {
+        if (borrowDate == null || returnDate == null) {
+            return;
+        }
+        long days = ChronoUnit.DAYS.between(borrowDate, returnDate);
+        apply(target -> {
+            if (!target.isReturnCounted(loanId)) {
+                target.addReturns(1, days);
+            }
+        }, null);
+    }
+
+    // Takes the loan back out of every rollup it was counted in. A newer loan was either read by the
+    // rebuild and is taken out, or its borrow is replayed too.
+    public void deleted(String loanId, String bookId, LocalDate borrowDate, LocalDate returnDate) {
+        apply(target -> {
+            target.addLoans(bookId, null, target.categoryOf(bookId), borrowDate, -1);
+            if (borrowDate != null && returnDate != null) {
+                target.addReturns(-1, -ChronoUnit.DAYS.between(borrowDate, returnDate));
+            }
+        }, loanId);
+    }
+
+    private void apply(Consumer<CirculationRollups> change, String deletedLoanId) {
+        lock.writeLock().lock();
+        try {
+            change.accept(rollups);
+            if (pending != null) {
+                pending.add(change);
+                if (deletedLoanId != null && !isAfter(deletedLoanId, readPoint)) {
+                    deletedDuringRead = true;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Map<String, Object> summary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            summary.put("totalLoans", rollups.getTotalLoans());
+            summary.put("returnedLoans", rollups.getReturnedLoans());
+            summary.put("averageLoanDays", rollups.getReturnedLoans() == 0 ? 0.0
+                    : Math.round(100.0 * rollups.getReturnedLoanDays() / rollups.getReturnedLoans()) / 100.0);
+            summary.put("booksBorrowed", rollups.getBookCount());
+            NavigableMap<LocalDate, Long> days = rollups.getLoansPerDay();
+            summary.put("firstLoanDate", days.isEmpty() ? null : days.firstKey());
+            summary.put("lastLoanDate", days.isEmpty() ? null : days.lastKey());
+        } finally {
+            lock.readLock().unlock();
+        }
+        summary.put("rebuiltAt", rebuiltAt);
+        return summary;
+    }
+
+    // Every day in the range, including days without loans
+    public Map<LocalDate, Long> loansPerDay(LocalDate from, LocalDate to) {
+        if (from.isAfter(to) || ChronoUnit.DAYS.between(from, to) >= MAX_DAYS) {
+            throw new IllegalArgumentException("The range must run forward and span at most " + MAX_DAYS + " days");
+        }
+        Map<LocalDate, Long> days = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+                days.put(day, rollups.getLoansPerDay().getOrDefault(day, 0L));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return days;
+    }
+
+    public Map<String, Long> loansPerCategory() {
+        lock.readLock().lock();
+        try {
+            return rollups.categoriesByLoans();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<BookLoans> topBooks(int limit) {
+        lock.readLock().lock();
+        try {
+            return rollups.top(limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public BookLoans loansOf(String bookId) {
+        lock.readLock().lock();
+        try {
+            BookLoans book = rollups.getBook(bookId);
+            return book != null ? book : new BookLoans(bookId, null, null, 0);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Three pipelines over the loans before the read point: grouped by book (with title and category from
+    // books), by borrow date, and the count and summed length of those returned before the read day. Then
+    // the loans after the read point and the returns since the read day, one by one.
+    private CirculationRollups fromHistory(ObjectId point, LocalDate readDay) {
+        CirculationRollups rebuilt = new CirculationRollups();
+        // Also matches ids that are not ObjectIds, which sort before them
+        Document older = new Document("_id", new Document("$not", new Document("$gte", point)));
+        Date since = Date.from(readDay.atStartOfDay(ZoneId.systemDefault()).toInstant());
+        try (Stream<Document> books = aggregate(
+                stage("$match", older),
+                stage("$group", new Document("_id", "$book")
+                        .append("loans", new Document("$sum", 1))
+                        .append("title", new Document("$max", "$bookTitle"))),
+                stage("$lookup", new Document("from", mongoTemplate.getCollectionName(Book.class))
+                        .append("localField", "_id.$id")
+                        .append("foreignField", "_id")
+                        .append("as", "book")),
+                stage("$project", new Document("loans", 1)
+                        .append("title", new Document("$ifNull", Arrays.asList(first("$book.title"), "$title")))
+                        .append("category", first("$book.category"))))) {
+            books.forEach(book -> rebuilt.addLoans(idOf(book.get("_id")), book.getString("title"),
+                    book.getString("category"), null, count(book)));
+        }
+        try (Stream<Document> days = aggregate(
+                stage("$match", new Document(older).append("borrowDate", new Document("$ne", null))),
+                stage("$group", new Document("_id", "$borrowDate").append("loans", new Document("$sum", 1))))) {
+            days.forEach(day -> {
+                LocalDate date = localDate(day.get("_id"));
+                if (date != null) {
+                    rebuilt.putDay(date, count(day));
+                }
+            });
+        }
+        try (Stream<Document> returned = aggregate(
+                stage("$match", new Document(older).append("returnDate", new Document("$lt", since))
+                        .append("borrowDate", new Document("$ne", null))),
+                stage("$group", new Document("_id", null)
+                        .append("loans", new Document("$sum", 1))
+                        .append("millis", new Document("$sum",
+                                new Document("$subtract", List.of("$returnDate", "$borrowDate"))))))) {
+            returned.forEach(total -> rebuilt.addReturns(count(total),
+                    Math.round(((Number) total.get("millis")).doubleValue() / MILLIS_PER_DAY)));
+        }
+        try (Stream<Document> loans = aggregate(
+                stage("$match", new Document("$or", List.of(new Document("_id", new Document("$gte", point)),
+                        new Document("returnDate", new Document("$gte", since))))),
+                stage("$lookup", new Document("from", mongoTemplate.getCollectionName(Book.class))
+                        .append("localField", "book.$id")
+                        .append("foreignField", "_id")
+                        .append("as", "books")),
+                stage("$project", new Document("book", 1)
+                        .append("borrowDate", 1)
+                        .append("returnDate", 1)
+                        .append("title", new Document("$ifNull", Arrays.asList(first("$books.title"), "$bookTitle")))
+                        .append("category", first("$books.category"))))) {
+            loans.forEach(loan -> {
+                String loanId = loan.get("_id").toString();
+                LocalDate borrowDate = localDate(loan.get("borrowDate"));
+                LocalDate returnDate = localDate(loan.get("returnDate"));
+                if (isAfter(loanId, point)) {
+                    rebuilt.addLoans(idOf(loan.get("book")), loan.getString("title"), loan.getString("category"),
+                            borrowDate, 1);
+                    rebuilt.countedLoan(loanId);
+                }
+                if (returnDate != null) {
+                    if (borrowDate != null) {
+                        rebuilt.addReturns(1, ChronoUnit.DAYS.between(borrowDate, returnDate));
+                    }
+                    rebuilt.countedReturn(loanId);
+                }
+            });
+        }
+        return rebuilt;
+    }
+
+    private static boolean isAfter(String loanId, ObjectId point) {
+        return point != null && ObjectId.isValid(loanId) && new ObjectId(loanId).compareTo(point) >= 0;
+    }
+
+    private static LocalDate localDate(Object value) {
+        return value instanceof Date date ? date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate() : null;
+    }
+
+    private Stream<Document> aggregate(AggregationOperation... operations) {
+        Aggregation aggregation = Aggregation.newAggregation(operations)
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+        return mongoTemplate.aggregateStream(aggregation, mongoTemplate.getCollectionName(BorrowedBook.class),
+                Document.class);
+    }
+
+    private static AggregationOperation stage(String name, Document body) {
+        return context -> new Document(name, body);
+    }
+
+    private static Document first(String arrayField) {
+        return new Document("$arrayElemAt", Arrays.asList(arrayField, 0));
+    }
+
+    private static String idOf(Object ref) {
+        if (ref instanceof DBRef dbRef) {
+            return dbRef.getId().toString();
+        }
+        if (ref instanceof Document document && document.get("$id") != null) {
+            return document.get("$id").toString();
+        }
+        return null;
+    }
+
+    private static long count(Document document) {
+        Object value = document.get("loans");
+        return value instanceof Number number ? number.longValue() : 0;
+    }
+}
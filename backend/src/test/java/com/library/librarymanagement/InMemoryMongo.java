@@ -0,0 +1,27 @@
+package com.library.librarymanagement;
+
+import java.net.InetSocketAddress;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+
+// One in-process stand-in for MongoDB (mongo-java-server) shared by every test in the JVM, so the tests
+// run without a local mongod. It speaks the wire protocol but has no query planner, replica set or
+// change streams; tests that need those use Testcontainers instead.
+public final class InMemoryMongo {
+
+    private static MongoServer server;
+    private static InetSocketAddress address;
+
+    private InMemoryMongo() {
+    }
+
+    public static synchronized String uri(String database) {
+        if (server == null) {
+            server = new MongoServer(new MemoryBackend());
+            address = server.bind();
+            Runtime.getRuntime().addShutdownHook(new Thread(server::shutdownNow));
+        }
+        return "mongodb://" + address.getHostString() + ":" + address.getPort() + "/" + database;
+    }
+}
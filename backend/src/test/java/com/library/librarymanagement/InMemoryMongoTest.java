@@ -0,0 +1,21 @@
+package com.library.librarymanagement;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+// Base for tests that run the whole application against InMemoryMongo. Subclasses share one application
+// context and one database, which holds the sample data; each test creates the documents it asserts on.
+@SpringBootTest(classes = LibraryManagementApplication.class)
+@ActiveProfiles("test")
+public abstract class InMemoryMongoTest {
+
+    @DynamicPropertySource
+    static void mongo(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", () -> InMemoryMongo.uri("library_test"));
+        // The stand-in ignores secondary indexes, and building them from the background reconciler while
+        // DataInitializer inserts can fail the insert inside the stand-in
+        registry.add("indexes.reconcile.enabled", () -> "false");
+    }
+}
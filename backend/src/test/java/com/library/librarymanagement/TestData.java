@@ -0,0 +1,55 @@
+package com.library.librarymanagement;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.library.librarymanagement.model.Author;
+import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.model.BorrowedBook;
+import com.library.librarymanagement.model.Member;
+
+// Unsaved documents for tests; titles and emails carry a counter so they never collide across tests
+public final class TestData {
+
+    private static final AtomicLong COUNTER = new AtomicLong();
+
+    private TestData() {
+    }
+
+    public static Author author(String name) {
+        Author author = new Author();
+        author.setName(name + " " + COUNTER.incrementAndGet());
+        return author;
+    }
+
+    public static Book book(String title, int copies) {
+        Book book = new Book();
+        book.setTitle(title + " " + COUNTER.incrementAndGet());
+        book.setCategory("Test");
+        book.setPublishingYear(2000);
+        book.setTotalCopies(copies);
+        book.setAvailableCopies(copies);
+        return book;
+    }
+
+    public static Member member(String name) {
+        long n = COUNTER.incrementAndGet();
+        Member member = new Member();
+        member.setName(name + " " + n);
+        member.setEmail("member" + n + "@test.example");
+        return member;
+    }
+
+    public static BorrowedBook loan(String bookId, String memberId) {
+        Book book = new Book();
+        book.setId(bookId);
+        Member member = new Member();
+        member.setId(memberId);
+        BorrowedBook loan = new BorrowedBook();
+        loan.setBook(book);
+        loan.setMember(member);
+        loan.setBorrowDate(LocalDate.now());
+        loan.setDueDate(LocalDate.now().plusDays(14));
+        return loan;
+    }
+}
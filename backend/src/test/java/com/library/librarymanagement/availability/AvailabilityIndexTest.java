@@ -0,0 +1,127 @@
+package com.library.librarymanagement.availability;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class AvailabilityIndexTest {
+
+    private final AvailabilityIndex index = new AvailabilityIndex();
+
+    @Test
+    void booksWithACopyOnTheShelfAreListed() {
+        index.put("a", 2, 3);
+        index.put("b", 0, 1);
+
+        assertThat(index.available("a")).isEqualTo(2);
+        assertThat(index.available("b")).isZero();
+        assertThat(index.available("missing")).isEqualTo(AvailabilityIndex.UNKNOWN);
+        assertThat(index.availableBooks()).extracting(AvailabilityIndex.Copies::getId).containsExactly("a");
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.availableCount()).isEqualTo(1);
+        assertThat(index.availableCopies()).isEqualTo(2);
+    }
+
+    @Test
+    void copiesStayBetweenZeroAndTheTotal() {
+        index.put("a", 1, 2);
+
+        index.increment("a");
+        index.increment("a");
+        assertThat(index.available("a")).isEqualTo(2);
+
+        index.decrement("a");
+        index.decrement("a");
+        index.decrement("a");
+        assertThat(index.available("a")).isZero();
+        assertThat(index.availableCount()).isZero();
+
+        index.increment("a");
+        assertThat(index.availableBooks()).extracting(AvailabilityIndex.Copies::getAvailable).containsExactly(1);
+
+        // Unknown books are left alone
+        index.increment("missing");
+        index.decrement("missing");
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void freedSlotsAreReused() {
+        index.put("a", 1, 1);
+        index.put("b", 1, 1);
+        index.put("c", 1, 1);
+
+        index.remove("b");
+        index.put("d", 1, 1);
+
+        // Listed in slot order; d took the slot b left
+        assertThat(index.availableBooks()).extracting(AvailabilityIndex.Copies::getId).containsExactly("a", "d", "c");
+        assertThat(index.available("b")).isEqualTo(AvailabilityIndex.UNKNOWN);
+    }
+
+    @Test
+    void theArraysGrowPastTheInitialCapacity() {
+        for (int i = 0; i < 3000; i++) {
+            index.put("book-" + i, i % 3, 2);
+        }
+
+        assertThat(index.size()).isEqualTo(3000);
+        assertThat(index.available("book-2999")).isEqualTo(2);
+        assertThat(index.availableCount()).isEqualTo(2000);
+        assertThat(index.availableCopies()).isEqualTo(1000 + 2 * 1000);
+    }
+
+    @Test
+    void reconcileSkipsBooksWrittenAfterTheStamp() {
+        index.put("stale", 1, 1);
+        index.put("changed", 3, 3);
+        long since = index.stamp();
+        index.decrement("changed");
+
+        // Read from Mongo before the decrement
+        assertThat(index.reconcile("changed", 3, 3, since)).isFalse();
+        assertThat(index.available("changed")).isEqualTo(2);
+
+        assertThat(index.reconcile("stale", 0, 1, since)).isTrue();
+        assertThat(index.available("stale")).isZero();
+        assertThat(index.reconcile("stale", 0, 1, since)).isFalse();
+
+        assertThat(index.reconcile("new", 4, 5, since)).isTrue();
+        assertThat(index.available("new")).isEqualTo(4);
+    }
+
+    @Test
+    void reconcileDoesNotBringBackBooksRemovedAfterTheStamp() {
+        index.put("deleted", 1, 1);
+        index.put("recreated", 1, 1);
+        index.remove("recreated");
+        long since = index.stamp();
+        index.remove("deleted");
+
+        assertThat(index.reconcile("deleted", 1, 1, since)).isFalse();
+        assertThat(index.available("deleted")).isEqualTo(AvailabilityIndex.UNKNOWN);
+
+        // Removed before the pass started reading, so Mongo has it again
+        assertThat(index.reconcile("recreated", 1, 1, since)).isTrue();
+        assertThat(index.available("recreated")).isEqualTo(1);
+    }
+
+    @Test
+    void retainOnlyDropsUnseenBooksWrittenBeforeTheStamp() {
+        index.put("seen", 1, 1);
+        index.put("gone", 1, 1);
+        long since = index.stamp();
+        index.put("added", 1, 1);
+
+        Set<String> seen = new HashSet<>(Set.of("seen"));
+        assertThat(index.retainOnly(seen, since)).isEqualTo(1);
+
+        assertThat(index.available("gone")).isEqualTo(AvailabilityIndex.UNKNOWN);
+        assertThat(index.available("seen")).isEqualTo(1);
+        assertThat(index.available("added")).isEqualTo(1);
+        assertThat(index.availableCount()).isEqualTo(2);
+    }
+}
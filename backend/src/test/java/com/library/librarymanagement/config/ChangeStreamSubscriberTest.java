@@ -0,0 +1,142 @@
+package com.library.librarymanagement.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import com.library.librarymanagement.LibraryManagementApplication;
+import com.library.librarymanagement.availability.AvailabilityIndex;
+import com.library.librarymanagement.availability.AvailabilityService;
+import com.library.librarymanagement.cache.EntityCaches;
+import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.repository.BookRepository;
+import com.library.librarymanagement.search.SearchIndexService;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Updates;
+
+// The subscriber against a single-node replica set. Writes go straight to the collections, as another
+// instance's would, so only the change stream can bring them into this instance's caches and indexes.
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(classes = LibraryManagementApplication.class)
+@ActiveProfiles("test")
+class ChangeStreamSubscriberTest {
+
+    private static final String SUBSCRIBER = "change-stream-test";
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(20);
+
+    @Container
+    static final MongoDBContainer MONGO = new MongoDBContainer(DockerImageName.parse("mongo:7.0"));
+
+    @DynamicPropertySource
+    static void mongo(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", () -> MONGO.getReplicaSetUrl("library_changes"));
+        registry.add("changestreams.enabled", () -> "true");
+        registry.add("changestreams.subscriber-id", () -> SUBSCRIBER);
+    }
+
+    @Autowired
+    private ChangeStreamSubscriber subscriber;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private EntityCaches entityCaches;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @Test
+    void foreignWritesReachCachesAndIndexes() {
+        String id = insertBook("Tidewater Almanac", 4);
+        await().atMost(TIMEOUT).until(() -> searchIndexService.searchBooks("Tidewater").contains(id));
+        await().atMost(TIMEOUT).until(() -> availableCopies(id) == 4);
+
+        // Cached, then changed behind the cache's back
+        assertThat(entityCaches.books().get(id, bookRepository::findById)).map(Book::getTitle)
+                .contains("Tidewater Almanac");
+        books().updateOne(Filters.eq("_id", new ObjectId(id)),
+                Updates.combine(Updates.set("title", "Riverbend Almanac"), Updates.set("availableCopies", 1)));
+        await().atMost(TIMEOUT).untilAsserted(() -> {
+            assertThat(entityCaches.books().get(id, bookRepository::findById)).map(Book::getTitle)
+                    .contains("Riverbend Almanac");
+            assertThat(searchIndexService.searchBooks("Riverbend")).contains(id);
+            assertThat(searchIndexService.searchBooks("Tidewater")).doesNotContain(id);
+            assertThat(availableCopies(id)).isEqualTo(1);
+        });
+
+        books().deleteOne(Filters.eq("_id", new ObjectId(id)));
+        await().atMost(TIMEOUT).until(() -> !searchIndexService.searchBooks("Riverbend").contains(id));
+    }
+
+    @Test
+    void resumesFromTheSavedTokenAfterARestart() {
+        await().atMost(TIMEOUT).until(() -> savedToken() != null);
+
+        subscriber.stop();
+        // The subscriber thread saves its token on the way out
+        await().atMost(TIMEOUT).until(() -> !subscriberRunning());
+        BsonDocument token = savedToken();
+        assertThat(token).isNotNull();
+
+        // Written while nothing is listening: a fresh stream would start after it and never see it
+        String id = insertBook("Lanternfish Ledger", 2);
+        assertThat(searchIndexService.searchBooks("Lanternfish")).doesNotContain(id);
+
+        subscriber.start();
+        await().atMost(TIMEOUT).until(() -> searchIndexService.searchBooks("Lanternfish").contains(id));
+        await().atMost(TIMEOUT).until(() -> !token.equals(savedToken()));
+    }
+
+    private String insertBook(String title, int copies) {
+        ObjectId id = new ObjectId();
+        books().insertOne(new Document("_id", id).append("version", 0L).append("title", title)
+                .append("category", "Test").append("publishingYear", 2000)
+                .append("totalCopies", copies).append("availableCopies", copies));
+        return id.toHexString();
+    }
+
+    private long availableCopies(String id) {
+        return availabilityService.availableBooks().stream().filter(copies -> copies.getId().equals(id))
+                .mapToLong(AvailabilityIndex.Copies::getAvailable).findFirst().orElse(0);
+    }
+
+    private BsonDocument savedToken() {
+        BsonDocument state = mongoTemplate.getDb().getCollection("change_stream_state", BsonDocument.class)
+                .find(Filters.eq("_id", SUBSCRIBER)).first();
+        return state != null && state.isDocument("resumeToken") ? state.getDocument("resumeToken") : null;
+    }
+
+    private static boolean subscriberRunning() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .anyMatch(thread -> thread.getName().equals("change-stream-subscriber"));
+    }
+
+    private MongoCollection<Document> books() {
+        return mongoTemplate.getCollection("books");
+    }
+}
@@ -0,0 +1,228 @@
+package com.library.librarymanagement.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import com.library.librarymanagement.LibraryManagementApplication;
+import com.library.librarymanagement.TestData;
+import com.library.librarymanagement.model.Author;
+import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.repository.BookRepository;
+import com.library.librarymanagement.repository.BorrowedBookRepository;
+import com.library.librarymanagement.repository.FieldSelection;
+import com.library.librarymanagement.service.AuthorService;
+import com.library.librarymanagement.service.BookService;
+import com.library.librarymanagement.service.BorrowedBookService;
+import com.library.librarymanagement.service.MemberService;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+
+// Runs every query the repositories issue against a real mongod with the declared index catalogue and
+// explains it: a winning plan that scans the whole collection fails the test. The commands are the ones
+// the driver actually sent, so derived queries, @Query strings and pipelines are checked as executed.
+// The unused regex finders (findBy...ContainingIgnoreCase) are left out: an unanchored regex cannot be
+// bounded by an index.
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(classes = { LibraryManagementApplication.class, IndexUsageTest.CommandRecorder.class })
+@ActiveProfiles("test")
+class IndexUsageTest {
+
+    private static final Set<String> EXPLAINABLE = Set.of("find", "aggregate", "count", "findAndModify",
+            "update");
+
+    // Commands sent by the calling thread while a query runs
+    private static final ThreadLocal<List<BsonDocument>> RECORDED = new ThreadLocal<>();
+
+    @Container
+    static final MongoDBContainer MONGO = new MongoDBContainer(DockerImageName.parse("mongo:7.0"));
+
+    @DynamicPropertySource
+    static void mongo(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", () -> MONGO.getReplicaSetUrl("library_indexes"));
+        // Indexes are created synchronously below instead of by the background reconciler
+        registry.add("indexes.reconcile.enabled", () -> "false");
+        registry.add("loans.overdue-sweep.enabled", () -> "false");
+    }
+
+    @TestConfiguration
+    static class CommandRecorder {
+
+        @Bean
+        MongoClientSettingsBuilderCustomizer commandRecorder() {
+            return builder -> builder.addCommandListener(new CommandListener() {
+                @Override
+                public void commandStarted(CommandStartedEvent event) {
+                    List<BsonDocument> recorded = RECORDED.get();
+                    if (recorded != null && EXPLAINABLE.contains(event.getCommandName())) {
+                        // The event's document is only valid during the callback
+                        recorded.add(event.getCommand().clone());
+                    }
+                }
+            });
+        }
+    }
+
+    @Autowired
+    private IndexInitializer indexInitializer;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BorrowedBookRepository borrowedBookRepository;
+
+    @Autowired
+    private AuthorService authorService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private MemberService memberService;
+
+    @Autowired
+    private BorrowedBookService borrowedBookService;
+
+    @TestFactory
+    Stream<DynamicTest> repositoryQueriesUseAnIndex() {
+        indexInitializer.reconcile();
+
+        Author author = authorService.save(TestData.author("Indexed"));
+        Book book = TestData.book("Indexed", 3);
+        book.setAuthor(author);
+        String bookId = bookService.save(book).getId();
+        String memberId = memberService.save(TestData.member("Indexed")).getId();
+        String loanId = borrowedBookService.borrowBook(TestData.loan(bookId, memberId)).getId();
+        LocalDate today = LocalDate.now();
+
+        Map<String, Runnable> queries = Map.ofEntries(
+                Map.entry("BookRepository.findByAuthorId", () -> bookRepository.findByAuthorId(author.getId())),
+                Map.entry("BookRepository.findByAvailableCopiesGreaterThan",
+                        () -> bookRepository.findByAvailableCopiesGreaterThan(0)),
+                Map.entry("BookRepository.decrementAvailableCopies",
+                        () -> bookRepository.decrementAvailableCopies(bookId)),
+                Map.entry("BookRepository.incrementAvailableCopies",
+                        () -> bookRepository.incrementAvailableCopies(bookId)),
+                Map.entry("BorrowedBookRepository.findByMemberId",
+                        () -> borrowedBookRepository.findByMemberId(memberId)),
+                Map.entry("BorrowedBookRepository.findByBookId", () -> borrowedBookRepository.findByBookId(bookId)),
+                Map.entry("BorrowedBookRepository.findByBookIdIn",
+                        () -> borrowedBookRepository.findByBookIdIn(List.of(new ObjectId(bookId)))),
+                Map.entry("BorrowedBookRepository.findByReturnDateIsNull",
+                        () -> borrowedBookRepository.findByReturnDateIsNull()),
+                Map.entry("BorrowedBookRepository.findByDueDateBeforeAndReturnDateIsNull",
+                        () -> borrowedBookRepository.findByDueDateBeforeAndReturnDateIsNull(today)),
+                Map.entry("BorrowedBookRepository.findByBorrowDateBetween",
+                        () -> borrowedBookRepository.findByBorrowDateBetween(today.minusDays(7), today)),
+                Map.entry("BorrowedBookRepository.findActiveWithRelationships",
+                        () -> borrowedBookRepository.findActiveWithRelationships()),
+                Map.entry("BorrowedBookRepository.findOverdueWithRelationships",
+                        () -> borrowedBookRepository.findOverdueWithRelationships()),
+                Map.entry("BorrowedBookRepository.findByMemberIdWithRelationships",
+                        () -> borrowedBookRepository.findByMemberIdWithRelationships(memberId)),
+                Map.entry("BorrowedBookRepository.findByBookIdWithRelationships",
+                        () -> borrowedBookRepository.findByBookIdWithRelationships(bookId)),
+                Map.entry("BorrowedBookRepository.findByBookIdInOrMemberIdInOrBorrowDateWithRelationships",
+                        () -> borrowedBookRepository.findByBookIdInOrMemberIdInOrBorrowDateWithRelationships(
+                                List.of(bookId), List.of(memberId), today, FieldSelection.ALL)),
+                Map.entry("BorrowedBookRepository.markOverdue",
+                        () -> borrowedBookRepository.markOverdue(today.minusDays(1), today)),
+                Map.entry("BorrowedBookRepository.countOverdue", () -> borrowedBookRepository.countOverdue()),
+                Map.entry("BorrowedBookRepository.returnIfActive",
+                        () -> borrowedBookRepository.returnIfActive(loanId, today)));
+
+        return queries.entrySet().stream().sorted(Map.Entry.comparingByKey())
+                .map(query -> DynamicTest.dynamicTest(query.getKey(), () -> assertIndexed(query.getValue())));
+    }
+
+    private void assertIndexed(Runnable query) {
+        List<BsonDocument> commands = new ArrayList<>();
+        RECORDED.set(commands);
+        try {
+            query.run();
+        } finally {
+            RECORDED.remove();
+        }
+        assertThat(commands).as("explainable commands").isNotEmpty();
+        for (BsonDocument command : commands) {
+            List<Document> plans = new ArrayList<>();
+            collectWinningPlans(mongoTemplate.getDb().runCommand(explain(command)), plans);
+            assertThat(plans).as("winning plans of %s", command.toJson()).isNotEmpty();
+            for (Document plan : plans) {
+                assertThat(stagesOf(plan, new ArrayList<>()))
+                        .as("winning plan of %s:%n%s", command.toJson(), plan.toJson())
+                        .doesNotContain("COLLSCAN");
+            }
+        }
+    }
+
+    // Session, cluster time and the other driver-added fields are not accepted inside explain
+    private static BsonDocument explain(BsonDocument command) {
+        BsonDocument explained = new BsonDocument();
+        command.forEach((key, value) -> {
+            if (!key.startsWith("$") && !key.equals("lsid") && !key.equals("txnNumber")) {
+                explained.put(key, value);
+            }
+        });
+        return new BsonDocument("explain", explained).append("verbosity", new BsonString("queryPlanner"));
+    }
+
+    // Aggregations report the plan of their $cursor stage, finds at the top level
+    private static void collectWinningPlans(Object value, List<Document> plans) {
+        if (value instanceof Document document) {
+            document.forEach((key, nested) -> {
+                if (key.equals("winningPlan") && nested instanceof Document plan) {
+                    plans.add(plan);
+                } else {
+                    collectWinningPlans(nested, plans);
+                }
+            });
+        } else if (value instanceof List<?> list) {
+            list.forEach(item -> collectWinningPlans(item, plans));
+        }
+    }
+
+    private static List<String> stagesOf(Object value, List<String> stages) {
+        if (value instanceof Document document) {
+            document.forEach((key, nested) -> {
+                if (key.equals("stage") && nested instanceof String stage) {
+                    stages.add(stage);
+                } else {
+                    stagesOf(nested, stages);
+                }
+            });
+        } else if (value instanceof List<?> list) {
+            list.forEach(item -> stagesOf(item, stages));
+        }
+        return stages;
+    }
+}
@@ -0,0 +1,144 @@
+package com.library.librarymanagement.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.librarymanagement.InMemoryMongoTest;
+import com.library.librarymanagement.TestData;
+import com.library.librarymanagement.config.BinaryFormatsConfig;
+import com.library.librarymanagement.model.Author;
+import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.repository.CursorPageRequest;
+import com.library.librarymanagement.service.AuthorService;
+import com.library.librarymanagement.service.BookService;
+import com.library.librarymanagement.service.BorrowedBookService;
+import com.library.librarymanagement.service.MemberService;
+
+// JSON, Smile and CBOR for the book and loan lists. Each format must carry the same document as JSON in
+// fewer bytes; the CPU time to encode the list is logged per format, but not asserted since it depends
+// on the machine (backend-bench's SerializationBenchmark measures it on a seeded dataset).
+@AutoConfigureMockMvc
+class BinaryFormatsTest extends InMemoryMongoTest {
+
+    private static final Logger log = LoggerFactory.getLogger(BinaryFormatsTest.class);
+
+    private static final int ITEMS = 50;
+    private static final int ITERATIONS = 200;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MappingJackson2HttpMessageConverter jsonConverter;
+
+    @Autowired
+    private MappingJackson2SmileHttpMessageConverter smileConverter;
+
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+
+    @Autowired
+    private AuthorService authorService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private MemberService memberService;
+
+    @Autowired
+    private BorrowedBookService borrowedBookService;
+
+    @BeforeEach
+    void addBorrowedBooks() {
+        Author author = authorService.save(TestData.author("Encoded"));
+        String memberId = memberService.save(TestData.member("Encoded Reader")).getId();
+        for (int i = 0; i < ITEMS; i++) {
+            Book book = TestData.book("Encoded", 2);
+            book.setAuthor(author);
+            book = bookService.save(book);
+            borrowedBookService.borrowBook(TestData.loan(book.getId(), memberId));
+        }
+    }
+
+    @Test
+    void bookListInEveryFormat() throws Exception {
+        compareFormats("/api/books?limit=" + ITEMS,
+                bookService.findPage(new CursorPageRequest(ITEMS, null, null), null).getItems());
+    }
+
+    @Test
+    void loanListInEveryFormat() throws Exception {
+        compareFormats("/api/borrowed-books?limit=" + ITEMS,
+                borrowedBookService.findPage(new CursorPageRequest(ITEMS, null, null), null).getItems());
+    }
+
+    private void compareFormats(String url, List<?> items) throws Exception {
+        Map<MediaType, ObjectMapper> formats = new LinkedHashMap<>();
+        formats.put(MediaType.APPLICATION_JSON, jsonConverter.getObjectMapper());
+        formats.put(BinaryFormatsConfig.SMILE, smileConverter.getObjectMapper());
+        formats.put(MediaType.APPLICATION_CBOR, cborConverter.getObjectMapper());
+
+        ObjectMapper json = jsonConverter.getObjectMapper();
+        JsonNode expected = null;
+        int jsonBytes = 0;
+        List<String> rows = new ArrayList<>();
+        for (Map.Entry<MediaType, ObjectMapper> format : formats.entrySet()) {
+            MvcResult result = mockMvc.perform(get(url).accept(format.getKey()))
+                    .andExpect(status().isOk()).andReturn();
+            MediaType contentType = MediaType.parseMediaType(result.getResponse().getContentType());
+            assertThat(contentType.isCompatibleWith(format.getKey())).as("Content-Type %s", contentType).isTrue();
+            assertThat(result.getResponse().getHeaders(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT);
+            byte[] body = result.getResponse().getContentAsByteArray();
+            // Read back and re-read as JSON, so integer widths chosen by the encoder do not matter
+            JsonNode document = json.readTree(json.writeValueAsBytes(format.getValue().readTree(body)));
+            if (expected == null) {
+                expected = document;
+                jsonBytes = body.length;
+                assertThat(expected.size()).isEqualTo(ITEMS);
+            } else {
+                assertThat(document).as("%s body of %s", format.getKey(), url).isEqualTo(expected);
+                assertThat(body.length).as("%s bytes of %s", format.getKey(), url).isLessThan(jsonBytes);
+            }
+            rows.add(String.format("%-26s %10d bytes %8d us", format.getKey(), body.length,
+                    encodeMicros(format.getValue(), items)));
+        }
+        log.info("{} ({} items), CPU time per encode:\n{}", url, items.size(), String.join("\n", rows));
+    }
+
+    private static long encodeMicros(ObjectMapper mapper, List<?> items) throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < ITERATIONS; i++) {
+            mapper.writeValueAsBytes(items);
+        }
+        long start = threads.getCurrentThreadCpuTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            mapper.writeValueAsBytes(items);
+        }
+        return (threads.getCurrentThreadCpuTime() - start) / ITERATIONS / 1000;
+    }
+}
@@ -0,0 +1,102 @@
+package com.library.librarymanagement.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.library.librarymanagement.InMemoryMongoTest;
+import com.library.librarymanagement.TestData;
+import com.library.librarymanagement.cache.EntityCaches;
+import com.library.librarymanagement.model.Author;
+import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.service.AuthorService;
+import com.library.librarymanagement.service.BookService;
+import com.library.librarymanagement.service.BorrowedBookService;
+import com.library.librarymanagement.service.MemberService;
+
+// GET /api/books against the per-request Mongo budget. X-Mongo-Commands is the request's MongoQueryTally,
+// so it counts the ETag fingerprint, the page query and the author and loan lookups together. A page
+// costs the same however many books the catalogue holds.
+@AutoConfigureMockMvc
+class BookListQueryBudgetTest extends InMemoryMongoTest {
+
+    private static final int BOOKS_PER_ROUND = 60;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthorService authorService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private MemberService memberService;
+
+    @Autowired
+    private BorrowedBookService borrowedBookService;
+
+    @Autowired
+    private EntityCaches entityCaches;
+
+    @Value("${mongo.query-budget.commands}")
+    private int commandBudget;
+
+    @Test
+    void pageCommandCountStaysWithinBudgetAsTheCatalogueGrows() throws Exception {
+        Map<Integer, Integer> commands = new LinkedHashMap<>();
+        for (int round = 1; round <= 3; round++) {
+            addBorrowedBooks(BOOKS_PER_ROUND);
+            commands.put(round * BOOKS_PER_ROUND, commandsOf("/api/books"));
+        }
+        assertThat(commands.values()).as("commands per books added %s", commands)
+                .allSatisfy(count -> assertThat(count).isPositive().isLessThanOrEqualTo(commandBudget))
+                .containsOnly(commands.get(BOOKS_PER_ROUND));
+    }
+
+    @Test
+    void unpagedListStaysWithinBudget() throws Exception {
+        addBorrowedBooks(BOOKS_PER_ROUND);
+        assertThat(commandsOf("/api/books?unpaged=true")).isPositive().isLessThanOrEqualTo(commandBudget);
+    }
+
+    @Test
+    void sparseFieldsNeedNoRelationshipLookups() throws Exception {
+        addBorrowedBooks(BOOKS_PER_ROUND);
+        assertThat(commandsOf("/api/books?fields=id,title"))
+                .isLessThan(commandsOf("/api/books"));
+    }
+
+    private void addBorrowedBooks(int count) {
+        Author author = authorService.save(TestData.author("Budgeted"));
+        String memberId = memberService.save(TestData.member("Budget Reader")).getId();
+        for (int i = 0; i < count; i++) {
+            Book book = TestData.book("Budgeted", 2);
+            book.setAuthor(author);
+            book = bookService.save(book);
+            borrowedBookService.borrowBook(TestData.loan(book.getId(), memberId));
+        }
+    }
+
+    // Caches are emptied first so every request pays for its lookups
+    private int commandsOf(String url) throws Exception {
+        entityCaches.authors().invalidateAll();
+        entityCaches.books().invalidateAll();
+        entityCaches.members().invalidateAll();
+        MvcResult result = mockMvc.perform(get(url)).andExpect(status().isOk()).andReturn();
+        String commands = result.getResponse().getHeader("X-Mongo-Commands");
+        assertThat(commands).as("X-Mongo-Commands on %s", url).isNotNull();
+        return Integer.parseInt(commands);
+    }
+}
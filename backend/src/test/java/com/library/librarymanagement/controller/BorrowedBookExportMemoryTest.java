@@ -0,0 +1,191 @@
+package com.library.librarymanagement.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import com.library.librarymanagement.LibraryManagementApplication;
+import com.mongodb.DBRef;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoDatabase;
+
+// Exports a few hundred thousand loans from an application started in a child JVM with a small heap.
+// The export, about 180 MB of NDJSON, is several times that heap, so it only completes if documents go
+// from the cursor to the response one at a time instead of being collected into a list first.
+// Needs a real mongod: InMemoryMongo answers an aggregation with every result in its first batch.
+@Testcontainers(disabledWithoutDocker = true)
+class BorrowedBookExportMemoryTest {
+
+    private static final int LOANS = 300_000;
+    private static final int BOOKS = 500;
+    private static final int MEMBERS = 1_000;
+    private static final String MAX_HEAP = "-Xmx96m";
+
+    @Container
+    static final MongoDBContainer MONGO = new MongoDBContainer(DockerImageName.parse("mongo:7.0"));
+
+    @Test
+    void exportsEveryLoanWithinASmallHeap() throws Exception {
+        String uri = MONGO.getReplicaSetUrl("library_export");
+        try (MongoClient client = MongoClients.create(uri)) {
+            seed(client.getDatabase("library_export"));
+        }
+
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        Path output = Files.createTempFile("export-memory-test", ".log");
+        Process application = new ProcessBuilder(javaExecutable(), MAX_HEAP, "-XX:+ExitOnOutOfMemoryError",
+                "-cp", System.getProperty("surefire.test.class.path", System.getProperty("java.class.path")),
+                LibraryManagementApplication.class.getName(),
+                "--spring.profiles.active=test",
+                "--spring.data.mongodb.uri=" + uri,
+                "--server.port=" + port,
+                "--loans.overdue-sweep.enabled=false")
+                .redirectErrorStream(true)
+                .redirectOutput(output.toFile())
+                .start();
+        try {
+            HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+            awaitStarted(http, port, application, output);
+
+            HttpResponse<InputStream> response = http.send(HttpRequest.newBuilder(
+                    URI.create("http://localhost:" + port + "/api/borrowed-books/export"))
+                    .timeout(Duration.ofMinutes(10)).build(), HttpResponse.BodyHandlers.ofInputStream());
+            assertThat(response.statusCode()).as("export failed:%n%s", tail(output)).isEqualTo(200);
+            long lines = 0;
+            long bytes = 0;
+            String first = null;
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (first == null) {
+                        first = line;
+                    }
+                    bytes += line.length() + 1;
+                    lines++;
+                }
+            }
+            assertThat(application.isAlive()).as("application died during the export:%n%s", tail(output)).isTrue();
+            assertThat(lines).isEqualTo(LOANS);
+            assertThat(first).contains("\"bookTitle\"").contains("\"memberName\"");
+            // Well over the heap the application had
+            assertThat(bytes).isGreaterThan(96L * 1024 * 1024);
+        } finally {
+            application.destroyForcibly().waitFor();
+            Files.deleteIfExists(output);
+        }
+    }
+
+    private static void seed(MongoDatabase database) {
+        List<ObjectId> bookIds = new ArrayList<>();
+        List<Document> books = new ArrayList<>();
+        for (int i = 0; i < BOOKS; i++) {
+            ObjectId id = new ObjectId();
+            bookIds.add(id);
+            books.add(new Document("_id", id).append("version", 0L).append("title", "Export Book " + i)
+                    .append("category", "Export").append("publishingYear", 2000).append("isbn", "isbn-" + i)
+                    .append("totalCopies", 1000).append("availableCopies", 1000));
+        }
+        database.getCollection("books").insertMany(books);
+        List<ObjectId> memberIds = new ArrayList<>();
+        List<Document> members = new ArrayList<>();
+        for (int i = 0; i < MEMBERS; i++) {
+            ObjectId id = new ObjectId();
+            memberIds.add(id);
+            members.add(new Document("_id", id).append("version", 0L).append("name", "Export Member " + i)
+                    .append("email", "export" + i + "@test.example"));
+        }
+        database.getCollection("members").insertMany(members);
+
+        // Returned loans with their snapshot filled, so no startup task has anything to update
+        LocalDate start = LocalDate.now().minusYears(3);
+        List<Document> batch = new ArrayList<>();
+        for (int i = 0; i < LOANS; i++) {
+            int book = i % BOOKS;
+            int member = i % MEMBERS;
+            LocalDate borrowed = start.plusDays(i % 1000);
+            batch.add(new Document("_id", new ObjectId()).append("version", 0L)
+                    .append("book", new DBRef("books", bookIds.get(book)))
+                    .append("member", new DBRef("members", memberIds.get(member)))
+                    .append("borrowDate", date(borrowed))
+                    .append("dueDate", date(borrowed.plusDays(14)))
+                    .append("returnDate", date(borrowed.plusDays(7)))
+                    .append("status", "RETURNED")
+                    .append("bookTitle", "Export Book " + book).append("bookIsbn", "isbn-" + book)
+                    .append("memberName", "Export Member " + member)
+                    .append("memberEmail", "export" + member + "@test.example"));
+            if (batch.size() == 10_000) {
+                database.getCollection("borrowed_books").insertMany(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            database.getCollection("borrowed_books").insertMany(batch);
+        }
+    }
+
+    private static Date date(LocalDate day) {
+        return Date.from(day.atStartOfDay(ZoneOffset.UTC).toInstant());
+    }
+
+    private static void awaitStarted(HttpClient http, int port, Process application, Path output) throws Exception {
+        HttpRequest health = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/health"))
+                .timeout(Duration.ofSeconds(5)).build();
+        long deadline = System.currentTimeMillis() + Duration.ofMinutes(3).toMillis();
+        while (System.currentTimeMillis() < deadline) {
+            if (!application.isAlive()) {
+                fail("Application exited before it started:%n%s", tail(output));
+            }
+            try {
+                if (http.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(500);
+        }
+        fail("Application did not start within 3 minutes:%n%s", tail(output));
+    }
+
+    private static String javaExecutable() {
+        return System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+    }
+
+    // The end of the application log, without stack frames so the exception messages fit
+    private static String tail(Path output) throws IOException {
+        List<String> lines = Files.readAllLines(output).stream().filter(line -> !line.startsWith("\tat ")).toList();
+        return String.join(System.lineSeparator(), lines.subList(Math.max(0, lines.size() - 40), lines.size()));
+    }
+}
@@ -0,0 +1,129 @@
+package com.library.librarymanagement.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.librarymanagement.InMemoryMongoTest;
+import com.library.librarymanagement.TestData;
+import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.repository.BookRepository;
+import com.library.librarymanagement.service.AuthorService;
+import com.library.librarymanagement.service.BookService;
+import com.library.librarymanagement.service.BorrowedBookService;
+import com.library.librarymanagement.service.MemberService;
+
+// PUT /{id} is conditional: 428 without If-Match, 412 for a tag of another version, 200 and the new
+// tag for the current one
+@AutoConfigureMockMvc
+class ConditionalUpdateTest extends InMemoryMongoTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private AuthorService authorService;
+
+    @Autowired
+    private MemberService memberService;
+
+    @Autowired
+    private BorrowedBookService borrowedBookService;
+
+    @Test
+    void updateWithoutIfMatchIsRefused() throws Exception {
+        Book book = bookService.save(TestData.book("Unconditional", 2));
+
+        mockMvc.perform(bookUpdate(book.getId(), "Blind overwrite")).andExpect(status().isPreconditionRequired());
+        mockMvc.perform(bookUpdate(book.getId(), "Blind overwrite").header(HttpHeaders.IF_MATCH, " "))
+                .andExpect(status().isPreconditionRequired());
+
+        assertThat(bookRepository.findById(book.getId()).orElseThrow().getTitle()).isEqualTo(book.getTitle());
+    }
+
+    @Test
+    void updateWithAStaleTagFails() throws Exception {
+        Book book = bookService.save(TestData.book("Stale", 2));
+        String etag = mockMvc.perform(get("/api/books/" + book.getId())).andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        // Someone else saves first
+        Book other = bookRepository.findById(book.getId()).orElseThrow();
+        other.setCategory("Changed");
+        bookService.save(other);
+
+        mockMvc.perform(bookUpdate(book.getId(), "Lost update").header(HttpHeaders.IF_MATCH, etag))
+                .andExpect(status().isPreconditionFailed());
+        // Weak tags never pass the strong comparison
+        mockMvc.perform(bookUpdate(book.getId(), "Lost update").header(HttpHeaders.IF_MATCH, "W/" + etag))
+                .andExpect(status().isPreconditionFailed());
+
+        assertThat(bookRepository.findById(book.getId()).orElseThrow().getTitle()).isEqualTo(book.getTitle());
+    }
+
+    @Test
+    void updateWithTheCurrentTagSucceeds() throws Exception {
+        Book book = bookService.save(TestData.book("Current", 2));
+        String etag = mockMvc.perform(get("/api/books/" + book.getId())).andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        String updated = mockMvc.perform(bookUpdate(book.getId(), "Edited").header(HttpHeaders.IF_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertThat(updated).isNotEqualTo(etag);
+        assertThat(bookRepository.findById(book.getId()).orElseThrow().getTitle()).isEqualTo("Edited");
+        // The tag the edit started from is now stale
+        mockMvc.perform(bookUpdate(book.getId(), "Edited again").header(HttpHeaders.IF_MATCH, etag))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(bookUpdate(book.getId(), "Edited again").header(HttpHeaders.IF_MATCH, "*"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void everyUpdateEndpointRequiresIfMatch() throws Exception {
+        String authorId = authorService.save(TestData.author("Conditional")).getId();
+        String memberId = memberService.save(TestData.member("Conditional")).getId();
+        String bookId = bookService.save(TestData.book("Conditional", 1)).getId();
+        String loanId = borrowedBookService.borrowBook(TestData.loan(bookId, memberId)).getId();
+
+        mockMvc.perform(json(put("/api/authors/" + authorId), Map.of("name", "Renamed")))
+                .andExpect(status().isPreconditionRequired());
+        mockMvc.perform(json(put("/api/members/" + memberId),
+                Map.of("name", "Renamed", "email", "renamed." + memberId + "@test.example")))
+                .andExpect(status().isPreconditionRequired());
+        mockMvc.perform(json(put("/api/borrowed-books/" + loanId), Map.of("borrowDate", "2024-01-01")))
+                .andExpect(status().isPreconditionRequired());
+    }
+
+    private MockHttpServletRequestBuilder bookUpdate(String id, String title) throws Exception {
+        return json(put("/api/books/" + id),
+                Map.of("title", title, "category", "Test", "publishingYear", 2000, "totalCopies", 2,
+                        "availableCopies", 2));
+    }
+
+    private MockHttpServletRequestBuilder json(MockHttpServletRequestBuilder request, Map<String, Object> body)
+            throws Exception {
+        return request.contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(body));
+    }
+}
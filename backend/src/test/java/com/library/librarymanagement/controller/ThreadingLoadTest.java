@@ -0,0 +1,164 @@
+package com.library.librarymanagement.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.library.librarymanagement.InMemoryMongo;
+import com.library.librarymanagement.LibraryManagementApplication;
+
+// GET /api/books?limit=50 from 2000 concurrent clients, once with Tomcat and the relationship lookups on
+// platform threads and once on virtual threads (JDK 21 only; skipped otherwise). Both runs use the same
+// database; throughput and latency percentiles are logged side by side. Every request must succeed: a
+// client left waiting past the timeout counts as a failure. Takes a minute or more, so it is tagged out of
+// the default build and runs with -Pvirtual-threads.
+@Tag("load")
+class ThreadingLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ThreadingLoadTest.class);
+
+    private static final int CLIENTS = 2000;
+    private static final Duration WARM_UP = Duration.ofSeconds(5);
+    private static final Duration MEASURED = Duration.ofSeconds(15);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(60);
+
+    private static final Map<String, LoadResult> RESULTS = new ConcurrentHashMap<>();
+
+    @Test
+    void platformThreads() throws Exception {
+        record("platform", false);
+    }
+
+    @Test
+    void virtualThreads() throws Exception {
+        assumeTrue(Runtime.version().feature() >= 21, "virtual threads need JDK 21");
+        record("virtual", true);
+    }
+
+    @AfterAll
+    static void compare() {
+        RESULTS.forEach((threads, result) -> log.info("{} threads: {}", threads, result));
+        LoadResult platform = RESULTS.get("platform");
+        LoadResult virtual = RESULTS.get("virtual");
+        if (platform != null && virtual != null) {
+            log.info("virtual/platform: throughput x{}, p99 x{}",
+                    String.format("%.2f", virtual.throughput() / platform.throughput()),
+                    String.format("%.2f", (double) virtual.percentile(0.99) / platform.percentile(0.99)));
+        }
+    }
+
+    private static void record(String threads, boolean virtual) throws Exception {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(LibraryManagementApplication.class)
+                .profiles("test")
+                .run("--spring.data.mongodb.uri=" + InMemoryMongo.uri("library_load"),
+                        "--server.port=0",
+                        "--loans.overdue-sweep.enabled=false",
+                        "--spring.threads.virtual.enabled=" + virtual);
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            LoadResult result = drive(URI.create("http://localhost:" + port + "/api/books?limit=50"));
+            RESULTS.put(threads, result);
+            assertThat(result.failures()).as("failed requests with %s threads: %s", threads, result).isZero();
+            assertThat(result.requests()).isPositive();
+        } finally {
+            context.close();
+        }
+    }
+
+    private static LoadResult drive(URI uri) throws InterruptedException {
+        HttpClient http = HttpClient.newBuilder().connectTimeout(REQUEST_TIMEOUT).build();
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(REQUEST_TIMEOUT).build();
+        AtomicLong failures = new AtomicLong();
+        long measureFrom = System.nanoTime() + WARM_UP.toNanos();
+        long stopAt = measureFrom + MEASURED.toNanos();
+        // Each client keeps its own latencies, merged once all have stopped
+        long[][] latencies = new long[CLIENTS][];
+        CountDownLatch done = new CountDownLatch(CLIENTS);
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        for (int i = 0; i < CLIENTS; i++) {
+            int client = i;
+            clients.execute(() -> {
+                long[] measured = new long[1024];
+                int count = 0;
+                try {
+                    while (System.nanoTime() < stopAt) {
+                        long start = System.nanoTime();
+                        boolean ok;
+                        try {
+                            ok = http.send(request, HttpResponse.BodyHandlers.ofByteArray()).statusCode() == 200;
+                        } catch (Exception e) {
+                            ok = false;
+                        }
+                        long end = System.nanoTime();
+                        // Failures count during the warm-up too; latencies only for requests completing
+                        // inside the measured window
+                        if (!ok) {
+                            failures.incrementAndGet();
+                        } else if (end >= measureFrom && end <= stopAt) {
+                            if (count == measured.length) {
+                                measured = Arrays.copyOf(measured, count * 2);
+                            }
+                            measured[count++] = end - start;
+                        }
+                    }
+                } finally {
+                    latencies[client] = Arrays.copyOf(measured, count);
+                    done.countDown();
+                }
+            });
+        }
+        boolean stopped = done.await(WARM_UP.plus(MEASURED).plus(REQUEST_TIMEOUT).toSeconds() + 30, TimeUnit.SECONDS);
+        clients.shutdownNow();
+        assertThat(stopped).as("clients still running").isTrue();
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        return new LoadResult(all, failures.get(), MEASURED);
+    }
+
+    record LoadResult(long[] latencies, long failures, Duration measured) {
+
+        long requests() {
+            return latencies.length;
+        }
+
+        double throughput() {
+            return latencies.length / (measured.toMillis() / 1000.0);
+        }
+
+        // Milliseconds
+        long percentile(double percentile) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * latencies.length) - 1;
+            return TimeUnit.NANOSECONDS.toMillis(latencies[Math.max(0, index)]);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d requests, %.1f req/s, p50 %d ms, p95 %d ms, p99 %d ms, %d failures",
+                    requests(), throughput(), percentile(0.50), percentile(0.95), percentile(0.99), failures);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.library.librarymanagement.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.library.librarymanagement.InMemoryMongoTest;
+import com.library.librarymanagement.TestData;
+import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.model.Member;
+import com.library.librarymanagement.repository.BookRepository;
+import com.library.librarymanagement.service.BookService;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// The unpaged list tag is the collection's write counter: revalidating issues no Mongo command, and any
+// write to the collection, from a service or straight through the template, changes the tag
+@AutoConfigureMockMvc
+class UnpagedListETagTest extends InMemoryMongoTest {
+
+    private static final String BOOKS = "/api/books?unpaged=true";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Test
+    void revalidationIssuesNoMongoCommands() throws Exception {
+        String etag = etagOf(BOOKS);
+        DistributionSummary before = booksListCommands();
+        long requests = before.count();
+        double commands = before.totalAmount();
+
+        mockMvc.perform(get(BOOKS).header(HttpHeaders.IF_NONE_MATCH, etag)).andExpect(status().isNotModified());
+
+        DistributionSummary after = booksListCommands();
+        assertThat(after.count()).isEqualTo(requests + 1);
+        assertThat(after.totalAmount()).isEqualTo(commands);
+    }
+
+    @Test
+    void everyWriteToTheCollectionChangesTheTag() throws Exception {
+        Book book = bookService.save(TestData.book("Tagged", 1));
+        String etag = etagOf(BOOKS);
+
+        // Not through any service
+        mongoTemplate.updateFirst(new Query(Criteria.where("id").is(book.getId())),
+                new Update().set("category", "Changed"), Book.class);
+        String afterUpdate = etagOf(BOOKS, etag);
+        assertThat(afterUpdate).isNotEqualTo(etag);
+
+        bookService.deleteById(book.getId());
+        assertThat(etagOf(BOOKS, afterUpdate)).isNotEqualTo(afterUpdate);
+    }
+
+    @Test
+    void writesThatChangeNothingKeepTheTag() throws Exception {
+        Book book = bookService.save(TestData.book("Exhausted", 0));
+        String etag = etagOf(BOOKS);
+
+        // The conditional $inc of a borrow with no copy left matches no document
+        assertThat(bookRepository.decrementAvailableCopies(book.getId())).isFalse();
+        // Other collections have their own counters
+        mongoTemplate.insert(TestData.member("Elsewhere"), "members");
+        mongoTemplate.count(new Query(), Member.class);
+
+        mockMvc.perform(get(BOOKS).header(HttpHeaders.IF_NONE_MATCH, etag)).andExpect(status().isNotModified());
+    }
+
+    private String etagOf(String url) throws Exception {
+        return mockMvc.perform(get(url)).andExpect(status().isOk()).andReturn().getResponse()
+                .getHeader(HttpHeaders.ETAG);
+    }
+
+    // Revalidates with the previous tag, which must no longer match
+    private String etagOf(String url, String previous) throws Exception {
+        return mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, previous)).andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private DistributionSummary booksListCommands() {
+        return meterRegistry.get("http.server.requests.mongo.commands").tags("method", "GET", "uri", "/api/books")
+                .summary();
+    }
+}
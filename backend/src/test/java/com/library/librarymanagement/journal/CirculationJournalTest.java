@@ -0,0 +1,219 @@
+package com.library.librarymanagement.journal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+// The journal on its own, over a temporary directory. A loan event with three ObjectIds is a 72-byte
+// record after the 8-byte segment header, so a 256-byte segment holds three of them.
+class CirculationJournalTest {
+
+    private static final int RECORD = 72;
+    private static final int HEADER = 8;
+    private static final int THREE_RECORDS = 256;
+
+    @TempDir
+    Path directory;
+
+    private final List<CirculationJournal> opened = new ArrayList<>();
+
+    @AfterEach
+    void closeJournals() {
+        opened.forEach(CirculationJournal::close);
+    }
+
+    @Test
+    void appendedEventsAreReplayedInOrderAfterARestart() throws IOException {
+        CirculationJournal journal = open(64 * 1024, Duration.ofDays(30), false);
+        CirculationEvent borrowed = loan(CirculationEvent.Type.BORROWED);
+        assertThat(journal.append(borrowed)).isEqualTo(1);
+        assertThat(journal.appendAll(List.of(loan(CirculationEvent.Type.RETURNED),
+                CirculationEvent.inventory(new ObjectId().toHexString(), 2, 3)))).isEqualTo(3);
+        journal.close();
+
+        CirculationJournal reopened = open(64 * 1024, Duration.ofDays(30), false);
+        List<CirculationEvent> events = replay(reopened, 1);
+        assertThat(events).extracting(CirculationEvent::getSequence).containsExactly(1L, 2L, 3L);
+        assertThat(events).extracting(CirculationEvent::getType).containsExactly(CirculationEvent.Type.BORROWED,
+                CirculationEvent.Type.RETURNED, CirculationEvent.Type.INVENTORY_CHANGED);
+        CirculationEvent first = events.get(0);
+        assertThat(first.getLoanId()).isEqualTo(borrowed.getLoanId());
+        assertThat(first.getBookId()).isEqualTo(borrowed.getBookId());
+        assertThat(first.getMemberId()).isEqualTo(borrowed.getMemberId());
+        assertThat(first.getDate()).isEqualTo(borrowed.getDate());
+        assertThat(first.getDueDate()).isEqualTo(borrowed.getDueDate());
+        assertThat(events.get(2).getAvailableCopies()).isEqualTo(2);
+        assertThat(events.get(2).getTotalCopies()).isEqualTo(3);
+        assertThat(replay(reopened, 3)).extracting(CirculationEvent::getSequence).containsExactly(3L);
+
+        assertThat(reopened.append(loan(CirculationEvent.Type.DELETED))).isEqualTo(4);
+    }
+
+    @Test
+    void appendsThatWaitForTheFlushAreDurable() throws IOException {
+        CirculationJournal journal = open(64 * 1024, Duration.ofDays(30), true);
+        for (int i = 1; i <= 5; i++) {
+            assertThat(journal.append(loan(CirculationEvent.Type.BORROWED))).isEqualTo(i);
+        }
+        assertThat(replay(journal, 1)).hasSize(5);
+    }
+
+    @Test
+    void garbageAfterTheLastRecordIsZeroedAndOverwritten() throws IOException {
+        CirculationJournal journal = open(64 * 1024, Duration.ofDays(30), false);
+        journal.appendAll(List.of(loan(CirculationEvent.Type.BORROWED), loan(CirculationEvent.Type.BORROWED),
+                loan(CirculationEvent.Type.BORROWED)));
+        journal.close();
+        Path segment = segment(1);
+        int end = HEADER + 3 * RECORD;
+        // An intact copy of the first record (out of sequence) behind the end, then noise
+        byte[] stale = read(segment, HEADER, RECORD);
+        write(segment, end, stale);
+        write(segment, end + RECORD, new byte[] { 0, 0, 0, 40, 1, 2, 3, 4, 5, 6, 7 });
+
+        CirculationJournal reopened = open(64 * 1024, Duration.ofDays(30), false);
+        assertThat(replay(reopened, 1)).extracting(CirculationEvent::getSequence).containsExactly(1L, 2L, 3L);
+        assertThat(read(segment, end, RECORD + 11)).containsOnly(0);
+
+        assertThat(reopened.append(loan(CirculationEvent.Type.RETURNED))).isEqualTo(4);
+        reopened.close();
+        assertThat(replay(open(64 * 1024, Duration.ofDays(30), false), 1))
+                .extracting(CirculationEvent::getSequence).containsExactly(1L, 2L, 3L, 4L);
+    }
+
+    @Test
+    void aTornRecordEndsTheJournalAndSetsLaterSegmentsAside() throws IOException {
+        CirculationJournal journal = open(THREE_RECORDS, Duration.ofDays(30), false);
+        for (int i = 0; i < 6; i++) {
+            journal.append(loan(CirculationEvent.Type.BORROWED));
+        }
+        journal.close();
+        assertThat(segment(4)).exists();
+        // A byte of the third record's body never reached the disk
+        int third = HEADER + 2 * RECORD;
+        byte[] body = read(segment(1), third + 20, 1);
+        write(segment(1), third + 20, new byte[] { (byte) (body[0] ^ 0x5A) });
+
+        CirculationJournal reopened = open(THREE_RECORDS, Duration.ofDays(30), false);
+        assertThat(replay(reopened, 1)).extracting(CirculationEvent::getSequence).containsExactly(1L, 2L);
+        assertThat(segment(4)).doesNotExist();
+        assertThat(directory.resolve(segment(4).getFileName() + ".corrupt")).exists();
+        assertThat(read(segment(1), third, RECORD)).containsOnly(0);
+
+        // The sequence continues from the torn record; rolling reuses the set-aside name safely
+        assertThat(reopened.append(loan(CirculationEvent.Type.RETURNED))).isEqualTo(3);
+        assertThat(reopened.append(loan(CirculationEvent.Type.RETURNED))).isEqualTo(4);
+        assertThat(segment(4)).exists();
+        assertThat(replay(reopened, 1)).extracting(CirculationEvent::getSequence).containsExactly(1L, 2L, 3L, 4L);
+    }
+
+    @Test
+    void fullSegmentsRollAndReplayAcrossThem() throws IOException {
+        CirculationJournal journal = open(THREE_RECORDS, Duration.ofDays(30), false);
+        for (int i = 0; i < 7; i++) {
+            journal.append(loan(CirculationEvent.Type.BORROWED));
+        }
+
+        assertThat(segment(1)).exists();
+        assertThat(segment(4)).exists();
+        assertThat(segment(7)).exists();
+        assertThat(journal.stats()).containsEntry("segments", 3).containsEntry("firstSequence", 1L)
+                .containsEntry("lastSequence", 7L);
+        assertThat(replay(journal, 1)).extracting(CirculationEvent::getSequence)
+                .containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L);
+        assertThat(replay(journal, 5)).extracting(CirculationEvent::getSequence).containsExactly(5L, 6L, 7L);
+
+        journal.close();
+        CirculationJournal reopened = open(THREE_RECORDS, Duration.ofDays(30), false);
+        assertThat(reopened.append(loan(CirculationEvent.Type.RETURNED))).isEqualTo(8);
+        assertThat(replay(reopened, 1)).hasSize(8);
+    }
+
+    @Test
+    void sealedSegmentsPastRetentionAreDeleted() throws Exception {
+        CirculationJournal journal = open(THREE_RECORDS, Duration.ofMillis(50), false);
+        for (int i = 0; i < 3; i++) {
+            journal.append(loan(CirculationEvent.Type.BORROWED));
+        }
+        Thread.sleep(100);
+        // Rolls; the sealed segment's last record is now older than the retention
+        journal.append(loan(CirculationEvent.Type.BORROWED));
+
+        assertThat(segment(1)).doesNotExist();
+        assertThat(journal.stats()).containsEntry("segments", 1).containsEntry("firstSequence", 4L);
+        assertThat(replay(journal, 1)).extracting(CirculationEvent::getSequence).containsExactly(4L);
+
+        // The active segment is kept however old it is
+        journal.close();
+        Thread.sleep(100);
+        CirculationJournal reopened = open(THREE_RECORDS, Duration.ofMillis(50), false);
+        assertThat(segment(4)).exists();
+        assertThat(reopened.append(loan(CirculationEvent.Type.BORROWED))).isEqualTo(5);
+    }
+
+    @Test
+    void recentSegmentsAreRetained() throws IOException {
+        CirculationJournal journal = open(THREE_RECORDS, Duration.ofDays(30), false);
+        for (int i = 0; i < 10; i++) {
+            journal.append(loan(CirculationEvent.Type.BORROWED));
+        }
+        assertThat(journal.stats()).containsEntry("segments", 4).containsEntry("firstSequence", 1L);
+    }
+
+    private CirculationJournal open(int segmentSize, Duration retention, boolean awaitFlush) throws IOException {
+        CirculationJournal journal = new CirculationJournal();
+        ReflectionTestUtils.setField(journal, "enabled", true);
+        ReflectionTestUtils.setField(journal, "directory", directory.toString());
+        ReflectionTestUtils.setField(journal, "segmentSize", DataSize.ofBytes(segmentSize));
+        ReflectionTestUtils.setField(journal, "groupCommit", Duration.ofMillis(1));
+        ReflectionTestUtils.setField(journal, "retention", retention);
+        ReflectionTestUtils.setField(journal, "awaitFlush", awaitFlush);
+        journal.open();
+        opened.add(journal);
+        return journal;
+    }
+
+    private static CirculationEvent loan(CirculationEvent.Type type) {
+        return CirculationEvent.loan(type, new ObjectId().toHexString(), new ObjectId().toHexString(),
+                new ObjectId().toHexString(), LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 15));
+    }
+
+    private static List<CirculationEvent> replay(CirculationJournal journal, long from) {
+        List<CirculationEvent> events = new ArrayList<>();
+        journal.replay(from, events::add);
+        return events;
+    }
+
+    private Path segment(long firstSequence) {
+        return JournalSegment.pathFor(directory, firstSequence);
+    }
+
+    private static byte[] read(Path file, int position, int length) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            channel.read(buffer, position);
+            return buffer.array();
+        }
+    }
+
+    private static void write(Path file, int position, byte[] bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(bytes), position);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.library.librarymanagement.reactive;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.librarymanagement.InMemoryMongo;
+import com.library.librarymanagement.InMemoryMongoTest;
+import com.library.librarymanagement.TestData;
+import com.library.librarymanagement.model.Author;
+import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.model.BorrowedBook;
+import com.library.librarymanagement.model.Member;
+import com.library.librarymanagement.repository.CursorPage;
+import com.library.librarymanagement.service.AuthorService;
+import com.library.librarymanagement.service.BookService;
+import com.library.librarymanagement.service.BorrowedBookService;
+import com.library.librarymanagement.service.MemberService;
+
+// The reactive variant answers the GETs it serves as the servlet controllers do, so a proxy can route
+// them either way: same bodies for searches, pages and field selections, the same cursors and page tags,
+// and 304 on revalidation. Both run against the same database.
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReactiveParityTest extends InMemoryMongoTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AuthorService authorService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private MemberService memberService;
+
+    @Autowired
+    private BorrowedBookService borrowedBookService;
+
+    // A borrow date no other loan in the shared database has
+    private static final LocalDate BORROWED_ON = LocalDate.of(1999, 12, 31);
+
+    private ConfigurableApplicationContext reactive;
+
+    private WebTestClient client;
+
+    private Book quill;
+
+    @BeforeAll
+    void startReactiveVariant() {
+        // Written first: without change streams the reactive instance only sees what its index loaded at
+        // startup until the next refresh
+        Author author = authorService.save(TestData.author("Zanthor Parity"));
+        quill = TestData.book("Parity Quill", 2);
+        quill.setAuthor(author);
+        quill = bookService.save(quill);
+        Book inkwell = TestData.book("Parity Inkwell", 1);
+        inkwell.setAuthor(author);
+        inkwell = bookService.save(inkwell);
+        Member member = memberService.save(TestData.member("Quentin Parity"));
+        borrowedBookService.borrowBook(TestData.loan(quill.getId(), member.getId()));
+        BorrowedBook dated = TestData.loan(inkwell.getId(), member.getId());
+        dated.setBorrowDate(BORROWED_ON);
+        borrowedBookService.borrowBook(dated);
+
+        reactive = new SpringApplicationBuilder(ReactiveLibraryApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .run("--server.port=0", "--spring.data.mongodb.uri=" + InMemoryMongo.uri("library_test"),
+                        "--changestreams.enabled=false", "--reactive.refresh-interval=PT1H");
+        int port = ((ReactiveWebServerApplicationContext) reactive).getWebServer().getPort();
+        client = WebTestClient.bindToServer().baseUrl("http://localhost:" + port).build();
+    }
+
+    @AfterAll
+    void stopReactiveVariant() {
+        if (reactive != null) {
+            reactive.close();
+        }
+    }
+
+    @Test
+    void searchesMatch() throws Exception {
+        for (String q : List.of("parity quill", "zanthor", "ink", "quentin parity", "Parity (Quill", "nothing-like-it")) {
+            assertSameBody("/api/books/search?q=" + q);
+            assertSameBody("/api/borrowed-books/search?q=" + q);
+        }
+        assertSameBody("/api/books/search?q=zanthor&fields=id,title");
+        assertThat(objectMapper.readTree(reactiveGet("/api/books/search?q=zanthor").getResponseBody()))
+                .hasSize(2);
+        assertThat(objectMapper.readTree(reactiveGet("/api/borrowed-books/search?q=quentin").getResponseBody()))
+                .hasSizeGreaterThanOrEqualTo(2);
+        // A date matches the borrow date exactly
+        String byDate = "/api/borrowed-books/search?q=" + BORROWED_ON;
+        assertSameBody(byDate);
+        assertThat(objectMapper.readTree(reactiveGet(byDate).getResponseBody()))
+                .extracting(loan -> loan.get("borrowDate").asText()).containsExactly(BORROWED_ON.toString());
+    }
+
+    @Test
+    void pagesMatch() throws Exception {
+        for (String list : List.of("/api/books?limit=3&sort=-title", "/api/books?limit=4&fields=id,title",
+                "/api/borrowed-books?limit=3&sort=-borrowDate", "/api/borrowed-books?limit=5&fields=id,bookTitle")) {
+            String url = list;
+            // The first pages, following the cursors of both variants
+            for (int page = 0; page < 3 && url != null; page++) {
+                MockHttpServletResponse servlet = mockMvc.perform(get(url)).andExpect(status().isOk()).andReturn()
+                        .getResponse();
+                EntityExchangeResult<byte[]> reactivePage = reactiveGet(url);
+                assertThat(tree(reactivePage.getResponseBody())).as(url)
+                        .isEqualTo(tree(servlet.getContentAsByteArray()));
+                String cursor = servlet.getHeader(CursorPage.NEXT_CURSOR_HEADER);
+                assertThat(reactivePage.getResponseHeaders().getFirst(CursorPage.NEXT_CURSOR_HEADER)).isEqualTo(cursor);
+                assertThat(reactivePage.getResponseHeaders().getETag()).isEqualTo(servlet.getHeader(HttpHeaders.ETAG));
+                url = cursor == null ? null : list + "&after=" + cursor;
+            }
+        }
+    }
+
+    @Test
+    void unpagedListsMatch() throws Exception {
+        assertSameBody("/api/books?unpaged=true");
+        assertSameBody("/api/borrowed-books?unpaged=true&fields=id,bookTitle,memberName,status");
+    }
+
+    @Test
+    void revalidationIsAnsweredWithNotModified() {
+        for (String url : List.of("/api/books?unpaged=true", "/api/books?limit=5",
+                "/api/borrowed-books?unpaged=true", "/api/borrowed-books?limit=5")) {
+            String etag = reactiveGet(url).getResponseHeaders().getETag();
+            assertThat(etag).as(url).startsWith("W/\"");
+            client.get().uri(url).header(HttpHeaders.IF_NONE_MATCH, etag).exchange()
+                    .expectStatus().isNotModified()
+                    .expectBody().isEmpty();
+        }
+    }
+
+    @Test
+    void pageTagsFollowWritesFromTheServletVariant() {
+        String url = "/api/books?limit=2&sort=-publishingYear";
+        String etag = reactiveGet(url).getResponseHeaders().getETag();
+
+        // Moves the book to the top of the page; the title, which the search tests match, stays
+        Book edited = bookService.findById(quill.getId()).orElseThrow();
+        edited.setPublishingYear(2999);
+        bookService.save(edited);
+
+        client.get().uri(url).header(HttpHeaders.IF_NONE_MATCH, etag).exchange()
+                .expectStatus().isOk()
+                .expectHeader().value(HttpHeaders.ETAG, value -> assertThat(value).isNotEqualTo(etag));
+    }
+
+    @Test
+    void badRequestsMatch() throws Exception {
+        for (String url : List.of("/api/books?sort=nope", "/api/books?limit=2&after=garbage",
+                "/api/borrowed-books?sort=nope", "/api/books/search?q=x&fields=nope")) {
+            int servlet = mockMvc.perform(get(url)).andReturn().getResponse().getStatus();
+            client.get().uri(url).exchange().expectStatus().isEqualTo(servlet);
+            assertThat(servlet).as(url).isEqualTo(400);
+        }
+    }
+
+    private void assertSameBody(String url) throws Exception {
+        MockHttpServletResponse servlet = mockMvc.perform(get(url)).andExpect(status().isOk()).andReturn()
+                .getResponse();
+        assertThat(sorted(tree(reactiveGet(url).getResponseBody()))).as(url)
+                .isEqualTo(sorted(tree(servlet.getContentAsByteArray())));
+    }
+
+    private EntityExchangeResult<byte[]> reactiveGet(String url) {
+        return client.get().uri(url).exchange().expectStatus().isOk().expectBody().returnResult();
+    }
+
+    private JsonNode tree(byte[] body) throws Exception {
+        return objectMapper.readTree(body);
+    }
+
+    // Searches and unpaged lists come in natural order, which the two drivers need not agree on
+    private static List<String> sorted(JsonNode items) {
+        List<String> sorted = new ArrayList<>();
+        items.forEach(item -> sorted.add(item.toString()));
+        sorted.sort(null);
+        return sorted;
+    }
+}
@@ -0,0 +1,102 @@
+package com.library.librarymanagement.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.library.librarymanagement.InMemoryMongoTest;
+import com.library.librarymanagement.TestData;
+import com.library.librarymanagement.cache.EntityCaches;
+import com.library.librarymanagement.config.MongoQueryTally;
+import com.library.librarymanagement.model.Author;
+import com.library.librarymanagement.model.Book;
+
+// Author and loans are resolved with one $in query per relationship, so the number of Mongo commands
+// behind a book list does not depend on how many books it holds. Sizes stay below the first cursor
+// batch (101 documents), where a getMore would legitimately add a command.
+class BookServiceHydrationTest extends InMemoryMongoTest {
+
+    private static final int[] SIZES = { 1, 20, 80 };
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private AuthorService authorService;
+
+    @Autowired
+    private MemberService memberService;
+
+    @Autowired
+    private BorrowedBookService borrowedBookService;
+
+    @Autowired
+    private EntityCaches entityCaches;
+
+    @Test
+    void findByAuthorIdCommandCountDoesNotGrowWithTheResult() {
+        Map<Integer, Integer> commands = new LinkedHashMap<>();
+        for (int size : SIZES) {
+            Author author = authorService.save(TestData.author("Prolific"));
+            createBorrowedBooks(author, "Shelf", size);
+            List<Book> books = bookService.findByAuthorId(author.getId());
+            assertHydrated(books, size);
+            commands.put(size, commandsOf(() -> bookService.findByAuthorId(author.getId())));
+        }
+        assertThat(commands.get(1)).isPositive();
+        assertThat(commands.values()).as("commands per result size %s", commands).containsOnly(commands.get(1));
+    }
+
+    @Test
+    void searchBooksCommandCountDoesNotGrowWithTheResult() {
+        Map<Integer, Integer> commands = new LinkedHashMap<>();
+        for (int size : SIZES) {
+            String keyword = "Searchable" + size;
+            createBorrowedBooks(authorService.save(TestData.author("Searched")), keyword, size);
+            List<Book> books = bookService.searchBooks(keyword, null);
+            assertHydrated(books, size);
+            commands.put(size, commandsOf(() -> bookService.searchBooks(keyword, null)));
+        }
+        assertThat(commands.get(1)).isPositive();
+        assertThat(commands.values()).as("commands per result size %s", commands).containsOnly(commands.get(1));
+    }
+
+    // One loan per book, so the loan lookup has something to stitch back
+    private void createBorrowedBooks(Author author, String title, int count) {
+        String memberId = memberService.save(TestData.member("Reader")).getId();
+        for (int i = 0; i < count; i++) {
+            Book book = TestData.book(title, 2);
+            book.setAuthor(author);
+            book = bookService.save(book);
+            borrowedBookService.borrowBook(TestData.loan(book.getId(), memberId));
+        }
+    }
+
+    private static void assertHydrated(List<Book> books, int size) {
+        assertThat(books).hasSize(size);
+        assertThat(books).allSatisfy(book -> {
+            assertThat(book.getAuthor().getName()).isNotNull();
+            assertThat(book.getBorrowedBooks()).hasSize(1);
+        });
+    }
+
+    // Caches are emptied first so every size pays for the same lookups
+    private int commandsOf(Supplier<?> call) {
+        entityCaches.authors().invalidateAll();
+        entityCaches.books().invalidateAll();
+        entityCaches.members().invalidateAll();
+        MongoQueryTally tally = MongoQueryTally.start();
+        try {
+            call.get();
+        } finally {
+            MongoQueryTally.finish();
+        }
+        return tally.getCommands();
+    }
+}
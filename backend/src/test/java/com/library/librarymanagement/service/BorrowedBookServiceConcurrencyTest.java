@@ -0,0 +1,295 @@
+package com.library.librarymanagement.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import com.library.librarymanagement.InMemoryMongoTest;
+import com.library.librarymanagement.TestData;
+import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.model.BorrowedBook;
+import com.library.librarymanagement.model.Member;
+import com.library.librarymanagement.repository.BookRepository;
+import com.library.librarymanagement.repository.BorrowedBookRepository;
+import com.library.librarymanagement.repository.MemberRepository;
+import com.library.librarymanagement.stats.CirculationStatsService;
+
+// Hundreds of borrowers and returners racing on one book: the conditional updates must neither oversell
+// copies nor put one back twice
+class BorrowedBookServiceConcurrencyTest extends InMemoryMongoTest {
+
+    private static final Logger log = LoggerFactory.getLogger(BorrowedBookServiceConcurrencyTest.class);
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private BorrowedBookService borrowedBookService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private MemberService memberService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BorrowedBookRepository borrowedBookRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private CirculationStatsService circulationStatsService;
+
+    private ExecutorService executor;
+
+    private final AtomicInteger conflicts = new AtomicInteger();
+
+    @BeforeEach
+    void startExecutor() {
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void stopExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentBorrowersNeverOversell() throws Exception {
+        int copies = 25;
+        int borrowers = 400;
+        Book book = bookService.save(TestData.book("Contended", copies));
+        List<String> memberIds = members(borrowers);
+
+        List<Boolean> outcomes = race(borrowers, i -> () -> {
+            try {
+                borrowedBookService.borrowBook(TestData.loan(book.getId(), memberIds.get(i)));
+                return true;
+            } catch (RuntimeException e) {
+                assertThat(e).hasMessage("No available copies for this book");
+                return false;
+            }
+        });
+
+        assertThat(outcomes.stream().filter(Boolean::booleanValue).count()).isEqualTo(copies);
+        assertThat(bookRepository.findById(book.getId()).orElseThrow().getAvailableCopies()).isZero();
+        assertThat(borrowedBookRepository.findAll().stream()
+                .filter(loan -> book.getId().equals(loan.getBook().getId()))
+                .filter(loan -> loan.getReturnDate() == null)
+                .count()).isEqualTo(copies);
+    }
+
+    @Test
+    void concurrentReturnsOfTheSameLoanPutOneCopyBack() throws Exception {
+        int copies = 20;
+        int returnsPerLoan = 10;
+        Book book = bookService.save(TestData.book("Returned", copies));
+        List<String> loanIds = new ArrayList<>();
+        for (String memberId : members(copies)) {
+            loanIds.add(borrowedBookService.borrowBook(TestData.loan(book.getId(), memberId)).getId());
+        }
+        assertThat(bookRepository.findById(book.getId()).orElseThrow().getAvailableCopies()).isZero();
+        // Keep one copy out so a double increment cannot hide behind the totalCopies cap
+        String keptOut = loanIds.remove(0);
+
+        List<Boolean> outcomes = race(loanIds.size() * returnsPerLoan,
+                i -> () -> borrowedBookService.returnBook(loanIds.get(i % loanIds.size())).isPresent());
+
+        assertThat(outcomes.stream().filter(Boolean::booleanValue).count()).isEqualTo(loanIds.size());
+        assertThat(bookRepository.findById(book.getId()).orElseThrow().getAvailableCopies())
+                .isEqualTo(copies - 1);
+        assertThat(borrowedBookRepository.findById(keptOut).orElseThrow().getReturnDate()).isNull();
+        for (String loanId : loanIds) {
+            BorrowedBook loan = borrowedBookRepository.findById(loanId).orElseThrow();
+            assertThat(loan.getStatus()).isEqualTo(BorrowedBook.RETURNED);
+            assertThat(loan.getReturnDate()).isEqualTo(LocalDate.now());
+        }
+    }
+
+    // The loan is already flipped to RETURNED when the copy is put back, so a book deleted in between
+    // must not fail the return half way: the remaining bookkeeping still runs and a retry is not needed
+    @Test
+    void returnOfALoanWhoseBookWasDeletedCompletes() {
+        Book book = bookService.save(TestData.book("Deleted", 1));
+        String memberId = members(1).get(0);
+        BorrowedBook overdue = TestData.loan(book.getId(), memberId);
+        overdue.setBorrowDate(LocalDate.now().minusDays(20));
+        overdue.setDueDate(LocalDate.now().minusDays(6));
+        String loanId = borrowedBookService.borrowBook(overdue).getId();
+        bookService.deleteById(book.getId());
+        long overdueBefore = borrowedBookService.countOverdueBooks();
+        long returnedBefore = (Long) circulationStatsService.summary().get("returnedLoans");
+        Long memberVersion = memberRepository.findById(memberId).map(Member::getVersion).orElseThrow();
+
+        BorrowedBook returned = borrowedBookService.returnBook(loanId).orElseThrow();
+
+        assertThat(returned.getStatus()).isEqualTo(BorrowedBook.RETURNED);
+        assertThat(borrowedBookRepository.findById(loanId).orElseThrow().getReturnDate()).isEqualTo(LocalDate.now());
+        assertThat(borrowedBookService.countOverdueBooks()).isEqualTo(overdueBefore - 1);
+        assertThat(circulationStatsService.summary().get("returnedLoans")).isEqualTo(returnedBefore + 1);
+        assertThat(memberRepository.findById(memberId).orElseThrow().getVersion()).isGreaterThan(memberVersion);
+        assertThat(bookRepository.existsById(book.getId())).isFalse();
+        // A second return finds nothing left to do
+        assertThat(borrowedBookService.returnBook(loanId)).isEmpty();
+    }
+
+    // Borrows per second of borrowBook (conditional $inc on the copy count, then the loan insert) against
+    // the read-modify-save it replaced (findById, decrement, versioned save, loan insert), with every
+    // thread on one book. Logged only, like the returns below.
+    @Test
+    void conditionalBorrowThroughput() throws Exception {
+        int loans = 200;
+        double conditional = borrowsPerSecond(loans, (bookId, memberId) -> {
+            borrowedBookService.borrowBook(TestData.loan(bookId, memberId));
+            return true;
+        });
+        conflicts.set(0);
+        double readModifySave = borrowsPerSecond(loans, this::readModifySaveBorrow);
+        log.info("Borrows per second with {} threads: conditional $inc {}, read-modify-save {} "
+                + "({} version conflicts retried)", THREADS, Math.round(conditional), Math.round(readModifySave),
+                conflicts.get());
+        assertThat(conditional).isPositive();
+        assertThat(readModifySave).isPositive();
+    }
+
+    private double borrowsPerSecond(int loans, BorrowPath path) throws Exception {
+        Book book = bookService.save(TestData.book("Borrowed", loans));
+        List<String> memberIds = members(loans);
+        long start = System.nanoTime();
+        List<Boolean> outcomes = race(loans, i -> () -> path.borrow(book.getId(), memberIds.get(i)));
+        double seconds = (System.nanoTime() - start) / 1e9;
+        assertThat(outcomes).containsOnly(true);
+        assertThat(bookRepository.findById(book.getId()).orElseThrow().getAvailableCopies()).isZero();
+        return loans / seconds;
+    }
+
+    // The decreaseAvailableCopies and borrowBook of before. Every borrower saves the same book, so all
+    // but one of the concurrent saves conflict and are retried from the read.
+    private boolean readModifySaveBorrow(String bookId, String memberId) {
+        while (true) {
+            Book book = bookRepository.findById(bookId).orElseThrow();
+            if (book.getAvailableCopies() <= 0) {
+                return false;
+            }
+            book.setAvailableCopies(book.getAvailableCopies() - 1);
+            try {
+                bookRepository.save(book);
+            } catch (OptimisticLockingFailureException e) {
+                conflicts.incrementAndGet();
+                continue;
+            }
+            borrowedBookRepository.save(TestData.loan(bookId, memberId));
+            return true;
+        }
+    }
+
+    // Returns per second of returnBook (one conditional findAndModify, then the copy) against the
+    // read-modify-write it replaced (findById, save, copy), over the same number of loans and threads.
+    // Logged only: the in-memory server says little about absolute numbers.
+    @Test
+    void conditionalReturnThroughput() throws Exception {
+        int loans = 200;
+        double conditional = returnsPerSecond(loans, loanId -> borrowedBookService.returnBook(loanId).isPresent());
+        conflicts.set(0);
+        double readModifyWrite = returnsPerSecond(loans, this::readModifyWriteReturn);
+        log.info("Returns per second with {} threads: conditional findAndModify {}, read-modify-write {} "
+                + "({} version conflicts retried)", THREADS, Math.round(conditional), Math.round(readModifyWrite),
+                conflicts.get());
+        assertThat(conditional).isPositive();
+        assertThat(readModifyWrite).isPositive();
+    }
+
+    private double returnsPerSecond(int loans, ReturnPath path) throws Exception {
+        Book book = bookService.save(TestData.book("Throughput", loans));
+        List<String> loanIds = new ArrayList<>();
+        for (String memberId : members(loans)) {
+            loanIds.add(borrowedBookService.borrowBook(TestData.loan(book.getId(), memberId)).getId());
+        }
+        long start = System.nanoTime();
+        List<Boolean> outcomes = race(loans, i -> () -> path.returnLoan(loanIds.get(i)));
+        double seconds = (System.nanoTime() - start) / 1e9;
+        assertThat(outcomes).containsOnly(true);
+        assertThat(bookRepository.findById(book.getId()).orElseThrow().getAvailableCopies()).isEqualTo(loans);
+        return loans / seconds;
+    }
+
+    // The returnBook of before. Returns of sibling loans move this loan's version (it renders the book),
+    // so the full-document save conflicts and is retried from the read, as a client would.
+    private boolean readModifyWriteReturn(String loanId) {
+        while (true) {
+            BorrowedBook loan = borrowedBookRepository.findById(loanId).orElseThrow();
+            if (loan.getReturnDate() != null) {
+                return false;
+            }
+            loan.setReturnDate(LocalDate.now());
+            loan.setStatus(BorrowedBook.RETURNED);
+            try {
+                borrowedBookRepository.save(loan);
+            } catch (OptimisticLockingFailureException e) {
+                conflicts.incrementAndGet();
+                continue;
+            }
+            bookService.increaseAvailableCopies(loan.getBook().getId());
+            return true;
+        }
+    }
+
+    private List<String> members(int count) {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(memberService.save(TestData.member("Borrower")).getId());
+        }
+        return ids;
+    }
+
+    // Runs the tasks on THREADS threads, all released at once
+    private <T> List<T> race(int tasks, TaskFactory<T> factory) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> futures = new ArrayList<>();
+        for (int i = 0; i < tasks; i++) {
+            Callable<T> task = factory.task(i);
+            futures.add(executor.submit(() -> {
+                start.await();
+                return task.call();
+            }));
+        }
+        start.countDown();
+        List<T> results = new ArrayList<>();
+        for (Future<T> future : futures) {
+            results.add(future.get(2, TimeUnit.MINUTES));
+        }
+        return results;
+    }
+
+    private interface TaskFactory<T> {
+        Callable<T> task(int index);
+    }
+
+    private interface BorrowPath {
+        boolean borrow(String bookId, String memberId);
+    }
+
+    private interface ReturnPath {
+        boolean returnLoan(String loanId);
+    }
+}
@@ -0,0 +1,133 @@
+package com.library.librarymanagement.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.library.librarymanagement.InMemoryMongoTest;
+import com.library.librarymanagement.TestData;
+import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.model.BorrowedBook;
+import com.library.librarymanagement.model.Member;
+import com.library.librarymanagement.repository.BorrowedBookRepository;
+
+// The $facet aggregation against the counts the find queries give. The loans here are borrowed far in
+// the future, so they are the most recent ones whatever else the shared database holds.
+class DashboardServiceTest extends InMemoryMongoTest {
+
+    private static final LocalDate FUTURE = LocalDate.now().plusYears(50);
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private BorrowedBookRepository borrowedBookRepository;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private MemberService memberService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private Book book;
+
+    private Member member;
+
+    private final List<String> inserted = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        book = bookService.save(TestData.book("Dashboard", 10));
+        member = memberService.save(TestData.member("Dashboard Reader"));
+        expireCache();
+    }
+
+    @AfterEach
+    void removeLoans() {
+        mongoTemplate.remove(new Query(Criteria.where("id").in(inserted)), BorrowedBook.class);
+        expireCache();
+    }
+
+    @Test
+    void countsMatchTheFindQueries() {
+        insert(FUTURE, null, BorrowedBook.BORROWED);
+        insert(FUTURE, null, BorrowedBook.OVERDUE);
+        insert(FUTURE, FUTURE.plusDays(3), BorrowedBook.RETURNED);
+        // A returned loan still reading OVERDUE is not counted as overdue
+        insert(FUTURE, FUTURE.plusDays(3), BorrowedBook.OVERDUE);
+
+        DashboardSummary summary = dashboardService.summary();
+
+        long loans = mongoTemplate.count(new Query(), BorrowedBook.class);
+        long active = mongoTemplate.count(new Query(Criteria.where("returnDate").is(null)), BorrowedBook.class);
+        assertThat(summary.getLoans()).isEqualTo(loans);
+        assertThat(summary.getActiveLoans()).isEqualTo(active);
+        assertThat(summary.getReturnedLoans()).isEqualTo(loans - active);
+        assertThat(summary.getOverdueLoans()).isEqualTo(borrowedBookRepository.countOverdue());
+        assertThat(summary.getBooks()).isEqualTo(mongoTemplate.count(new Query(), Book.class));
+        assertThat(summary.getMembers()).isEqualTo(mongoTemplate.count(new Query(), Member.class));
+    }
+
+    @Test
+    void recentLoansAreTheFiveLatestActiveOnes() {
+        List<String> active = new ArrayList<>();
+        for (int day = 0; day < 6; day++) {
+            active.add(insert(FUTURE.plusDays(day), null, BorrowedBook.BORROWED));
+        }
+        // Later than all of them, but returned
+        insert(FUTURE.plusDays(10), FUTURE.plusDays(11), BorrowedBook.RETURNED);
+
+        List<BorrowedBook> recent = dashboardService.summary().getRecentLoans();
+
+        assertThat(recent).extracting(BorrowedBook::getId)
+                .containsExactly(active.get(5), active.get(4), active.get(3), active.get(2), active.get(1));
+        assertThat(recent).allSatisfy(loan -> {
+            assertThat(loan.getBookTitle()).isEqualTo(book.getTitle());
+            assertThat(loan.getMemberName()).isEqualTo(member.getName());
+            // Left out of the projection; the snapshots above render the row
+            assertThat(loan.getBook()).isNull();
+        });
+    }
+
+    @Test
+    void summaryIsSharedUntilItExpires() {
+        DashboardSummary first = dashboardService.summary();
+        insert(FUTURE, null, BorrowedBook.BORROWED);
+
+        assertThat(dashboardService.summary()).isSameAs(first);
+
+        expireCache();
+        assertThat(dashboardService.summary().getLoans()).isEqualTo(first.getLoans() + 1);
+    }
+
+    private String insert(LocalDate borrowDate, LocalDate returnDate, String status) {
+        BorrowedBook loan = TestData.loan(book.getId(), member.getId());
+        loan.setBorrowDate(borrowDate);
+        loan.setDueDate(borrowDate.plusDays(14));
+        loan.setReturnDate(returnDate);
+        loan.setStatus(status);
+        loan.setBookTitle(book.getTitle());
+        loan.setMemberName(member.getName());
+        String id = mongoTemplate.insert(loan).getId();
+        inserted.add(id);
+        return id;
+    }
+
+    private void expireCache() {
+        ReflectionTestUtils.setField(dashboardService, "cachedUntil", 0L);
+    }
+}
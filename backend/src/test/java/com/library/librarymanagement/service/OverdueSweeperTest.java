@@ -0,0 +1,169 @@
+package com.library.librarymanagement.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.library.librarymanagement.InMemoryMongoTest;
+import com.library.librarymanagement.TestData;
+import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.model.BorrowedBook;
+import com.library.librarymanagement.model.Member;
+import com.library.librarymanagement.repository.BorrowedBookRepository;
+
+// Loans written straight to Mongo carry whatever status they are given, as loans from before the sweeper
+// or from other instances do; the sweeper's range is moved through sweptBefore
+class OverdueSweeperTest extends InMemoryMongoTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Autowired
+    private OverdueSweeper overdueSweeper;
+
+    @Autowired
+    private BorrowedBookService borrowedBookService;
+
+    @Autowired
+    private BorrowedBookRepository borrowedBookRepository;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private MemberService memberService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private Book book;
+
+    private Member member;
+
+    private final List<String> inserted = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        book = bookService.save(TestData.book("Overdue", 10));
+        member = memberService.save(TestData.member("Late Reader"));
+    }
+
+    @AfterEach
+    void removeLoans() {
+        mongoTemplate.remove(new Query(Criteria.where("id").in(inserted)), BorrowedBook.class);
+        overdueSweeper.recountSoon();
+        overdueSweeper.sweep();
+    }
+
+    @Test
+    void catchUpFlagsEveryPastDueLoanAndMarksReturnedOnes() {
+        String longOverdue = insert(TODAY.minusDays(400), null, BorrowedBook.BORROWED);
+        String dueYesterday = insert(TODAY.minusDays(1), null, BorrowedBook.BORROWED);
+        String dueToday = insert(TODAY, null, BorrowedBook.BORROWED);
+        String returnedLate = insert(TODAY.minusDays(30), TODAY.minusDays(2), BorrowedBook.OVERDUE);
+        ReflectionTestUtils.setField(overdueSweeper, "sweptBefore", null);
+
+        overdueSweeper.catchUp();
+
+        assertThat(statusOf(longOverdue)).isEqualTo(BorrowedBook.OVERDUE);
+        assertThat(statusOf(dueYesterday)).isEqualTo(BorrowedBook.OVERDUE);
+        assertThat(statusOf(dueToday)).isEqualTo(BorrowedBook.BORROWED);
+        assertThat(statusOf(returnedLate)).isEqualTo(BorrowedBook.RETURNED);
+        assertThat(ReflectionTestUtils.getField(overdueSweeper, "sweptBefore")).isEqualTo(TODAY);
+        assertThat(overdueSweeper.overdueLoans()).isEqualTo(borrowedBookRepository.countOverdue());
+    }
+
+    @Test
+    void laterSweepsOnlyCoverTheDaysSinceThePrevious() {
+        String beforeRange = insert(TODAY.minusDays(10), null, BorrowedBook.BORROWED);
+        String inRange = insert(TODAY.minusDays(2), null, BorrowedBook.BORROWED);
+        ReflectionTestUtils.setField(overdueSweeper, "sweptBefore", TODAY.minusDays(3));
+
+        overdueSweeper.sweep();
+
+        assertThat(statusOf(inRange)).isEqualTo(BorrowedBook.OVERDUE);
+        // Left to the catch-up sweep, which covers every day before the first sweep's
+        assertThat(statusOf(beforeRange)).isEqualTo(BorrowedBook.BORROWED);
+
+        // Today is covered; another sweep the same day updates nothing
+        String dueYesterday = insert(TODAY.minusDays(1), null, BorrowedBook.BORROWED);
+        overdueSweeper.sweep();
+        assertThat(statusOf(dueYesterday)).isEqualTo(BorrowedBook.BORROWED);
+    }
+
+    @Test
+    void statusChangesKeepTheCountInStep() {
+        BorrowedBook loan = TestData.loan(book.getId(), member.getId());
+        loan.setBorrowDate(TODAY.minusDays(20));
+        loan.setDueDate(TODAY.minusDays(6));
+        BorrowedBook borrowed = borrowedBookService.borrowBook(loan);
+        inserted.add(borrowed.getId());
+        assertThat(borrowed.getStatus()).isEqualTo(BorrowedBook.OVERDUE);
+        assertThat(overdueSweeper.overdueLoans()).isEqualTo(borrowedBookRepository.countOverdue());
+
+        // An edit whose body carries no status moves the loan out of OVERDUE
+        BorrowedBook edit = borrowedBookRepository.findById(borrowed.getId()).orElseThrow();
+        edit.setStatus(null);
+        edit.setDueDate(TODAY.plusDays(7));
+        assertThat(borrowedBookService.save(edit).getStatus()).isEqualTo(BorrowedBook.BORROWED);
+        assertThat(overdueSweeper.overdueLoans()).isEqualTo(borrowedBookRepository.countOverdue());
+
+        // And back into it
+        edit = borrowedBookRepository.findById(borrowed.getId()).orElseThrow();
+        edit.setStatus(null);
+        edit.setDueDate(TODAY.minusDays(1));
+        assertThat(borrowedBookService.save(edit).getStatus()).isEqualTo(BorrowedBook.OVERDUE);
+        assertThat(overdueSweeper.overdueLoans()).isEqualTo(borrowedBookRepository.countOverdue());
+
+        borrowedBookService.returnBook(borrowed.getId());
+        assertThat(overdueSweeper.overdueLoans()).isEqualTo(borrowedBookRepository.countOverdue());
+
+        BorrowedBook overdue = TestData.loan(book.getId(), member.getId());
+        overdue.setDueDate(TODAY.minusDays(3));
+        overdue = borrowedBookService.borrowBook(overdue);
+        inserted.add(overdue.getId());
+        borrowedBookService.deleteById(overdue.getId());
+        assertThat(overdueSweeper.overdueLoans()).isEqualTo(borrowedBookRepository.countOverdue());
+    }
+
+    @Test
+    void recountSoonRecountsOnTheNextSweep() {
+        // Flagged by another instance
+        insert(TODAY.minusDays(5), null, BorrowedBook.OVERDUE);
+        long counted = overdueSweeper.overdueLoans();
+        assertThat(borrowedBookRepository.countOverdue()).isEqualTo(counted + 1);
+
+        // Already swept today: nothing changes until a recount is asked for
+        overdueSweeper.sweep();
+        assertThat(overdueSweeper.overdueLoans()).isEqualTo(counted);
+
+        overdueSweeper.recountSoon();
+        overdueSweeper.sweep();
+        assertThat(overdueSweeper.overdueLoans()).isEqualTo(counted + 1);
+    }
+
+    private String insert(LocalDate dueDate, LocalDate returnDate, String status) {
+        BorrowedBook loan = TestData.loan(book.getId(), member.getId());
+        loan.setBorrowDate(dueDate.minusDays(14));
+        loan.setDueDate(dueDate);
+        loan.setReturnDate(returnDate);
+        loan.setStatus(status);
+        String id = mongoTemplate.insert(loan).getId();
+        inserted.add(id);
+        return id;
+    }
+
+    private String statusOf(String loanId) {
+        return borrowedBookRepository.findById(loanId).orElseThrow().getStatus();
+    }
+}
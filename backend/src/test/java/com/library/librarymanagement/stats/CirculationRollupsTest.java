@@ -0,0 +1,95 @@
+package com.library.librarymanagement.stats;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class CirculationRollupsTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2024, 3, 4);
+
+    private final CirculationRollups rollups = new CirculationRollups();
+
+    @Test
+    void loansAreCountedPerDayCategoryAndBook() {
+        rollups.addLoans("a", "Dune", "Fiction", MONDAY, 1);
+        rollups.addLoans("a", null, null, MONDAY.plusDays(1), 1);
+        rollups.addLoans("b", "Cosmos", "Science", MONDAY, 1);
+        rollups.addLoans("c", "Untitled", null, null, 1);
+
+        assertThat(rollups.getTotalLoans()).isEqualTo(4);
+        assertThat(rollups.getBookCount()).isEqualTo(3);
+        assertThat(rollups.getLoansPerDay()).containsEntry(MONDAY, 2L).containsEntry(MONDAY.plusDays(1), 1L)
+                .hasSize(2);
+        // The second loan of "a" falls back to the title and category already known
+        BookLoans dune = rollups.getBook("a");
+        assertThat(dune.getTitle()).isEqualTo("Dune");
+        assertThat(dune.getCategory()).isEqualTo("Fiction");
+        assertThat(dune.getLoans()).isEqualTo(2);
+        Map<String, Long> categories = rollups.categoriesByLoans();
+        assertThat(categories).containsOnly(Map.entry("Fiction", 2L), Map.entry("Science", 1L),
+                Map.entry(CirculationRollups.UNCATEGORIZED, 1L));
+        assertThat(categories.keySet()).first().isEqualTo("Fiction");
+    }
+
+    @Test
+    void topBooksAreRankedByLoansThenId() {
+        rollups.addLoans("b", "B", "X", MONDAY, 2);
+        rollups.addLoans("a", "A", "X", MONDAY, 2);
+        rollups.addLoans("c", "C", "X", MONDAY, 5);
+        rollups.addLoans("d", "D", "X", MONDAY, 1);
+
+        assertThat(rollups.top(3)).extracting(BookLoans::getBookId).containsExactly("c", "a", "b");
+        assertThat(rollups.top(10)).hasSize(4);
+
+        // Re-ranked as counts move
+        rollups.addLoans("d", null, null, MONDAY, 5);
+        assertThat(rollups.top(1)).extracting(BookLoans::getBookId).containsExactly("d");
+    }
+
+    @Test
+    void negativeCountsTakeLoansBackOutAndDropEmptyEntries() {
+        rollups.addLoans("a", "Dune", "Fiction", MONDAY, 1);
+        rollups.addLoans("b", "Cosmos", "Science", MONDAY, 1);
+
+        rollups.addLoans("a", null, rollups.categoryOf("a"), MONDAY, -1);
+
+        assertThat(rollups.getTotalLoans()).isEqualTo(1);
+        assertThat(rollups.getBook("a")).isNull();
+        assertThat(rollups.top(5)).extracting(BookLoans::getBookId).containsExactly("b");
+        assertThat(rollups.categoriesByLoans()).containsOnlyKeys("Science");
+        assertThat(rollups.getLoansPerDay()).containsEntry(MONDAY, 1L);
+    }
+
+    @Test
+    void putDaySetsTheCountOfADay() {
+        rollups.putDay(MONDAY, 7);
+        rollups.addLoans("a", "Dune", "Fiction", MONDAY, 1);
+
+        assertThat(rollups.getLoansPerDay()).containsEntry(MONDAY, 8L);
+    }
+
+    @Test
+    void returnsAccumulateCountAndDays() {
+        rollups.addReturns(3, 21);
+        rollups.addReturns(-1, -7);
+
+        assertThat(rollups.getReturnedLoans()).isEqualTo(2);
+        assertThat(rollups.getReturnedLoanDays()).isEqualTo(14);
+    }
+
+    @Test
+    void onlyLoansReadByARebuildAreCounted() {
+        rollups.countedLoan("x");
+        rollups.countedReturn("y");
+
+        assertThat(rollups.isLoanCounted("x")).isTrue();
+        assertThat(rollups.isLoanCounted("y")).isFalse();
+        assertThat(rollups.isReturnCounted("y")).isTrue();
+        assertThat(rollups.isReturnCounted("x")).isFalse();
+        assertThat(rollups.isLoanCounted(null)).isFalse();
+    }
+}
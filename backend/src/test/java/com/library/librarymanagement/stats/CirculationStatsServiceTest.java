@@ -0,0 +1,190 @@
+package com.library.librarymanagement.stats;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.library.librarymanagement.InMemoryMongoTest;
+import com.library.librarymanagement.TestData;
+import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.model.BorrowedBook;
+import com.library.librarymanagement.model.Member;
+import com.library.librarymanagement.service.BookService;
+import com.library.librarymanagement.service.BorrowedBookService;
+import com.library.librarymanagement.service.MemberService;
+
+// The rollups as changes apply them against a rebuild from the loan history. A rebuild runs four
+// aggregations: by book, by day, returns, then the loans after the read point one by one; the template is
+// swapped for one that writes loans while those run.
+class CirculationStatsServiceTest extends InMemoryMongoTest {
+
+    private static final int READS = 4;
+
+    @Autowired
+    private CirculationStatsService circulationStatsService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private MemberService memberService;
+
+    @Autowired
+    private BorrowedBookService borrowedBookService;
+
+    private Book book;
+
+    private Member member;
+
+    private final AtomicInteger reads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        book = bookService.save(TestData.book("Rolled Up", 10));
+        member = memberService.save(TestData.member("Rollup Reader"));
+        // Other tests write loans without going through the service
+        circulationStatsService.rebuild();
+    }
+
+    @AfterEach
+    void restoreTemplate() {
+        ReflectionTestUtils.setField(circulationStatsService, "mongoTemplate", mongoTemplate);
+    }
+
+    @Test
+    void rebuildMatchesTheChangesAppliedAsTheyHappen() {
+        BorrowedBook first = borrow(null);
+        BorrowedBook second = borrow(null);
+        BorrowedBook old = borrow(daysAgo(3));
+        borrowedBookService.returnBook(first.getId());
+        borrowedBookService.returnBook(old.getId());
+        borrowedBookService.deleteById(second.getId());
+
+        Map<String, Object> applied = snapshot();
+        assertThat(circulationStatsService.loansOf(book.getId()).getLoans()).isEqualTo(2);
+
+        circulationStatsService.rebuild();
+        assertThat(snapshot()).isEqualTo(applied);
+    }
+
+    @Test
+    void loansPerDayCoversEveryDayOfTheRange() {
+        borrow(null);
+        LocalDate today = LocalDate.now();
+
+        Map<LocalDate, Long> days = circulationStatsService.loansPerDay(today.minusDays(6), today);
+
+        assertThat(days).hasSize(7);
+        assertThat(days.keySet()).first().isEqualTo(today.minusDays(6));
+        assertThat(days.get(today)).isPositive();
+    }
+
+    @Test
+    void changesDuringTheReadAreCountedOnce() {
+        BorrowedBook old = borrow(daysAgo(3));
+        Map<Integer, Runnable> during = new HashMap<>();
+        // Written before the aggregations read the history, applied while the rebuild runs
+        during.put(1, () -> {
+            borrow(null);
+            borrowedBookService.returnBook(old.getId());
+        });
+        Map<Integer, Runnable> after = new HashMap<>();
+        // Written after the last read, so only its replay counts it
+        after.put(READS, () -> borrow(null));
+
+        rebuildReading(during, after);
+
+        assertThat(reads).hasValue(READS);
+        assertThat(circulationStatsService.loansOf(book.getId()).getLoans()).isEqualTo(3);
+        Map<String, Object> swapped = snapshot();
+        circulationStatsService.rebuild();
+        assertThat(swapped).isEqualTo(snapshot());
+    }
+
+    @Test
+    void aLoanDeletedDuringTheReadIsReadAgain() {
+        BorrowedBook old = borrow(daysAgo(3));
+        borrowedBookService.returnBook(old.getId());
+        borrow(daysAgo(2));
+        Map<Integer, Runnable> during = new HashMap<>();
+        during.put(2, () -> borrowedBookService.deleteById(old.getId()));
+
+        rebuildReading(during, Map.of());
+
+        assertThat(reads).hasValue(2 * READS);
+        assertThat(circulationStatsService.loansOf(book.getId()).getLoans()).isEqualTo(1);
+        Map<String, Object> swapped = snapshot();
+        circulationStatsService.rebuild();
+        assertThat(swapped).isEqualTo(snapshot());
+    }
+
+    // Rebuilds with a template that runs the given writes before the numbered aggregation, or after it
+    // was read to the end
+    @SuppressWarnings("unchecked")
+    private void rebuildReading(Map<Integer, Runnable> before, Map<Integer, Runnable> after) {
+        MongoTemplate template = spy(mongoTemplate);
+        doAnswer(invocation -> {
+            int read = reads.incrementAndGet();
+            before.getOrDefault(read, () -> { }).run();
+            List<Document> documents;
+            try (Stream<Document> stream = (Stream<Document>) invocation.callRealMethod()) {
+                documents = stream.toList();
+            }
+            after.getOrDefault(read, () -> { }).run();
+            return documents.stream();
+        }).when(template).aggregateStream(any(Aggregation.class), anyString(), eq(Document.class));
+        ReflectionTestUtils.setField(circulationStatsService, "mongoTemplate", template);
+        circulationStatsService.rebuild();
+        ReflectionTestUtils.setField(circulationStatsService, "mongoTemplate", mongoTemplate);
+    }
+
+    // A loan whose id dates it before the read point, or a new one when createdAt is null
+    private BorrowedBook borrow(Instant createdAt) {
+        BorrowedBook loan = TestData.loan(book.getId(), member.getId());
+        if (createdAt != null) {
+            loan.setId(new ObjectId(Date.from(createdAt)).toHexString());
+            loan.setBorrowDate(LocalDate.now().minusDays(7));
+        }
+        return borrowedBookService.borrowBook(loan);
+    }
+
+    private static Instant daysAgo(int days) {
+        return Instant.now().minus(Duration.ofDays(days));
+    }
+
+    private Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>(circulationStatsService.summary());
+        snapshot.remove("rebuiltAt");
+        snapshot.put("book", circulationStatsService.loansOf(book.getId()).getLoans());
+        snapshot.put("categories", circulationStatsService.loansPerCategory());
+        snapshot.put("days", circulationStatsService.loansPerDay(LocalDate.now().minusDays(30), LocalDate.now()));
+        return snapshot;
+    }
+}
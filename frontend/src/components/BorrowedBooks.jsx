@@ -24,6 +24,7 @@ const BorrowedBooks = () => {
         fetchBorrowedBooks,
         fetchBooks,
         fetchMembers,
+        fetchAvailability,
         addBorrowedBook,
         returnBook,
         deleteBorrowedBook,
@@ -32,6 +33,7 @@ const BorrowedBooks = () => {
         error,
     } = useLibrary();
     const [showModal, setShowModal] = useState(false);
+    const [availability, setAvailability] = useState(null); // book id -> available copies
     const [searchTerm, setSearchTerm] = useState("");
     const [searchResults, setSearchResults] = useState([]);
     const [isSearching, setIsSearching] = useState(false);
@@ -59,6 +61,17 @@ const BorrowedBooks = () => {
         fetchMembers();
     }, []);
 
+    // Refresh the copy counts whenever the borrow dialog opens, so the list reflects other borrowings
+    useEffect(() => {
+        if (!showModal) return;
+        fetchAvailability()
+            .then(setAvailability)
+            .catch((err) => {
+                console.error("Error fetching availability:", err);
+                setAvailability(null);
+            });
+    }, [showModal]);
+
     useEffect(() => {
         if (searchTerm.trim()) {
             handleSearch();
@@ -416,6 +429,9 @@ const BorrowedBooks = () => {
                         >
                             <option value="">Select a book</option>
                             {books
+                                .map((book) =>
+                                    availability ? { ...book, availableCopies: availability[book.id] || 0 } : book
+                                )
                                 .filter((book) => (book.availableCopies || 0) > 0)
                                 .map((book) => (
                                     <option key={book.id} value={book.id}>
@@ -1,61 +1,48 @@
-import React, { useEffect } from "react";
+import React, { useEffect, useState } from "react";
 import { Link } from "react-router-dom";
 import { useLibrary } from "../context/LibraryContext";
 import { BookOpen, Users, UserCheck, BookMarked, AlertCircle } from "lucide-react";
 
 const Dashboard = () => {
-    const {
-        books,
-        authors,
-        members,
-        borrowedBooks,
-        fetchBooks,
-        fetchAuthors,
-        fetchMembers,
-        fetchBorrowedBooks,
-        loading,
-        error,
-    } = useLibrary();
+    const { fetchDashboard, loading, error } = useLibrary();
+    const [summary, setSummary] = useState(null);
 
     useEffect(() => {
-        fetchBooks();
-        fetchAuthors();
-        fetchMembers();
-        fetchBorrowedBooks();
+        fetchDashboard().then(setSummary);
     }, []);
 
     const stats = [
         {
             title: "Total Books",
-            value: books.length,
+            value: summary?.books ?? 0,
             icon: BookOpen,
             color: "bg-blue-500",
             textColor: "text-blue-600",
         },
         {
             title: "Total Authors",
-            value: authors.length,
+            value: summary?.authors ?? 0,
             icon: Users,
             color: "bg-green-500",
             textColor: "text-green-600",
         },
         {
             title: "Total Members",
-            value: members.length,
+            value: summary?.members ?? 0,
             icon: UserCheck,
             color: "bg-purple-500",
             textColor: "text-purple-600",
         },
         {
             title: "Borrowed Books",
-            value: borrowedBooks.filter((book) => !book.returnDate).length,
+            value: summary?.activeLoans ?? 0,
             icon: BookMarked,
             color: "bg-orange-500",
             textColor: "text-orange-600",
         },
     ];
 
-    const recentBorrowedBooks = borrowedBooks.filter((book) => !book.returnDate).slice(0, 5);
+    const recentBorrowedBooks = summary?.recentLoans ?? [];
     if (loading) {
         return (
             <div className="flex items-center justify-center h-64">
@@ -122,11 +109,11 @@ const Dashboard = () => {
                                     >
                                         <div>
                                             <h3 className="font-medium text-gray-800 dark:text-white text-sm sm:text-base">
-                                                {borrowedBook.book?.title || "Unknown Book"}
+                                                {borrowedBook.bookTitle || "Unknown Book"}
                                             </h3>
                                             <p className="text-xs sm:text-sm text-gray-600 dark:text-gray-300">
                                                 Borrowed by:{" "}
-                                                {borrowedBook.member?.name || "Unknown Member"}
+                                                {borrowedBook.memberName || "Unknown Member"}
                                             </p>
                                             <p className="text-xs text-gray-500 dark:text-gray-400">
                                                 {borrowedBook.borrowDate
@@ -58,12 +58,32 @@ export const LibraryProvider = ({ children }) => {
         }
     );
 
+    // Sends the version an edit started from; the server answers 412 (or 409 for a race on save)
+    // instead of overwriting a change made in the meantime, and 428 when no version was sent
+    const ifMatch = (entity) =>
+        entity?.version != null ? { headers: { "If-Match": `"${entity.version}"` } } : {};
+
+    const isConflict = (err) => [409, 412, 428].includes(err.response?.status);
+
+    // The list screens filter the whole collection in the browser, so a list is loaded page by page,
+    // following X-Next-Cursor until the last page, rather than as one unbounded response
+    const PAGE_LIMIT = 500;
+    const fetchAll = async (path) => {
+        const items = [];
+        let after;
+        do {
+            const response = await api.get(path, { params: { limit: PAGE_LIMIT, after } });
+            items.push(...response.data);
+            after = response.headers["x-next-cursor"];
+        } while (after);
+        return items;
+    };
+
     // Books API
     const fetchBooks = async () => {
         try {
             setLoading(true);
-            const response = await api.get("/books");
-            setBooks(response.data);
+            setBooks(await fetchAll("/books"));
             setError(null);
         } catch (err) {
             setError("Failed to fetch books");
@@ -86,15 +106,29 @@ export const LibraryProvider = ({ children }) => {
 
     const updateBook = async (id, bookData) => {
         try {
-            const response = await api.put(`/books/${id}`, bookData);
+            const current = books.find((book) => book.id === id);
+            const response = await api.put(`/books/${id}`, bookData, ifMatch(current));
             setBooks((prev) => prev.map((book) => (book.id === id ? response.data : book)));
             return response.data;
         } catch (err) {
-            setError("Failed to update book");
+            setError(
+                isConflict(err)
+                    ? "This book was changed by someone else; reload and try again"
+                    : "Failed to update book"
+            );
             throw err;
         }
     };
 
+    // Current copy counts of the books with a copy on the shelf, answered from the server's in-memory
+    // availability index; keyed by book id
+    const fetchAvailability = async () => {
+        const response = await api.get("/books/available", {
+            params: { fields: "availableCopies,totalCopies" },
+        });
+        return Object.fromEntries(response.data.map((book) => [book.id, book.availableCopies]));
+    };
+
     const deleteBook = async (id) => {
         try {
             await api.delete(`/books/${id}`);
@@ -109,8 +143,7 @@ export const LibraryProvider = ({ children }) => {
     const fetchAuthors = async () => {
         try {
             setLoading(true);
-            const response = await api.get("/authors");
-            setAuthors(response.data);
+            setAuthors(await fetchAll("/authors"));
             setError(null);
         } catch (err) {
             setError("Failed to fetch authors");
@@ -133,11 +166,16 @@ export const LibraryProvider = ({ children }) => {
 
     const updateAuthor = async (id, authorData) => {
         try {
-            const response = await api.put(`/authors/${id}`, authorData);
+            const current = authors.find((author) => author.id === id);
+            const response = await api.put(`/authors/${id}`, authorData, ifMatch(current));
             setAuthors((prev) => prev.map((author) => (author.id === id ? response.data : author)));
             return response.data;
         } catch (err) {
-            setError("Failed to update author");
+            setError(
+                isConflict(err)
+                    ? "This author was changed by someone else; reload and try again"
+                    : "Failed to update author"
+            );
             throw err;
         }
     };
@@ -156,8 +194,7 @@ export const LibraryProvider = ({ children }) => {
     const fetchMembers = async () => {
         try {
             setLoading(true);
-            const response = await api.get("/members");
-            setMembers(response.data);
+            setMembers(await fetchAll("/members"));
             setError(null);
         } catch (err) {
             setError("Failed to fetch members");
@@ -180,11 +217,16 @@ export const LibraryProvider = ({ children }) => {
 
     const updateMember = async (id, memberData) => {
         try {
-            const response = await api.put(`/members/${id}`, memberData);
+            const current = members.find((member) => member.id === id);
+            const response = await api.put(`/members/${id}`, memberData, ifMatch(current));
             setMembers((prev) => prev.map((member) => (member.id === id ? response.data : member)));
             return response.data;
         } catch (err) {
-            setError("Failed to update member");
+            setError(
+                isConflict(err)
+                    ? "This member was changed by someone else; reload and try again"
+                    : "Failed to update member"
+            );
             throw err;
         }
     };
@@ -203,8 +245,7 @@ export const LibraryProvider = ({ children }) => {
     const fetchBorrowedBooks = async () => {
         try {
             setLoading(true);
-            const response = await api.get("/borrowed-books");
-            setBorrowedBooks(response.data);
+            setBorrowedBooks(await fetchAll("/borrowed-books"));
             setError(null);
         } catch (err) {
             setError("Failed to fetch borrowed books");
@@ -257,6 +298,22 @@ export const LibraryProvider = ({ children }) => {
         }
     };
 
+    // Dashboard API: counts and the most recent active loans in one request, instead of every collection
+    const fetchDashboard = async () => {
+        try {
+            setLoading(true);
+            const response = await api.get("/dashboard");
+            setError(null);
+            return response.data;
+        } catch (err) {
+            setError("Failed to fetch dashboard");
+            console.error("Error fetching dashboard:", err);
+            return null;
+        } finally {
+            setLoading(false);
+        }
+    };
+
     const value = {
         // State
         books,
@@ -271,6 +328,7 @@ export const LibraryProvider = ({ children }) => {
         addBook,
         updateBook,
         deleteBook,
+        fetchAvailability,
 
         // Authors
         fetchAuthors,
@@ -291,6 +349,9 @@ export const LibraryProvider = ({ children }) => {
         deleteBorrowedBook,
         searchBorrowedBooks,
 
+        // Dashboard
+        fetchDashboard,
+
         // Utility
         setError,
     };